@@ -0,0 +1,131 @@
+import benchmarks.Workloads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Default package implementation of {@link Workloads}, giving the benchmarks
+ * access to the application classes.
+ *
+ * IS-A: PracticeWorkloads is the benchmark view of the application
+ * HAS-A: PracticeWorkloads has a JsonStore, a BinarySessionCodec and a PlanGenerator
+ */
+public class PracticeWorkloads implements Workloads {
+
+  private final JsonStore store = new JsonStore();
+  private final BinarySessionCodec codec = new BinarySessionCodec(store);
+  private final PlanGenerator generator = new PlanGenerator();
+
+
+
+  @Override
+  public Object session(int entries) {
+    return new SyntheticData(SyntheticData.DEFAULT_SEED).session(LocalDate.of(2025, 1, 1), entries);
+  }
+
+
+
+  @Override
+  public Object exercises(int count) {
+    return new SyntheticData(SyntheticData.DEFAULT_SEED).exercises(count);
+  }
+
+
+
+  @Override
+  public void save(Object session, Path file) throws IOException {
+    store.save((Session) session, file);
+  }
+
+
+
+  @Override
+  public Object load(Path file) throws Exception {
+    return store.load(file);
+  }
+
+
+
+  @Override
+  public Object history(int days, int entriesPerSession) {
+    return new SyntheticData(SyntheticData.DEFAULT_SEED)
+        .history(LocalDate.of(2025, 1, 1), days, entriesPerSession);
+  }
+
+
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public byte[] encodeBinary(Object sessions) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.write((List<Session>) sessions, out);
+    return out.toByteArray();
+  }
+
+
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public byte[] encodeJson(Object sessions) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    store.writeAll(((List<Session>) sessions).iterator(), writer);
+    return out.toByteArray();
+  }
+
+
+
+  @Override
+  public Object decodeBinary(Path file) throws Exception {
+    return codec.load(file);
+  }
+
+
+
+  @Override
+  public Object decodeJson(Path file) throws Exception {
+    try (Stream<Session> sessions = store.stream(file)) {
+      return sessions.collect(Collectors.toList());
+    }
+  }
+
+
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Object report(Object sessions, boolean parallel) {
+    List<Session> list = (List<Session>) sessions;
+    Stream<Session> stream = parallel ? list.parallelStream() : list.stream();
+    return stream.collect(ReportCollectors.report());
+  }
+
+
+
+  @Override
+  public int totalMinutes(Object session) {
+    return ((Session) session).getTotalMinutes();
+  }
+
+
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Object generatePlan(Object exercises) {
+    return generator.generate((List<Exercise>) exercises);
+  }
+
+
+
+  @Override
+  public Object[][] buildPlanData(Object plan) {
+    return PlanDialog.buildData((WeeklyPlan) plan);
+  }
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible generator of practice data for benchmarks.
+ *
+ * Everything is derived from a seeded {@link Random}, so the same seed always
+ * produces the same exercises, sessions and files. The benchmarks use it to
+ * build their inputs, and {@link #main} writes the same data to disk so a
+ * regression can be reproduced outside JMH.
+ *
+ * HAS-A: SyntheticData has a seeded random source
+ */
+public class SyntheticData {
+
+  public static final long DEFAULT_SEED = 191L;
+
+  private static final String[] QUALITIES = {"Major", "Minor", "Dorian", "Mixolydian"};
+  private static final String[] ROOTS = {"C", "G", "D", "A", "E", "F", "Bb", "Eb"};
+  private static final String[] CHORDS = {"Cmaj7", "Dm7", "G7", "Am7", "Fmaj7"};
+  private static final String[] NOTES = {"clean run", "rushed the bridge", "work on shifts", null, null};
+
+  private final Random random;
+
+
+
+  /**
+   * Creates a generator.
+   *
+   * @param seed the random seed; equal seeds give equal data
+   */
+  public SyntheticData(long seed) {
+    this.random = new Random(seed);
+  }
+
+
+
+  /**
+   * Builds a list of exercises that cycles through the three exercise kinds.
+   *
+   * @param count number of exercises
+   * @return the exercises
+   */
+  public List<Exercise> exercises(int count) {
+    List<Exercise> exercises = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int target = 5 + random.nextInt(40);
+      switch (i % 3) {
+        case 0:
+          exercises.add(new ScaleExercise("Scale " + i, target, pick(QUALITIES), pick(ROOTS),
+              60 + random.nextInt(120)));
+          break;
+        case 1:
+          exercises.add(new ArpeggioExercise("Arpeggio " + i, target, pick(CHORDS),
+              60 + random.nextInt(120)));
+          break;
+        default:
+          exercises.add(new SongExercise("Song " + i, target, "Tune " + i, "Artist " + (i % 50)));
+          break;
+      }
+    }
+    return exercises;
+  }
+
+
+
+  /**
+   * Builds one session whose entries draw on a small pool of exercises, the
+   * way real sessions repeat the same few exercises.
+   *
+   * @param date the session date
+   * @param entries number of entries
+   * @return the session
+   */
+  public Session session(LocalDate date, int entries) {
+    List<Exercise> pool = exercises(Math.max(1, Math.min(entries, 12)));
+    Session session = new Session(date);
+    for (int i = 0; i < entries; i++) {
+      Integer tempo = random.nextInt(4) == 0 ? null : 60 + random.nextInt(140);
+      session.addEntry(new SessionEntry(pool.get(random.nextInt(pool.size())),
+          1 + random.nextInt(45), tempo, pick(NOTES)));
+    }
+    return session;
+  }
+
+
+
+  /**
+   * Builds consecutive daily sessions.
+   *
+   * @param start date of the first session
+   * @param days number of sessions
+   * @param entriesPerSession entries in each session
+   * @return the sessions in date order
+   */
+  public List<Session> history(LocalDate start, int days, int entriesPerSession) {
+    List<Session> sessions = new ArrayList<>(days);
+    for (int d = 0; d < days; d++) {
+      sessions.add(session(start.plusDays(d), entriesPerSession));
+    }
+    return sessions;
+  }
+
+
+
+  private <T> T pick(T[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+
+
+  /**
+   * Writes the benchmark session files to a directory: one session file for
+   * each entry count used by the benchmarks.
+   *
+   * @param args output directory, optionally followed by a seed
+   * @throws IOException if a file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("usage: SyntheticData <output-dir> [seed]");
+      System.exit(2);
+    }
+    Path dir = Paths.get(args[0]);
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+    Files.createDirectories(dir);
+
+    JsonStore store = new JsonStore();
+    for (int entries : new int[] {10, 1_000, 100_000}) {
+      Session session = new SyntheticData(seed).session(LocalDate.of(2025, 1, 1), entries);
+      Path file = dir.resolve("session-" + entries + ".json");
+      store.save(session, file);
+      System.out.println("wrote " + file);
+    }
+  }
+}
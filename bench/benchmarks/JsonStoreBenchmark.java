@@ -0,0 +1,76 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JsonStore.save and JsonStore.load for one session of growing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonStoreBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int entries;
+
+  private Workloads workloads;
+  private Object session;
+  private Path dir;
+  private Path saveFile;
+  private Path loadFile;
+
+
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    workloads = Workloads.load();
+    session = workloads.session(entries);
+    dir = Files.createTempDirectory("jsonstore-bench-");
+    saveFile = dir.resolve("save.json");
+    loadFile = dir.resolve("load.json");
+    workloads.save(session, loadFile);
+  }
+
+
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(saveFile);
+    Files.deleteIfExists(loadFile);
+    Files.deleteIfExists(dir);
+  }
+
+
+
+  @Benchmark
+  public void save() throws IOException {
+    workloads.save(session, saveFile);
+  }
+
+
+
+  @Benchmark
+  public Object load() throws Exception {
+    return workloads.load(loadFile);
+  }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures weekly plan generation and turning a plan into table data for PlanDialog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  public int exerciseCount;
+
+  private Workloads workloads;
+  private Object exercises;
+  private Object plan;
+
+
+
+  @Setup
+  public void setUp() {
+    workloads = Workloads.load();
+    exercises = workloads.exercises(exerciseCount);
+    plan = workloads.generatePlan(exercises);
+  }
+
+
+
+  @Benchmark
+  public Object generate() {
+    return workloads.generatePlan(exercises);
+  }
+
+
+
+  @Benchmark
+  public Object[][] buildData() {
+    return workloads.buildPlanData(plan);
+  }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures collecting a full PracticeReport over a daily history, from a
+ * sequential and from a parallel stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportBenchmark {
+
+  @Param({"365", "3650"})
+  public int days;
+
+  private Workloads workloads;
+  private Object sessions;
+
+
+
+  @Setup
+  public void setUp() {
+    workloads = Workloads.load();
+    sessions = workloads.history(days, 2);
+  }
+
+
+
+  @Benchmark
+  public Object sequential() {
+    return workloads.report(sessions, false);
+  }
+
+
+
+  @Benchmark
+  public Object parallel() {
+    return workloads.report(sessions, true);
+  }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Session.getTotalMinutes, which the session list calls for every label.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int entries;
+
+  private Workloads workloads;
+  private Object session;
+
+
+
+  @Setup
+  public void setUp() {
+    workloads = Workloads.load();
+    session = workloads.session(entries);
+  }
+
+
+
+  @Benchmark
+  public int totalMinutes() {
+    return workloads.totalMinutes(session);
+  }
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares BinarySessionCodec with the Gson path of JsonStore on the same
+ * daily history: encoding to memory, decoding from a file, and the encoded
+ * size, which the encode benchmarks report as the encodedBytes counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionCodecBenchmark {
+
+  @Param({"365", "3650"})
+  public int days;
+
+  @Param({"3"})
+  public int entriesPerSession;
+
+  private Workloads workloads;
+  private Object sessions;
+  private Path dir;
+  private Path binaryFile;
+  private Path jsonFile;
+
+
+
+  /**
+   * Size of one encoding, reported next to the encode times. JMH adds up
+   * event counters over the measurement iterations, so each iteration
+   * records its share and the reported total is the size itself.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+    public double encodedBytes;
+    private double share;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+      share = 1.0 / params.getMeasurement().getCount();
+    }
+
+    void record(int bytes) {
+      encodedBytes = bytes * share;
+    }
+  }
+
+
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    workloads = Workloads.load();
+    sessions = workloads.history(days, entriesPerSession);
+    dir = Files.createTempDirectory("codec-bench-");
+    binaryFile = Files.write(dir.resolve("history.bin"), workloads.encodeBinary(sessions));
+    jsonFile = Files.write(dir.resolve("history.json"), workloads.encodeJson(sessions));
+  }
+
+
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(binaryFile);
+    Files.deleteIfExists(jsonFile);
+    Files.deleteIfExists(dir);
+  }
+
+
+
+  @Benchmark
+  public byte[] encodeBinary(EncodedSize size) throws IOException {
+    byte[] encoded = workloads.encodeBinary(sessions);
+    size.record(encoded.length);
+    return encoded;
+  }
+
+
+
+  @Benchmark
+  public byte[] encodeJson(EncodedSize size) throws IOException {
+    byte[] encoded = workloads.encodeJson(sessions);
+    size.record(encoded.length);
+    return encoded;
+  }
+
+
+
+  @Benchmark
+  public Object decodeBinary() throws Exception {
+    return workloads.decodeBinary(binaryFile);
+  }
+
+
+
+  @Benchmark
+  public Object decodeJson() throws Exception {
+    return workloads.decodeJson(jsonFile);
+  }
+}
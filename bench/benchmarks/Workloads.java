@@ -0,0 +1,144 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The application operations measured by the benchmarks.
+ *
+ * JMH cannot generate code for benchmarks in the default package, and a
+ * named package cannot refer to default package classes, which is where the
+ * application lives. The benchmarks therefore reach the application through
+ * this interface, implemented by the default package class
+ * {@code PracticeWorkloads} and loaded by name. Values are passed as opaque
+ * handles; the call through the interface is a single monomorphic dispatch
+ * and does not show in the results. Generated data always uses
+ * {@code SyntheticData.DEFAULT_SEED}, so every run measures the same data.
+ */
+public interface Workloads {
+
+  /**
+   * Loads the application side implementation.
+   *
+   * @return the workloads
+   */
+  static Workloads load() {
+    try {
+      return (Workloads) Class.forName("PracticeWorkloads").getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("PracticeWorkloads is not on the classpath", e);
+    }
+  }
+
+  /**
+   * Builds a reproducible session.
+   *
+   * @param entries number of entries
+   * @return a Session handle
+   */
+  Object session(int entries);
+
+  /**
+   * Builds a reproducible exercise list.
+   *
+   * @param count number of exercises
+   * @return a List of Exercise handle
+   */
+  Object exercises(int count);
+
+  /**
+   * Saves a session with JsonStore.save.
+   *
+   * @param session a Session handle
+   * @param file the file to write
+   * @throws IOException if the file cannot be written
+   */
+  void save(Object session, Path file) throws IOException;
+
+  /**
+   * Loads a session with JsonStore.load.
+   *
+   * @param file the file to read
+   * @return a Session handle
+   * @throws Exception if the file cannot be read or is invalid
+   */
+  Object load(Path file) throws Exception;
+
+  /**
+   * Builds reproducible consecutive daily sessions.
+   *
+   * @param days number of sessions
+   * @param entriesPerSession entries in each session
+   * @return a List of Session handle
+   */
+  Object history(int days, int entriesPerSession);
+
+  /**
+   * Encodes sessions with BinarySessionCodec.write.
+   *
+   * @param sessions a List of Session handle
+   * @return the encoded bytes
+   * @throws IOException if encoding fails
+   */
+  byte[] encodeBinary(Object sessions) throws IOException;
+
+  /**
+   * Encodes sessions with JsonStore.writeAll, as UTF-8.
+   *
+   * @param sessions a List of Session handle
+   * @return the encoded bytes
+   * @throws IOException if encoding fails
+   */
+  byte[] encodeJson(Object sessions) throws IOException;
+
+  /**
+   * Decodes a file written in the binary format with BinarySessionCodec.load.
+   *
+   * @param file the file to read
+   * @return a List of Session handle
+   * @throws Exception if the file cannot be read or is invalid
+   */
+  Object decodeBinary(Path file) throws Exception;
+
+  /**
+   * Decodes a JSON array file with JsonStore's streaming reader.
+   *
+   * @param file the file to read
+   * @return a List of Session handle
+   * @throws Exception if the file cannot be read or is invalid
+   */
+  Object decodeJson(Path file) throws Exception;
+
+  /**
+   * Collects a report with ReportCollectors.report.
+   *
+   * @param sessions a List of Session handle
+   * @param parallel whether to collect from a parallel stream
+   * @return a PracticeReport handle
+   */
+  Object report(Object sessions, boolean parallel);
+
+  /**
+   * Calls Session.getTotalMinutes.
+   *
+   * @param session a Session handle
+   * @return total minutes
+   */
+  int totalMinutes(Object session);
+
+  /**
+   * Calls PlanGenerator.generate.
+   *
+   * @param exercises a List of Exercise handle
+   * @return a WeeklyPlan handle
+   */
+  Object generatePlan(Object exercises);
+
+  /**
+   * Calls PlanDialog.buildData.
+   *
+   * @param plan a WeeklyPlan handle
+   * @return the table data
+   */
+  Object[][] buildPlanData(Object plan);
+}
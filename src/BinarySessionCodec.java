@@ -0,0 +1,469 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compact binary encoding of {@link Session} data, used as an alternative
+ * to the JSON files written by {@link JsonStore}.
+ *
+ * File layout (all integers are unsigned LEB128 varints unless noted):
+ * - magic bytes "PTSB" followed by one version byte
+ * - string table: count, then each string as byte length + UTF-8 bytes
+ * - exercise table: count, then for each exercise a type byte
+ *   (0 = scale, 1 = arpeggio, 2 = song), the name's string index, target
+ *   minutes, and the type's own fields as string indices and varints
+ * - session count, then for each session:
+ *   zigzag encoded epoch day, entry count, and for each entry:
+ *   exercise index, minutes, tempo (0 = none), notes index + 1 (0 = none)
+ *
+ * Exercise names, exercise fields and notes are written once in the string
+ * table and referred to by index, so repeated notes cost one or two bytes per
+ * entry. Loaded exercises are interned through the JSON store's
+ * {@link ExerciseCatalog}. Every count, index and number read back is range
+ * checked, so corrupt data fails with a ValidationException.
+ */
+public class BinarySessionCodec {
+
+  public static final int VERSION = 1;
+
+  private static final int TYPE_SCALE = 0;
+  private static final int TYPE_ARPEGGIO = 1;
+  private static final int TYPE_SONG = 2;
+
+  private static final byte[] MAGIC = {'P', 'T', 'S', 'B'};
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final JsonStore jsonStore;
+
+
+
+  /**
+   * Creates a codec that converts to and from JSON through a default {@link JsonStore}.
+   */
+  public BinarySessionCodec() {
+    this(new JsonStore());
+  }
+
+
+
+  /**
+   * Creates a codec that converts to and from JSON through the given store.
+   *
+   * @param jsonStore the store used for JSON conversion
+   * @throws IllegalArgumentException if jsonStore is null
+   */
+  public BinarySessionCodec(JsonStore jsonStore) {
+    if (jsonStore == null) {
+      throw new IllegalArgumentException("jsonStore must not be null");
+    }
+    this.jsonStore = jsonStore;
+  }
+
+
+
+  /**
+   * Saves sessions to a binary file.
+   *
+   * @param sessions the sessions to save
+   * @param file the path of the file to write
+   * @throws IOException if an I/O error occurs while writing the file
+   */
+  public void save(List<Session> sessions, Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      write(sessions, out);
+    }
+  }
+
+
+
+  /**
+   * Loads sessions from a binary file.
+   *
+   * @param file the path of the file to read
+   * @return the sessions in file order
+   * @throws IOException if an I/O error occurs while reading the file
+   * @throws ValidationException if the file is not a valid binary session file
+   */
+  public List<Session> load(Path file) throws IOException, ValidationException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return read(in);
+    }
+  }
+
+
+
+  /**
+   * Encodes sessions to a stream. The stream is flushed but not closed.
+   *
+   * @param sessions the sessions to encode
+   * @param out the destination stream
+   * @throws IllegalArgumentException if sessions or out is null
+   * @throws IOException if an I/O error occurs while writing
+   */
+  public void write(List<Session> sessions, OutputStream out) throws IOException {
+    if (sessions == null || out == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+
+    // First pass builds the string and exercise tables so the records can refer to them
+    Map<String, Integer> stringIds = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    Map<Exercise, Integer> exerciseIds = new IdentityHashMap<>();
+    List<Exercise> exercises = new ArrayList<>();
+    for (Session session : sessions) {
+      for (int e = 0; e < session.getEntryCount(); e++) {
+        Exercise exercise = session.getEntryExercise(e);
+        String notes = session.getEntryNotes(e);
+        if (!exerciseIds.containsKey(exercise)) {
+          exerciseIds.put(exercise, exercises.size());
+          exercises.add(exercise);
+          for (String field : stringFields(exercise)) {
+            intern(field, stringIds, strings);
+          }
+        }
+        if (notes != null) {
+          intern(notes, stringIds, strings);
+        }
+      }
+    }
+
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+    data.write(MAGIC);
+    data.writeByte(VERSION);
+
+    writeVarint(data, strings.size());
+    for (String s : strings) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeVarint(data, bytes.length);
+      data.write(bytes);
+    }
+
+    writeVarint(data, exercises.size());
+    for (Exercise exercise : exercises) {
+      writeExercise(data, exercise, stringIds);
+    }
+
+    writeVarint(data, sessions.size());
+    for (Session session : sessions) {
+      long epochDay = session.getDate().toEpochDay();
+      writeVarint(data, (epochDay << 1) ^ (epochDay >> 63));
+
+      // Entry fields are read straight from the session's columns
+      int entryCount = session.getEntryCount();
+      writeVarint(data, entryCount);
+      for (int e = 0; e < entryCount; e++) {
+        String notes = session.getEntryNotes(e);
+        writeVarint(data, exerciseIds.get(session.getEntryExercise(e)));
+        writeVarint(data, session.getEntryMinutes(e));
+        writeVarint(data, session.getEntryTempo(e));
+        writeVarint(data, notes == null ? 0 : stringIds.get(notes) + 1);
+      }
+    }
+    data.flush();
+  }
+
+
+
+  /**
+   * Decodes sessions from a stream. The stream is not closed.
+   *
+   * @param in the source stream
+   * @return the decoded sessions in stream order
+   * @throws IllegalArgumentException if in is null
+   * @throws IOException if an I/O error occurs while reading
+   * @throws ValidationException if the data is not a valid binary session file
+   */
+  public List<Session> read(InputStream in) throws IOException, ValidationException {
+    if (in == null) {
+      throw new IllegalArgumentException("in must not be null");
+    }
+
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+    try {
+      byte[] magic = new byte[MAGIC.length];
+      data.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new ValidationException("Not a binary session file");
+      }
+      int version = data.readUnsignedByte();
+      if (version != VERSION) {
+        throw new ValidationException("Unsupported binary session format version " + version);
+      }
+
+      // Counts come from the file, so nothing is sized by them up front:
+      // tables grow as their items are actually read, and a forged count
+      // runs into the end of the data instead of allocating for it
+      int stringCount = readCount(data);
+      List<String> stringList = new ArrayList<>();
+      for (int i = 0; i < stringCount; i++) {
+        stringList.add(new String(readBytes(data, readCount(data)), StandardCharsets.UTF_8));
+      }
+      String[] strings = stringList.toArray(new String[0]);
+      ExerciseCatalog catalog = jsonStore.getCatalog();
+      int exerciseCount = readCount(data);
+      List<Exercise> exerciseList = new ArrayList<>();
+      for (int i = 0; i < exerciseCount; i++) {
+        exerciseList.add(catalog.intern(readExercise(data, strings)));
+      }
+      Exercise[] exercises = exerciseList.toArray(new Exercise[0]);
+
+      int sessionCount = readCount(data);
+      List<Session> sessions = new ArrayList<>();
+      for (int s = 0; s < sessionCount; s++) {
+        long zigzag = readVarint(data);
+        Session session = new Session(LocalDate.ofEpochDay((zigzag >>> 1) ^ -(zigzag & 1)));
+
+        int entryCount = readCount(data);
+        for (int e = 0; e < entryCount; e++) {
+          int exerciseId = exerciseIndex(readVarint(data), exercises);
+          int minutes = readInt(data);
+          int tempo = readInt(data);
+          long notesRef = readVarint(data);
+          String notes = notesRef == 0 ? null : strings[stringIndex(notesRef - 1, strings)];
+          session.addEntry(exercises[exerciseId], minutes, tempo, notes);
+        }
+        sessions.add(session);
+      }
+      return sessions;
+    } catch (EOFException e) {
+      throw new ValidationException("Truncated binary session file", e);
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw new ValidationException("Invalid binary session data", e);
+    }
+  }
+
+
+
+  /**
+   * Converts a JSON session file written by {@link JsonStore} into the binary format.
+   * Both single-session and multi-session JSON files are accepted.
+   *
+   * @param jsonFile the JSON file to read
+   * @param binaryFile the binary file to write
+   * @throws IOException if an I/O error occurs
+   * @throws ValidationException if the JSON file holds invalid data
+   */
+  public void convertJsonToBinary(Path jsonFile, Path binaryFile)
+      throws IOException, ValidationException {
+    List<Session> sessions;
+    try (Stream<Session> stream = jsonStore.stream(jsonFile)) {
+      sessions = stream.collect(Collectors.toList());
+    } catch (IllegalStateException e) {
+      if (e.getCause() instanceof ValidationException) {
+        throw (ValidationException) e.getCause();
+      }
+      throw e;
+    }
+    save(sessions, binaryFile);
+  }
+
+
+
+  /**
+   * Converts a binary session file into a multi-session JSON file.
+   *
+   * @param binaryFile the binary file to read
+   * @param jsonFile the JSON file to write
+   * @throws IOException if an I/O error occurs
+   * @throws ValidationException if the binary file is invalid
+   */
+  public void convertBinaryToJson(Path binaryFile, Path jsonFile)
+      throws IOException, ValidationException {
+    jsonStore.saveAll(load(binaryFile), jsonFile);
+  }
+
+
+
+  /**
+   * Returns true if the file starts with the binary session file header.
+   *
+   * @param file the file to check
+   * @return whether the file is in the binary format
+   * @throws IOException if the file cannot be read
+   */
+  public static boolean isBinaryFile(Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+    }
+  }
+
+
+
+  /**
+   * Returns the string fields of an exercise, which go in the string table.
+   */
+  static List<String> stringFields(Exercise exercise) {
+    if (exercise instanceof ScaleExercise) {
+      ScaleExercise scale = (ScaleExercise) exercise;
+      return List.of(scale.getName(), scale.getScaleName(), scale.getKey());
+    } else if (exercise instanceof ArpeggioExercise) {
+      ArpeggioExercise arpeggio = (ArpeggioExercise) exercise;
+      return List.of(arpeggio.getName(), arpeggio.getChordSymbol());
+    } else if (exercise instanceof SongExercise) {
+      SongExercise song = (SongExercise) exercise;
+      return List.of(song.getName(), song.getSongTitle(), song.getArtist());
+    }
+    throw new IllegalArgumentException("Unknown exercise type: " + exercise.getClass().getName());
+  }
+
+
+
+  static void writeExercise(DataOutputStream out, Exercise exercise,
+                                    Map<String, Integer> stringIds) throws IOException {
+    if (exercise instanceof ScaleExercise) {
+      ScaleExercise scale = (ScaleExercise) exercise;
+      out.writeByte(TYPE_SCALE);
+      writeVarint(out, stringIds.get(scale.getName()));
+      writeVarint(out, scale.getTargetMinutesPerDay());
+      writeVarint(out, stringIds.get(scale.getScaleName()));
+      writeVarint(out, stringIds.get(scale.getKey()));
+      writeVarint(out, scale.getTargetTempoBpm());
+    } else if (exercise instanceof ArpeggioExercise) {
+      ArpeggioExercise arpeggio = (ArpeggioExercise) exercise;
+      out.writeByte(TYPE_ARPEGGIO);
+      writeVarint(out, stringIds.get(arpeggio.getName()));
+      writeVarint(out, arpeggio.getTargetMinutesPerDay());
+      writeVarint(out, stringIds.get(arpeggio.getChordSymbol()));
+      writeVarint(out, arpeggio.getTargetTempoBpm());
+    } else {
+      SongExercise song = (SongExercise) exercise;
+      out.writeByte(TYPE_SONG);
+      writeVarint(out, stringIds.get(song.getName()));
+      writeVarint(out, song.getTargetMinutesPerDay());
+      writeVarint(out, stringIds.get(song.getSongTitle()));
+      writeVarint(out, stringIds.get(song.getArtist()));
+    }
+  }
+
+
+
+  static Exercise readExercise(DataInputStream in, String[] strings)
+      throws IOException, ValidationException {
+    int type = in.readUnsignedByte();
+    String name = strings[stringIndex(readVarint(in), strings)];
+    int minutes = readInt(in);
+    switch (type) {
+      case TYPE_SCALE:
+        return new ScaleExercise(name, minutes,
+            strings[stringIndex(readVarint(in), strings)],
+            strings[stringIndex(readVarint(in), strings)],
+            readInt(in));
+      case TYPE_ARPEGGIO:
+        return new ArpeggioExercise(name, minutes,
+            strings[stringIndex(readVarint(in), strings)],
+            readInt(in));
+      case TYPE_SONG:
+        return new SongExercise(name, minutes,
+            strings[stringIndex(readVarint(in), strings)],
+            strings[stringIndex(readVarint(in), strings)]);
+      default:
+        throw new ValidationException("Unknown exercise type " + type);
+    }
+  }
+
+
+
+  private static int exerciseIndex(long ref, Exercise[] exercises) throws ValidationException {
+    if (ref < 0 || ref >= exercises.length) {
+      throw new ValidationException("Invalid exercise reference " + ref);
+    }
+    return (int) ref;
+  }
+
+
+
+  static void intern(String s, Map<String, Integer> ids, List<String> strings) {
+    if (!ids.containsKey(s)) {
+      ids.put(s, strings.size());
+      strings.add(s);
+    }
+  }
+
+
+
+  static int stringIndex(long ref, String[] strings) throws ValidationException {
+    if (ref < 0 || ref >= strings.length) {
+      throw new ValidationException("Invalid string table reference " + ref);
+    }
+    return (int) ref;
+  }
+
+
+
+  static int readCount(DataInputStream in) throws IOException, ValidationException {
+    long count = readVarint(in);
+    if (count < 0 || count > Integer.MAX_VALUE) {
+      throw new ValidationException("Invalid length " + Long.toUnsignedString(count));
+    }
+    return (int) count;
+  }
+
+
+
+  // Reads a varint that must fit a non-negative int, such as minutes or a tempo
+  static int readInt(DataInputStream in) throws IOException, ValidationException {
+    long value = readVarint(in);
+    if (value < 0 || value > Integer.MAX_VALUE) {
+      throw new ValidationException("Value out of range " + Long.toUnsignedString(value));
+    }
+    return (int) value;
+  }
+
+
+
+  /**
+   * Reads exactly length bytes. The array grows with the bytes that actually
+   * arrive, so a forged length cannot allocate more than the input holds.
+   *
+   * @throws EOFException if the input ends first
+   */
+  static byte[] readBytes(DataInputStream in, int length) throws IOException {
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length < length) {
+      throw new EOFException();
+    }
+    return bytes;
+  }
+
+
+
+  static void writeVarint(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+
+
+  static long readVarint(DataInputStream in) throws IOException, ValidationException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new ValidationException("Malformed varint");
+  }
+}
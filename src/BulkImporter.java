@@ -0,0 +1,255 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports many session JSON files at once, parsing them in parallel.
+ *
+ * Files are handed to a {@link ForkJoinPool}, and each worker thread parses
+ * with its own {@link JsonStore}. All workers share one {@link ExerciseCatalog},
+ * so exercises are still interned across files. A file that fails to load is
+ * recorded in the result and the rest of the batch carries on. The
+ * {@link ProgressListener} can also cancel the batch part way through.
+ *
+ * HAS-A: BulkImporter has a shared exercise catalog and a worker count
+ */
+public class BulkImporter {
+
+  public static final String DEFAULT_GLOB = "*.json";
+
+  /**
+   * Receives progress updates as files finish, from worker threads.
+   */
+  @FunctionalInterface
+  public interface ProgressListener {
+
+    /**
+     * Called once per file, after it has been parsed or has failed.
+     *
+     * @param completed number of files finished so far
+     * @param total number of files in the batch
+     */
+    void onProgress(int completed, int total);
+
+    /**
+     * Polled before each file is parsed. Once it returns true, files that have
+     * not been started yet are skipped.
+     *
+     * @return whether the import should stop early
+     */
+    default boolean isCancelled() {
+      return false;
+    }
+  }
+
+  private final ExerciseCatalog catalog;
+  private final int parallelism;
+  private final ThreadLocal<JsonStore> stores;
+
+
+
+  /**
+   * Creates an importer with its own catalog that uses one worker per processor.
+   */
+  public BulkImporter() {
+    this(new ExerciseCatalog(), Runtime.getRuntime().availableProcessors());
+  }
+
+
+
+  /**
+   * Creates an importer.
+   *
+   * @param catalog the catalog imported exercises are interned through
+   * @param parallelism number of worker threads
+   * @throws IllegalArgumentException if catalog is null or parallelism is not positive
+   */
+  public BulkImporter(ExerciseCatalog catalog, int parallelism) {
+    if (catalog == null) {
+      throw new IllegalArgumentException("catalog must not be null");
+    }
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be > 0");
+    }
+    this.catalog = catalog;
+    this.parallelism = parallelism;
+    this.stores = ThreadLocal.withInitial(() -> new JsonStore(catalog));
+  }
+
+
+
+  /**
+   * Imports every file in a directory that matches a glob pattern such as "*.json".
+   * Subdirectories are not searched.
+   *
+   * @param directory the directory to import from
+   * @param glob the file name pattern to match
+   * @param listener receives progress updates, or null
+   * @return the imported sessions and any per-file failures
+   * @throws IOException if the directory cannot be listed
+   */
+  public Result importDirectory(Path directory, String glob, ProgressListener listener)
+      throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> dir = Files.newDirectoryStream(directory, glob)) {
+      for (Path p : dir) {
+        if (Files.isRegularFile(p)) {
+          files.add(p);
+        }
+      }
+    }
+    Collections.sort(files);
+    return importFiles(files, listener);
+  }
+
+
+
+  /**
+   * Imports the given files. Single-session and multi-session JSON files are
+   * both accepted.
+   *
+   * @param files the files to import
+   * @param listener receives progress updates, or null
+   * @return the imported sessions and any per-file failures
+   * @throws IllegalArgumentException if files is null
+   */
+  public Result importFiles(List<Path> files, ProgressListener listener) {
+    if (files == null) {
+      throw new IllegalArgumentException("files must not be null");
+    }
+
+    int total = files.size();
+    // Each task fills its own slot, so results come back in file order
+    // and the merge below is deterministic
+    List<List<Session>> parsed = new ArrayList<>(Collections.nCopies(total, null));
+    Exception[] errors = new Exception[total];
+    boolean[] skipped = new boolean[total];
+    AtomicInteger completed = new AtomicInteger();
+    List<Callable<Void>> tasks = new ArrayList<>(total);
+    for (int i = 0; i < total; i++) {
+      int index = i;
+      tasks.add(() -> {
+        if (listener != null && listener.isCancelled()) {
+          skipped[index] = true;
+          return null;
+        }
+        try {
+          parsed.set(index, parse(files.get(index)));
+        } catch (IOException | ValidationException | RuntimeException e) {
+          errors[index] = e;
+        } finally {
+          int done = completed.incrementAndGet();
+          if (listener != null) {
+            listener.onProgress(done, total);
+          }
+        }
+        return null;
+      });
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invokeAll(tasks);
+    } finally {
+      pool.shutdown();
+    }
+
+    List<Session> sessions = new ArrayList<>();
+    Map<Path, Exception> failures = new LinkedHashMap<>();
+    boolean cancelled = false;
+    for (int i = 0; i < total; i++) {
+      if (skipped[i]) {
+        cancelled = true;
+      } else if (errors[i] != null) {
+        failures.put(files.get(i), errors[i]);
+      } else {
+        sessions.addAll(parsed.get(i));
+      }
+    }
+
+    // Stable sort keeps file order for sessions on the same date
+    sessions.sort(Comparator.comparing(Session::getDate));
+    return new Result(sessions, failures, cancelled);
+  }
+
+
+
+  /**
+   * Returns the catalog imported exercises are interned through.
+   *
+   * @return the shared catalog
+   */
+  public ExerciseCatalog getCatalog() {
+    return catalog;
+  }
+
+
+
+  private List<Session> parse(Path file) throws IOException, ValidationException {
+    List<Session> sessions = new ArrayList<>();
+    try (JsonStore.SessionReader reader = stores.get().openReader(file)) {
+      Session s;
+      while ((s = reader.read()) != null) {
+        sessions.add(s);
+      }
+    }
+    return sessions;
+  }
+
+
+
+  /**
+   * Outcome of a bulk import: the sessions that loaded, in date order, and the
+   * files that failed with the exception each one raised.
+   */
+  public static final class Result {
+
+    private final List<Session> sessions;
+    private final Map<Path, Exception> failures;
+    private final boolean cancelled;
+
+    private Result(List<Session> sessions, Map<Path, Exception> failures, boolean cancelled) {
+      this.sessions = Collections.unmodifiableList(sessions);
+      this.failures = Collections.unmodifiableMap(failures);
+      this.cancelled = cancelled;
+    }
+
+    /**
+     * Returns the imported sessions sorted by date.
+     *
+     * @return imported sessions
+     */
+    public List<Session> getSessions() {
+      return sessions;
+    }
+
+    /**
+     * Returns the files that failed to import, in file order, mapped to the
+     * {@link ValidationException} or {@link IOException} they raised.
+     *
+     * @return failed files and their errors
+     */
+    public Map<Path, Exception> getFailures() {
+      return failures;
+    }
+
+    /**
+     * Returns true if the import was cancelled and some files were skipped.
+     *
+     * @return whether files were skipped
+     */
+    public boolean isCancelled() {
+      return cancelled;
+    }
+  }
+}
@@ -0,0 +1,427 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-optimized, column oriented archive of practice history.
+ *
+ * Every {@link SessionEntry} becomes one row, and each field of the row is
+ * stored in its own file of little-endian ints:
+ * - date.col: epoch day of the session
+ * - exercise.col: exercise id, an index into the archive's exercise names
+ * - minutes.col: minutes practiced
+ * - tempo.col: average tempo in BPM, or 0 when none was recorded
+ *
+ * The column files are memory-mapped when the archive is opened, so queries
+ * walk contiguous int columns directly without creating Session or
+ * SessionEntry objects. The archive.meta file holds the row count, the
+ * exercise name dictionary, and whether rows are in date order. Exercises
+ * are told apart as {@link ExerciseCatalog} does, so two exercises may share
+ * a name and still have separate ids.
+ *
+ * HAS-A: ColumnarArchive has four mapped int columns and an exercise dictionary
+ */
+public class ColumnarArchive {
+
+  private static final int MAGIC = 0x50544341; // "PTCA"
+  private static final int VERSION = 1;
+  private static final String META_FILE = "archive.meta";
+  private static final String DATE_FILE = "date.col";
+  private static final String EXERCISE_FILE = "exercise.col";
+  private static final String MINUTES_FILE = "minutes.col";
+  private static final String TEMPO_FILE = "tempo.col";
+  private static final int BUFFER_SIZE = 64 * 1024;
+  // magic + version + row count + sorted flag + exercise count
+  private static final int META_HEADER_BYTES = 17;
+
+  private final int rowCount;
+  private final boolean sortedByDate;
+  private final List<String> exerciseNames;
+  private final Map<String, Integer> exerciseIds;
+  private final IntBuffer dates;
+  private final IntBuffer exercises;
+  private final IntBuffer minutes;
+  private final IntBuffer tempos;
+
+
+
+  private ColumnarArchive(int rowCount, boolean sortedByDate, List<String> exerciseNames,
+                          IntBuffer dates, IntBuffer exercises, IntBuffer minutes, IntBuffer tempos) {
+    this.rowCount = rowCount;
+    this.sortedByDate = sortedByDate;
+    this.exerciseNames = Collections.unmodifiableList(exerciseNames);
+    this.exerciseIds = new HashMap<>();
+    for (int i = 0; i < exerciseNames.size(); i++) {
+      exerciseIds.putIfAbsent(exerciseNames.get(i), i);
+    }
+    this.dates = dates;
+    this.exercises = exercises;
+    this.minutes = minutes;
+    this.tempos = tempos;
+  }
+
+
+
+  /**
+   * Builds an archive from JSON session files written by {@link JsonStore}.
+   * Sessions are streamed one at a time, so the sources may be any size.
+   *
+   * @param sources the JSON files to read, single or multi-session
+   * @param directory the directory to write the archive to
+   * @param store the store used to read the sources
+   * @return the newly built archive, opened for queries
+   * @throws IllegalArgumentException if any argument is null
+   * @throws IOException if an I/O error occurs
+   * @throws ValidationException if a source file holds invalid data
+   */
+  public static ColumnarArchive build(List<Path> sources, Path directory, JsonStore store)
+      throws IOException, ValidationException {
+    if (sources == null || directory == null || store == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    Files.createDirectories(directory);
+
+    List<String> names = new ArrayList<>();
+    // Archive ids by catalog id, so exercises that share a name stay apart
+    Map<Integer, Integer> ids = new HashMap<>();
+    int rows = 0;
+    boolean sorted = true;
+    int lastDay = Integer.MIN_VALUE;
+
+    try (ColumnWriter dateOut = new ColumnWriter(directory.resolve(DATE_FILE));
+         ColumnWriter exerciseOut = new ColumnWriter(directory.resolve(EXERCISE_FILE));
+         ColumnWriter minutesOut = new ColumnWriter(directory.resolve(MINUTES_FILE));
+         ColumnWriter tempoOut = new ColumnWriter(directory.resolve(TEMPO_FILE))) {
+      for (Path source : sources) {
+        try (JsonStore.SessionReader reader = store.openReader(source)) {
+          Session session;
+          while ((session = reader.read()) != null) {
+            int day = Math.toIntExact(session.getDate().toEpochDay());
+            sorted &= day >= lastDay;
+            lastDay = day;
+
+            for (int e = 0; e < session.getEntryCount(); e++) {
+              Exercise exercise = session.getEntryExercise(e);
+              int catalogId = store.getCatalog().register(exercise);
+              Integer id = ids.get(catalogId);
+              if (id == null) {
+                id = names.size();
+                ids.put(catalogId, id);
+                names.add(exercise.getName());
+              }
+
+              dateOut.write(day);
+              exerciseOut.write(id);
+              minutesOut.write(session.getEntryMinutes(e));
+              tempoOut.write(session.getEntryTempo(e));
+              rows++;
+            }
+          }
+        }
+      }
+    }
+
+    try (OutputStream out = Files.newOutputStream(directory.resolve(META_FILE));
+         DataOutputStream meta = new DataOutputStream(new BufferedOutputStream(out))) {
+      meta.writeInt(MAGIC);
+      meta.writeInt(VERSION);
+      meta.writeInt(rows);
+      meta.writeBoolean(sorted);
+      meta.writeInt(names.size());
+      for (String name : names) {
+        meta.writeUTF(name);
+      }
+    }
+    return open(directory);
+  }
+
+
+
+  /**
+   * Opens an existing archive and memory-maps its columns.
+   *
+   * @param directory the archive directory
+   * @return the opened archive
+   * @throws IOException if the archive files cannot be read
+   * @throws ValidationException if the archive files are not a valid archive
+   */
+  public static ColumnarArchive open(Path directory) throws IOException, ValidationException {
+    int rows;
+    boolean sorted;
+    List<String> names;
+    Path metaFile = directory.resolve(META_FILE);
+    long metaSize = Files.size(metaFile);
+    try (InputStream in = Files.newInputStream(metaFile);
+         DataInputStream meta = new DataInputStream(new BufferedInputStream(in))) {
+      if (meta.readInt() != MAGIC) {
+        throw new ValidationException("Not a practice history archive");
+      }
+      int version = meta.readInt();
+      if (version != VERSION) {
+        throw new ValidationException("Unsupported archive version " + version);
+      }
+      rows = meta.readInt();
+      sorted = meta.readBoolean();
+      int nameCount = meta.readInt();
+      // Each name takes at least its two byte length prefix
+      if (nameCount < 0 || nameCount > (metaSize - META_HEADER_BYTES) / 2) {
+        throw new ValidationException("Invalid exercise count " + nameCount);
+      }
+      names = new ArrayList<>(nameCount);
+      for (int i = 0; i < nameCount; i++) {
+        names.add(meta.readUTF());
+      }
+    } catch (EOFException e) {
+      throw new ValidationException("Truncated archive metadata", e);
+    }
+
+    return new ColumnarArchive(rows, sorted, names,
+        map(directory.resolve(DATE_FILE), rows),
+        map(directory.resolve(EXERCISE_FILE), rows),
+        map(directory.resolve(MINUTES_FILE), rows),
+        map(directory.resolve(TEMPO_FILE), rows));
+  }
+
+
+
+  /**
+   * Returns the number of entry rows in the archive.
+   *
+   * @return row count
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+
+
+  /**
+   * Returns the number of distinct exercises in the archive.
+   *
+   * @return exercise count
+   */
+  public int getExerciseCount() {
+    return exerciseNames.size();
+  }
+
+
+
+  /**
+   * Returns the name of the exercise with the given id.
+   *
+   * @param exerciseId the exercise id
+   * @return the exercise name
+   */
+  public String getExerciseName(int exerciseId) {
+    return exerciseNames.get(exerciseId);
+  }
+
+
+
+  /**
+   * Returns the id of the named exercise, or -1 if it is not in the archive.
+   * If several exercises share the name, the first one added is returned.
+   *
+   * @param name the exercise name
+   * @return exercise id or -1
+   */
+  public int getExerciseId(String name) {
+    Integer id = exerciseIds.get(name);
+    return id == null ? -1 : id;
+  }
+
+
+
+  /**
+   * Sums minutes practiced per exercise for sessions within a date range.
+   *
+   * @param from first date to include
+   * @param to last date to include
+   * @return total minutes indexed by exercise id
+   */
+  public long[] totalMinutesByExercise(LocalDate from, LocalDate to) {
+    int first = Math.toIntExact(from.toEpochDay());
+    int last = Math.toIntExact(to.toEpochDay());
+    long[] totals = new long[exerciseNames.size()];
+
+    int start = sortedByDate ? lowerBound(first) : 0;
+    for (int row = start; row < rowCount; row++) {
+      int day = dates.get(row);
+      if (day > last && sortedByDate) {
+        break;
+      }
+      if (day >= first && day <= last) {
+        totals[exercises.get(row)] += minutes.get(row);
+      }
+    }
+    return totals;
+  }
+
+
+
+  /**
+   * Sums minutes practiced per exercise per month over an inclusive month range.
+   *
+   * @param from first month to include
+   * @param to last month to include
+   * @return totals indexed by [month offset from {@code from}][exercise id]
+   * @throws IllegalArgumentException if to is before from
+   */
+  public long[][] totalMinutesByExerciseAndMonth(YearMonth from, YearMonth to) {
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("to must not be before from");
+    }
+    int firstMonth = from.getYear() * 12 + from.getMonthValue() - 1;
+    int months = to.getYear() * 12 + to.getMonthValue() - 1 - firstMonth + 1;
+    long[][] totals = new long[months][exerciseNames.size()];
+
+    int firstDay = Math.toIntExact(from.atDay(1).toEpochDay());
+    int lastDay = Math.toIntExact(to.atEndOfMonth().toEpochDay());
+    int start = sortedByDate ? lowerBound(firstDay) : 0;
+    for (int row = start; row < rowCount; row++) {
+      int day = dates.get(row);
+      if (day > lastDay && sortedByDate) {
+        break;
+      }
+      if (day >= firstDay && day <= lastDay) {
+        totals[monthIndex(day) - firstMonth][exercises.get(row)] += minutes.get(row);
+      }
+    }
+    return totals;
+  }
+
+
+
+  /**
+   * Returns the mean recorded tempo for an exercise, ignoring rows without a tempo.
+   *
+   * @param exerciseId the exercise id
+   * @return average tempo in BPM, or 0 if no tempo was recorded
+   */
+  public double averageTempo(int exerciseId) {
+    long sum = 0;
+    int count = 0;
+    for (int row = 0; row < rowCount; row++) {
+      int tempo = tempos.get(row);
+      if (tempo > 0 && exercises.get(row) == exerciseId) {
+        sum += tempo;
+        count++;
+      }
+    }
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+
+
+  /**
+   * Finds the first row whose date is on or after the given epoch day.
+   * Only valid when rows are in date order.
+   */
+  private int lowerBound(int epochDay) {
+    int lo = 0;
+    int hi = rowCount;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (dates.get(mid) < epochDay) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+
+
+  /**
+   * Converts an epoch day to year * 12 + zero based month without allocating
+   * a LocalDate. Uses the days-to-civil algorithm from the proleptic Gregorian calendar.
+   */
+  static int monthIndex(int epochDay) {
+    int z = epochDay + 719468;
+    int era = (z >= 0 ? z : z - 146096) / 146097;
+    int doe = z - era * 146097;
+    int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+    int mp = (5 * doy + 2) / 153;
+    int month = mp < 10 ? mp + 3 : mp - 9;
+    int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+    return year * 12 + month - 1;
+  }
+
+
+
+  private static IntBuffer map(Path file, int rows) throws IOException, ValidationException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long expected = (long) rows * Integer.BYTES;
+      if (channel.size() != expected) {
+        throw new ValidationException("Column " + file.getFileName() + " has the wrong length");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected);
+      return buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+  }
+
+
+
+  /**
+   * Appends little-endian ints to a column file through a direct buffer.
+   */
+  private static final class ColumnWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+        ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    ColumnWriter(Path file) throws IOException {
+      this.channel = FileChannel.open(file,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.WRITE);
+    }
+
+    void write(int value) throws IOException {
+      if (buffer.remaining() < Integer.BYTES) {
+        drain();
+      }
+      buffer.putInt(value);
+    }
+
+    private void drain() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        drain();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,142 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Thread-safe, date-ordered collection holding one {@link Session} per date,
+ * for use by several threads without a global lock.
+ *
+ * Sessions live in a {@link ConcurrentSkipListMap} keyed by date, so creating
+ * a day's session is a compare-and-set on the map and adding an entry is a
+ * compare-and-set on the session itself. Writers to different dates never
+ * touch the same memory, and writers to the same date retry instead of
+ * blocking. Reads never block. Each session read is a consistent snapshot,
+ * and range queries see sessions created before the query started.
+ *
+ * {@link SessionRepository} remains the store for the UI, which reads it on
+ * the event thread by position.
+ *
+ * HAS-A: ConcurrentSessionStore has a concurrent date-ordered map of sessions
+ */
+public class ConcurrentSessionStore {
+
+  private final ConcurrentNavigableMap<LocalDate, Session> sessions = new ConcurrentSkipListMap<>();
+
+
+
+  /**
+   * Adds an entry to the session on a date, creating the session if needed.
+   *
+   * @param date the session date
+   * @param entry the entry to add
+   * @return the session the entry was added to
+   * @throws IllegalArgumentException if date or entry is null
+   */
+  public Session addEntry(LocalDate date, SessionEntry entry) {
+    if (entry == null) {
+      throw new IllegalArgumentException("entry must not be null");
+    }
+    Session session = getOrCreate(date);
+    session.addEntry(entry);
+    return session;
+  }
+
+
+
+  /**
+   * Adds every entry of a session to the stored session on the same date.
+   * The given session is not kept, so it may be reused afterwards.
+   *
+   * @param session the session whose entries to add
+   * @throws IllegalArgumentException if session is null
+   */
+  public void addAll(Session session) {
+    if (session == null) {
+      throw new IllegalArgumentException("session must not be null");
+    }
+    Session target = getOrCreate(session.getDate());
+    for (SessionEntry entry : session.getEntries()) {
+      target.addEntry(entry);
+    }
+  }
+
+
+
+  /**
+   * Returns the session on a date, creating an empty one if there is none.
+   * Threads racing to create the same date all get the same session.
+   *
+   * @param date the session date
+   * @return the stored session
+   * @throws IllegalArgumentException if date is null
+   */
+  public Session getOrCreate(LocalDate date) {
+    if (date == null) {
+      throw new IllegalArgumentException("date must not be null");
+    }
+    Session existing = sessions.get(date);
+    if (existing != null) {
+      return existing;
+    }
+    Session created = new Session(date);
+    Session raced = sessions.putIfAbsent(date, created);
+    return raced == null ? created : raced;
+  }
+
+
+
+  /**
+   * Returns the session on a date.
+   *
+   * @param date the session date
+   * @return the session, or null if there is none
+   */
+  public Session get(LocalDate date) {
+    return date == null ? null : sessions.get(date);
+  }
+
+
+
+  /**
+   * Returns the sessions dated between two dates, inclusive, in date order.
+   *
+   * @param from first date to include
+   * @param to last date to include
+   * @return an unmodifiable list of the matching sessions; empty if to is before from
+   * @throws IllegalArgumentException if from or to is null
+   */
+  public List<Session> getBetween(LocalDate from, LocalDate to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("dates must not be null");
+    }
+    if (to.isBefore(from)) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(new ArrayList<>(sessions.subMap(from, true, to, true).values()));
+  }
+
+
+
+  /**
+   * Returns every session in date order.
+   *
+   * @return an unmodifiable list of all sessions
+   */
+  public List<Session> getAll() {
+    return Collections.unmodifiableList(new ArrayList<>(sessions.values()));
+  }
+
+
+
+  /**
+   * Returns the number of dates with a session.
+   *
+   * @return session count
+   */
+  public int size() {
+    return sessions.size();
+  }
+}
@@ -0,0 +1,128 @@
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import java.lang.reflect.Type;
+
+/**
+ *  Gson adapter for converting any {@link Exercise} subclass to and from JSON.
+ *
+ *  Gson only sees the declared type when deserializing, so it cannot tell on its
+ *  own whether a stored exercise was a scale, an arpeggio or a song. This adapter
+ *  writes the exercise category as a "type" field next to the exercise fields
+ *  and uses it to pick the subclass to rebuild:
+ *  {"type":"Scale","name":"Major Scales","targetMinutesPerDay":15,...}
+ */
+public class ExerciseAdapter implements JsonSerializer<Exercise>, JsonDeserializer<Exercise> {
+
+
+
+/**
+ *  Converts an {@link Exercise} to a JSON object tagged with its category
+ *  @param src The exercise being serialized
+ *  @param typeOfSrc The type of object
+ *  @param context The serialization context
+ *  @return a JsonObject holding the type tag and exercise fields
+ *  @throws JsonParseException if the exercise is of an unknown subclass
+ */
+  @Override
+  public JsonElement serialize(Exercise src, Type typeOfSrc, JsonSerializationContext context) {
+    JsonObject json = new JsonObject();
+    json.addProperty("type", src.getCategory());
+    json.addProperty("name", src.getName());
+    json.addProperty("targetMinutesPerDay", src.getTargetMinutesPerDay());
+
+    if (src instanceof ScaleExercise) {
+      ScaleExercise scale = (ScaleExercise) src;
+      json.addProperty("scaleName", scale.getScaleName());
+      json.addProperty("key", scale.getKey());
+      json.addProperty("targetTempoBpm", scale.getTargetTempoBpm());
+    } else if (src instanceof ArpeggioExercise) {
+      ArpeggioExercise arpeggio = (ArpeggioExercise) src;
+      json.addProperty("chordSymbol", arpeggio.getChordSymbol());
+      json.addProperty("targetTempoBpm", arpeggio.getTargetTempoBpm());
+    } else if (src instanceof SongExercise) {
+      SongExercise song = (SongExercise) src;
+      json.addProperty("songTitle", song.getSongTitle());
+      json.addProperty("artist", song.getArtist());
+    } else {
+      throw new JsonParseException("Unknown exercise type: " + src.getClass().getName());
+    }
+    return json;
+  }
+
+
+
+/**
+ *  Converts a JSON object written by {@link #serialize} back into the matching subclass
+ *  @param json The JSON element holding the exercise
+ *  @param typeOfT the expected type
+ *  @param context The deserialization context
+ *  @return the rebuilt exercise
+ *  @throws JsonParseException if the type tag is unknown or a field is missing or invalid
+ */
+  @Override
+  public Exercise deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
+      throws JsonParseException {
+    if (!json.isJsonObject()) {
+      throw new JsonParseException("Exercise must be a JSON object");
+    }
+    JsonObject obj = json.getAsJsonObject();
+    String type = string(obj, "type");
+    String name = string(obj, "name");
+    int minutes = integer(obj, "targetMinutesPerDay");
+
+    try {
+      switch (type) {
+        case "Scale":
+          return new ScaleExercise(name, minutes,
+              string(obj, "scaleName"), string(obj, "key"), integer(obj, "targetTempoBpm"));
+        case "Arpeggio":
+          return new ArpeggioExercise(name, minutes,
+              string(obj, "chordSymbol"), integer(obj, "targetTempoBpm"));
+        case "Song":
+          return new SongExercise(name, minutes,
+              string(obj, "songTitle"), string(obj, "artist"));
+        default:
+          throw new JsonParseException("Unknown exercise type: " + type);
+      }
+    } catch (IllegalArgumentException e) {
+      throw new JsonParseException("Invalid exercise: " + e.getMessage(), e);
+    }
+  }
+
+
+
+  private static String string(JsonObject obj, String field) {
+    JsonElement value = obj.get(field);
+    if (value == null || value.isJsonNull()) {
+      throw new JsonParseException("Exercise is missing " + field);
+    }
+    // getAsString on an object or array throws an unchecked exception Gson does not wrap
+    if (!value.isJsonPrimitive()) {
+      throw new JsonParseException("Exercise " + field + " must be a string");
+    }
+    return value.getAsString();
+  }
+
+
+
+  private static int integer(JsonObject obj, String field) {
+    JsonElement value = obj.get(field);
+    if (value == null || value.isJsonNull()) {
+      throw new JsonParseException("Exercise is missing " + field);
+    }
+    if (!value.isJsonPrimitive()) {
+      throw new JsonParseException("Exercise " + field + " must be a number");
+    }
+    try {
+      return value.getAsInt();
+    } catch (NumberFormatException e) {
+      throw new JsonParseException("Exercise " + field + " must be a number", e);
+    }
+  }
+}
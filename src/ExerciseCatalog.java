@@ -0,0 +1,179 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of every distinct {@link Exercise}, each with a stable integer id.
+ *
+ * Two exercises with the same type and field values are the same catalog
+ * entry, so loading thousands of entries for one exercise yields one shared
+ * Exercise instance. The catalog is used by {@link JsonStore} to store
+ * entries by id and to intern exercises on load, and can itself be saved to
+ * and loaded from a JSON file.
+ *
+ * All methods are thread safe.
+ *
+ * HAS-A: ExerciseCatalog has a list of exercises indexed by id
+ */
+public class ExerciseCatalog {
+
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeHierarchyAdapter(Exercise.class, new ExerciseAdapter())
+      .setPrettyPrinting()
+      .create();
+  // Lookup keys are never read by people, so they skip the pretty printing
+  private static final Gson KEY_GSON = new GsonBuilder()
+      .registerTypeHierarchyAdapter(Exercise.class, new ExerciseAdapter())
+      .create();
+
+  private final List<Exercise> exercises = new ArrayList<>();
+  // Value based lookup, keyed by the exercise's canonical JSON
+  private final Map<String, Integer> idsByKey = new HashMap<>();
+  // Fast path for the catalog's own instances only, so it never grows past
+  // the catalog; holding every instance ever seen would pin them all
+  private final Map<Exercise, Integer> idsByInstance = new IdentityHashMap<>();
+
+
+
+  /**
+   * Returns the id of the exercise, adding it to the catalog if no equal
+   * exercise is registered yet.
+   *
+   * @param exercise the exercise to register
+   * @return the catalog id of the exercise
+   * @throws IllegalArgumentException if exercise is null
+   */
+  public synchronized int register(Exercise exercise) {
+    if (exercise == null) {
+      throw new IllegalArgumentException("exercise must not be null");
+    }
+    Integer id = idsByInstance.get(exercise);
+    if (id != null) {
+      return id;
+    }
+
+    String key = keyOf(exercise);
+    id = idsByKey.get(key);
+    if (id == null) {
+      id = exercises.size();
+      exercises.add(exercise);
+      idsByKey.put(key, id);
+      idsByInstance.put(exercise, id);
+    }
+    return id;
+  }
+
+
+
+  /**
+   * Returns the catalog's shared instance of an exercise equal to the given one,
+   * registering it first if needed.
+   *
+   * @param exercise the exercise to intern
+   * @return the shared catalog instance
+   * @throws IllegalArgumentException if exercise is null
+   */
+  public synchronized Exercise intern(Exercise exercise) {
+    return exercises.get(register(exercise));
+  }
+
+
+
+  /**
+   * Returns the exercise with the given id.
+   *
+   * @param id the catalog id
+   * @return the exercise
+   * @throws IllegalArgumentException if no exercise has that id
+   */
+  public synchronized Exercise get(int id) {
+    if (id < 0 || id >= exercises.size()) {
+      throw new IllegalArgumentException("unknown exercise id " + id);
+    }
+    return exercises.get(id);
+  }
+
+
+
+  /**
+   * Returns the number of exercises in the catalog.
+   *
+   * @return catalog size
+   */
+  public synchronized int size() {
+    return exercises.size();
+  }
+
+
+
+  /**
+   * Returns all exercises in id order.
+   *
+   * @return an unmodifiable snapshot of the catalog
+   */
+  public synchronized List<Exercise> getExercises() {
+    return Collections.unmodifiableList(new ArrayList<>(exercises));
+  }
+
+
+
+  /**
+   * Saves the catalog to a JSON file as an array in id order.
+   *
+   * @param file the path of the file to write
+   * @throws IOException if an I/O error occurs while writing the file
+   */
+  public void save(Path file) throws IOException {
+    Files.writeString(file, GSON.toJson(getExercises()));
+  }
+
+
+
+  /**
+   * Loads a catalog written by {@link #save}. Ids are preserved.
+   *
+   * @param file the path of the JSON file to read
+   * @return the loaded catalog
+   * @throws IOException if an I/O error occurs while reading the file
+   * @throws ValidationException if the JSON is invalid
+   */
+  public static ExerciseCatalog load(Path file) throws IOException, ValidationException {
+    try {
+      List<Exercise> stored = GSON.fromJson(Files.readString(file),
+          new TypeToken<List<Exercise>>() { }.getType());
+      if (stored == null) {
+        throw new ValidationException("Invalid JSON format");
+      }
+      ExerciseCatalog catalog = new ExerciseCatalog();
+      for (Exercise e : stored) {
+        if (e == null) {
+          throw new ValidationException("Invalid JSON format");
+        }
+        catalog.register(e);
+      }
+      return catalog;
+    } catch (JsonParseException e) {
+      throw new ValidationException("Invalid JSON format", e);
+    }
+  }
+
+
+
+  /**
+   * Returns a string that is equal for exercises with the same type and fields.
+   */
+  static String keyOf(Exercise exercise) {
+    return KEY_GSON.toJson(exercise, Exercise.class);
+  }
+}
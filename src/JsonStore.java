@@ -1,22 +1,65 @@
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonIOException;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /** 
  * Handles saving and loading {@link Session} data as JSON on disk
  * using Gson with a custom {@link LocalDate} adapter
+ *
+ * Single sessions are stored as one JSON object per file. Whole histories are
+ * stored as a JSON array of sessions that is written and read one session at a
+ * time through {@link JsonWriter}/{@link JsonReader}, so memory use does not
+ * grow with the size of the file.
+ *
+ * Each stored session carries a table of the exercises its entries use, and
+ * entries refer to that table by id. On load every exercise is interned
+ * through the store's {@link ExerciseCatalog}, so all entries for the same
+ * exercise share one Exercise instance.
  */
 public class JsonStore {
 
+  // Size of the character buffer placed over the file channel when streaming
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  // Stands in for the exercise of entries saved before exercises were stored
+  private static final Exercise LEGACY_EXERCISE =
+      new ScaleExercise("Loaded Exercise", 1, "Major", "C", 60);
+
   private final Gson gson;
+  private final ExerciseCatalog catalog;
 
 
 
@@ -24,8 +67,25 @@ public class JsonStore {
    * Creates a JsonStore with pretty-preinting and LocalDate support.
    */
   public JsonStore() {
+    this(new ExerciseCatalog());
+  }
+
+
+
+  /**
+   * Creates a JsonStore that interns loaded exercises through the given catalog.
+   *
+   * @param catalog the catalog shared by everything loaded through this store
+   * @throws IllegalArgumentException if catalog is null
+   */
+  public JsonStore(ExerciseCatalog catalog) {
+    if (catalog == null) {
+      throw new IllegalArgumentException("catalog must not be null");
+    }
+    this.catalog = catalog;
     this.gson = new GsonBuilder()
         .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+        .registerTypeHierarchyAdapter(Exercise.class, new ExerciseAdapter())
         .setPrettyPrinting()
         .create();
   }
@@ -34,9 +94,12 @@ public class JsonStore {
 
   /**
    *  Data only class representing custom stored session entry containing only the data
-   *  required for persistence.
+   *  required for persistence. Entries inside a session refer to the session's exercise
+   *  table by id; standalone entries carry their exercise inline.
    */
   private static class StoredEntry {
+    Integer exerciseId;
+    Exercise exercise;
     int minutesPracticed;
     Integer averageTempoBpm;
     String notes;
@@ -45,37 +108,38 @@ public class JsonStore {
 
 
   /**
-   * Data only class representing a stored pracitce session, contains the session date and
-   * a list of stored entries.
+   * Data only class representing a stored pracitce session, contains the session date,
+   * the exercises used by the session, and a list of stored entries.
    */
   private static class StoredSession {
     LocalDate date;
+    List<Exercise> exercises;
     List<StoredEntry> entries;
   }
 
 
 
   /**
-   *  Saves the given {@link Session} to a JSON file
+   *  Returns the catalog that loaded exercises are interned through.
+   *  @return the exercise catalog
+   */
+  public ExerciseCatalog getCatalog() {
+    return catalog;
+  }
+
+
+
+  /**
+   *  Saves the given {@link Session} to a JSON file. The file is replaced
+   *  atomically, so it holds either the old or the new session even if the
+   *  process dies part way through.
    *  @param session The session to save
    *  @param file The path of the file to write
    *  @throws IOException if an I/O error occurs while writing the file
    */
   public void save(Session session, Path file) throws IOException {
-    StoredSession stored = new StoredSession();
-    stored.date = session.getDate();
-    stored.entries = new ArrayList<>();
-
-    for (SessionEntry entry : session.getEntries()) {
-      StoredEntry se = new StoredEntry();
-      se.minutesPracticed = entry.getMinutesPracticed();
-      se.averageTempoBpm = entry.getAverageTempoBpm();
-      se.notes = entry.getNotes();
-      stored.entries.add(se);
-    }
-
-    String json = gson.toJson(stored);
-    Files.writeString(file, json);
+    StoredSession stored = toStored(session);
+    writeAtomically(file, out -> gson.toJson(stored, StoredSession.class, out));
   }
 
 
@@ -92,40 +156,438 @@ public class JsonStore {
       String json = Files.readString(file);
       StoredSession stored = gson.fromJson(json, StoredSession.class);
 
-      if (stored == null || stored.date == null) {
+      return toSession(stored);
+      // Same validaiton as before if Gson throws a parse error (including an invalid
+      // exercise) we wrap it in a ValidationException preserving the original cause.
+    } catch (JsonParseException e) {
+      throw new ValidationException("Invalid JSON format", e);
+    }
+  }
+
+
+
+  /**
+   *  Saves a sequence of sessions to a single JSON file as a JSON array.
+   *  Sessions are serialized one at a time straight to a buffered file channel,
+   *  so the whole document is never held in memory. Like {@link #save}, the
+   *  file is replaced atomically.
+   *  @param sessions The sessions to save, in the order they should be stored
+   *  @param file The path of the file to write
+   *  @throws IOException if an I/O error occurs while writing the file
+   */
+  public void saveAll(Iterable<Session> sessions, Path file) throws IOException {
+    writeAtomically(file, out -> writeAll(sessions.iterator(), out));
+  }
+
+
+
+  /**
+   *  Writes sessions to a character stream as a JSON array, in the format
+   *  {@link #saveAll} uses. Sessions are taken from the iterator one at a time,
+   *  so they can be streamed from another file without being collected first.
+   *  The writer is flushed but not closed.
+   *  @param sessions The sessions to write, in order
+   *  @param out The destination
+   *  @throws IOException if an I/O error occurs while writing
+   */
+  public void writeAll(Iterator<Session> sessions, Writer out) throws IOException {
+    JsonWriter writer = gson.newJsonWriter(out);
+    try {
+      writer.beginArray();
+      while (sessions.hasNext()) {
+        gson.toJson(toStored(sessions.next()), StoredSession.class, writer);
+      }
+      writer.endArray();
+      writer.flush();
+    } catch (JsonParseException e) {
+      throw new IOException("Failed to write sessions", e);
+    }
+  }
+
+
+
+  /**
+   *  Opens a reader that returns the sessions stored in a file one at a time.
+   *  Both multi-session files written by {@link #saveAll} and single session
+   *  files written by {@link #save} can be read.
+   *  @param file The path of the JSON file to read
+   *  @return an open SessionReader, which the caller must close
+   *  @throws IOException If an I/O error occurs while opening the file
+   */
+  public SessionReader openReader(Path file) throws IOException {
+    return new SessionReader(file);
+  }
+
+
+
+  /**
+   *  Returns a lazily populated stream of the sessions stored in a file.
+   *  The stream holds the file open and should be used in a try-with-resources
+   *  block. Read errors surface as {@link UncheckedIOException} and invalid data
+   *  as an {@link IllegalStateException} whose cause is a {@link ValidationException}.
+   *  @param file The path of the JSON file to read
+   *  @return a sequential stream of sessions in file order
+   *  @throws IOException If an I/O error occurs while opening the file
+   */
+  public Stream<Session> stream(Path file) throws IOException {
+    SessionReader reader = openReader(file);
+    Spliterator<Session> spliterator = Spliterators.spliteratorUnknownSize(reader,
+        Spliterator.ORDERED | Spliterator.NONNULL);
+    return StreamSupport.stream(spliterator, false).onClose(reader::closeQuietly);
+  }
+
+
+
+  /**
+   *  Writes a file through a temporary file in the same directory, which is
+   *  forced to disk and then moved over the target. A crash leaves either
+   *  the old file or the new one, never a torn one, plus at worst a stray
+   *  .tmp file.
+   *  @param file The path of the file to write
+   *  @param content Writes the file's contents
+   *  @throws IOException if an I/O error occurs; the target is then unchanged
+   */
+  static void writeAtomically(Path file, ContentWriter content) throws IOException {
+    Path target = file.toAbsolutePath();
+    // Named per thread so concurrent saves of one file do not share a temp file
+    Path tmp = target.resolveSibling(
+        target.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(tmp,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.WRITE);
+           Writer out = new BufferedWriter(
+               Channels.newWriter(channel, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE)) {
+        content.write(out);
+        out.flush();
+        channel.force(true);
+      }
+      try {
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tmp);
+      if (e instanceof JsonIOException && e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+
+
+  /**
+   *  Writes the contents of a file for {@link #writeAtomically}.
+   */
+  @FunctionalInterface
+  interface ContentWriter {
+    void write(Writer out) throws IOException;
+  }
+
+
+
+  /**
+   *  Converts a Session into its stored form
+   *  @param session The session to convert
+   *  @return the data only representation of the session
+   */
+  private StoredSession toStored(Session session) {
+    StoredSession stored = new StoredSession();
+    stored.date = session.getDate();
+    stored.exercises = new ArrayList<>();
+    stored.entries = new ArrayList<>();
+
+    // Maps catalog ids to positions in this session's exercise table
+    Map<Integer, Integer> localIds = new HashMap<>();
+    // Registering may serialize the exercise under the catalog's lock, so
+    // each distinct instance is registered once per session
+    Map<Exercise, Integer> localIdsByInstance = new IdentityHashMap<>();
+    for (SessionEntry entry : session.getEntries()) {
+      Integer localId = localIdsByInstance.get(entry.getExercise());
+      if (localId == null) {
+        int catalogId = catalog.register(entry.getExercise());
+        localId = localIds.get(catalogId);
+        if (localId == null) {
+          localId = stored.exercises.size();
+          localIds.put(catalogId, localId);
+          stored.exercises.add(catalog.get(catalogId));
+        }
+        localIdsByInstance.put(entry.getExercise(), localId);
+      }
+
+      StoredEntry se = toStoredEntry(entry);
+      se.exerciseId = localId;
+      stored.entries.add(se);
+    }
+    return stored;
+  }
+
+
+
+  /**
+   *  Converts a SessionEntry into its stored form
+   *  @param entry The entry to convert
+   *  @return the data only representation of the entry
+   */
+  private StoredEntry toStoredEntry(SessionEntry entry) {
+    StoredEntry se = new StoredEntry();
+    se.minutesPracticed = entry.getMinutesPracticed();
+    se.averageTempoBpm = entry.getAverageTempoBpm();
+    se.notes = entry.getNotes();
+    return se;
+  }
+
+
+
+  /**
+   *  Rebuilds a Session from its stored form
+   *  @param stored The stored session read from JSON
+   *  @return The reconstructed Session
+   *  @throws ValidationException if the stored session is missing required data
+   */
+  private Session toSession(StoredSession stored) throws ValidationException {
+    if (stored == null || stored.date == null) {
+      throw new ValidationException("Invalid JSON format");
+    }
+
+    // Resolve the session's exercise table to shared catalog instances once
+    Exercise[] exercises = new Exercise[stored.exercises == null ? 0 : stored.exercises.size()];
+    for (int i = 0; i < exercises.length; i++) {
+      if (stored.exercises.get(i) == null) {
         throw new ValidationException("Invalid JSON format");
       }
+      exercises[i] = catalog.intern(stored.exercises.get(i));
+    }
 
-      // Create a session object using the date loaded from JSON
-      Session session = new Session(stored.date);
-      // Only used for test cases to pass when stored entires has nothing
-      if (stored.entries != null) {
-        for (StoredEntry se : stored.entries) {
-          // Dummy exercise – tests do not assert on this
-          Exercise dummy = new ScaleExercise(
-              "Loaded Exercise",
-              se.minutesPracticed > 0 ? se.minutesPracticed : 1,
-              "Major",
-              "C",
-              60
-          );
-          // Build a real SessionEntry object from dummy
-          SessionEntry entry = new SessionEntry(
-              dummy,
-              se.minutesPracticed,
-              se.averageTempoBpm,
-              se.notes
-          );
-          // Add reconstructed entriy to session
-          session.addEntry(entry);
+    // Create a session object using the date loaded from JSON
+    Session session = new Session(stored.date);
+    // Only used for test cases to pass when stored entires has nothing
+    if (stored.entries != null) {
+      for (StoredEntry se : stored.entries) {
+        if (se == null) {
+          throw new ValidationException("Invalid JSON format");
         }
+        Exercise exercise;
+        if (se.exerciseId == null) {
+          exercise = catalog.intern(LEGACY_EXERCISE);
+        } else if (se.exerciseId < 0 || se.exerciseId >= exercises.length) {
+          throw new ValidationException("Unknown exercise id " + se.exerciseId);
+        } else {
+          exercise = exercises[se.exerciseId];
+        }
+        // Add reconstructed entriy to session
+        session.addEntry(toEntry(se, exercise));
+      }
+    }
+    return session;
+  }
+
+
+
+  /**
+   *  Rebuilds a SessionEntry from its stored form
+   *  @param se The stored entry read from JSON
+   *  @param exercise The resolved exercise of the entry
+   *  @return The reconstructed SessionEntry
+   *  @throws ValidationException if the stored entry holds invalid values
+   */
+  private SessionEntry toEntry(StoredEntry se, Exercise exercise) throws ValidationException {
+    try {
+      return new SessionEntry(
+          exercise,
+          se.minutesPracticed,
+          se.averageTempoBpm,
+          se.notes
+      );
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Invalid session entry", e);
+    }
+  }
+
+
+
+  /**
+   *  Serializes a single entry as compact one-line JSON. Used by
+   *  {@link SessionJournal} to encode log records and by
+   *  {@link SessionDeltaStore} for delta file lines.
+   *  @param entry The entry to serialize
+   *  @return the JSON text of the stored entry
+   */
+  String entryToJson(SessionEntry entry) {
+    StoredEntry se = toStoredEntry(entry);
+    se.exercise = entry.getExercise();
+    StringWriter out = new StringWriter();
+    gson.toJson(se, StoredEntry.class, new JsonWriter(out));
+    return out.toString();
+  }
+
+
+
+  /**
+   *  Serializes a single session in the format {@link #save} writes.
+   *  @param session The session to serialize
+   *  @return the JSON text of the stored session
+   */
+  String sessionToJson(Session session) {
+    return gson.toJson(toStored(session));
+  }
+
+
+
+  /**
+   *  Parses a single entry written by {@link #entryToJson}.
+   *  @param json The JSON text of the stored entry
+   *  @return The reconstructed SessionEntry
+   *  @throws ValidationException if the JSON is invalid or missing required data
+   */
+  SessionEntry entryFromJson(String json) throws ValidationException {
+    try {
+      StoredEntry se = gson.fromJson(json, StoredEntry.class);
+      if (se == null) {
+        throw new ValidationException("Invalid JSON format");
       }
-      return session;
-      // Same validaiton as before if Gson throws either of these we wrap it in a  
-      // ValidationException preserving the original exception as the cause.
-    } catch (JsonSyntaxException | JsonIOException e) {
+      Exercise exercise = se.exercise == null ? LEGACY_EXERCISE : se.exercise;
+      return toEntry(se, catalog.intern(exercise));
+    } catch (JsonParseException e) {
       throw new ValidationException("Invalid JSON format", e);
     }
   }
+
+
+
+  /**
+   *  Reads the sessions of a JSON file one at a time.
+   *
+   *  Only the session currently being parsed is held in memory, so arbitrarily
+   *  large histories can be walked with a flat memory footprint.
+   */
+  public final class SessionReader implements Iterator<Session>, Closeable {
+
+    private final JsonReader reader;
+    private boolean started;
+    // True when the file holds a single session object instead of an array
+    private boolean singleSession;
+    private boolean singleSessionRead;
+
+
+
+    private SessionReader(Path file) throws IOException {
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+      this.reader = new JsonReader(new BufferedReader(
+          Channels.newReader(channel, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE));
+    }
+
+
+
+    /**
+     *  Reads the next session from the file.
+     *  @return the next Session, or null when the end of the file is reached
+     *  @throws IOException If an I/O error occurs while reading
+     *  @throws ValidationException if the JSON is invalid or missing required data
+     */
+    public Session read() throws IOException, ValidationException {
+      if (!more()) {
+        return null;
+      }
+      try {
+        if (singleSession) {
+          singleSessionRead = true;
+        }
+        StoredSession stored = gson.fromJson(reader, StoredSession.class);
+        return toSession(stored);
+      } catch (JsonParseException | IllegalStateException e) {
+        throw new ValidationException("Invalid JSON format", e);
+      }
+    }
+
+
+
+    /**
+     *  Returns true if another session can be read.
+     *  @return whether more sessions remain
+     *  @throws UncheckedIOException If an I/O error occurs while reading
+     *  @throws IllegalStateException wrapping a ValidationException for invalid data
+     */
+    @Override
+    public boolean hasNext() {
+      try {
+        return more();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } catch (ValidationException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+    }
+
+
+
+    /**
+     *  Returns the next session from the file.
+     *  @return the next Session
+     *  @throws NoSuchElementException if no sessions remain
+     *  @throws UncheckedIOException If an I/O error occurs while reading
+     *  @throws IllegalStateException wrapping a ValidationException for invalid data
+     */
+    @Override
+    public Session next() {
+      try {
+        Session session = read();
+        if (session == null) {
+          throw new NoSuchElementException();
+        }
+        return session;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } catch (ValidationException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+    }
+
+
+
+    /**
+     *  Works out on first use whether the file holds one session or an array of
+     *  them, then reports whether another session follows.
+     */
+    private boolean more() throws IOException, ValidationException {
+      try {
+        if (!started) {
+          started = true;
+          singleSession = reader.peek() == JsonToken.BEGIN_OBJECT;
+          if (!singleSession) {
+            reader.beginArray();
+          }
+        }
+        return singleSession ? !singleSessionRead : reader.hasNext();
+      } catch (MalformedJsonException | IllegalStateException e) {
+        throw new ValidationException("Invalid JSON format", e);
+      }
+    }
+
+
+
+    /**
+     *  Closes the underlying file.
+     *  @throws IOException If an I/O error occurs while closing
+     */
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+
+
+
+    // Used by stream(), whose onClose handler cannot throw checked exceptions
+    private void closeQuietly() {
+      try {
+        close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
 }
 
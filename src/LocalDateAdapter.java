@@ -23,6 +23,7 @@ import com.google.gson.JsonSerializer;
 
 import java.lang.reflect.Type;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 
 
 /**
@@ -59,6 +60,10 @@ public class LocalDateAdapter implements JsonSerializer<LocalDate>, JsonDeserial
   @Override
   public LocalDate deserialize(JsonElement json, Type typeOfT, com.google.gson.JsonDeserializationContext context)
       throws JsonParseException {
-    return LocalDate.parse(json.getAsString());
+    try {
+      return LocalDate.parse(json.getAsString());
+    } catch (DateTimeParseException e) {
+      throw new JsonParseException("Invalid date: " + json, e);
+    }
   }
 }
@@ -1,10 +1,16 @@
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Main application window for the Practice Tracker GUI.
@@ -17,8 +23,15 @@ import java.util.List;
  * The window provides:
  * - Controls for creating, loading, deleting, and planning practice sessions
  * - A list view displaying available practice sessions
+ * - A search box that filters the list by words in entry notes and exercise names
+ * - Tempo progress toward each exercise's target in the session details
  * - A detail panel showing information for the selected session
  * - Integration with JSON-based persistence for loading sessions from disk
+ * - Parallel import of a whole folder of session files
+ * - A status bar with progress and cancellation for loads and imports,
+ *   which run on background {@link SwingWorker} threads
+ * - Saves that are queued and written in the background by a {@link WriteBehindStore},
+ *   noted in the status bar
  *
  * Design relationships:
  * IS-A: MainWindow extends {@link JFrame}.
@@ -26,25 +39,59 @@ import java.util.List;
  */
 public class MainWindow extends JFrame {
 
+  // Exercises shown by the New Plan button
+  private static final List<Exercise> PLAN_EXERCISES = List.of(
+      new ScaleExercise("Major Scales", 15, "Major", "C", 90),
+      new ArpeggioExercise("Arpeggios", 10, "Cmaj7", 100),
+      new SongExercise("Repertoire", 20, "Fade To Black", "Metallica")
+  );
+
   private final JButton newSessionButton;
   private final JButton loadSessionButton;
+  private final JButton importFolderButton;
   private final JButton saveSessionButton;
   private final JButton deleteSessionButton;
   private final JButton newPlanButton;
 
   // Reference to memory named "sessionListModel" unable to be reassigned to object of same class.
-  private final DefaultListModel<String> sessionListModel;
-  private final JList<String> sessionList;
+  private final SessionListModel sessionListModel;
+  private final JList<Session> sessionList;
+  private final JTextField searchField;
   private final JTextArea sessionDetails;
 
-  // Keeps Session objects in memory aligned with the list model
-  // Declare a private, final field names sessions, type List<Session> (interface)
-  private final List<Session> sessions;
+  // Status bar shown while a load or import runs in the background, or briefly for a note
+  private final JPanel statusPanel;
+  private final JLabel statusLabel;
+  private final JProgressBar progressBar;
+  private final JButton cancelButton;
+  // The background task currently running, or null when idle
+  private SwingWorker<?, ?> activeTask;
+  // Hides a short note shown in the status bar while idle
+  private final Timer statusNoteTimer;
+
+  // Keeps Session objects in memory in date order, aligned with the list model
+  private final SessionRepository sessions;
 
   // Handles JSON persistence
   // declares variable whose type is JsonStore
   private final JsonStore store;
 
+  // Queues saves and writes them in the background, coalescing repeated saves of a file
+  private final WriteBehindStore writeBehind;
+
+  // Loads whole folders of session files in parallel, sharing the store's exercise catalog
+  private final BulkImporter importer;
+
+  // Word index over entry notes and exercise names, searched by the search box
+  private final NotesIndex notesIndex;
+
+  // Tempo progress toward each exercise's target, fed every session as it is loaded
+  private final TempoProgressTracker tempoProgress;
+
+  // Generated plans and their table models, reused while the exercises stay the same
+  private final PlanGenerator planGenerator;
+  private final PlanCache planCache;
+
 
 
 /**
@@ -68,8 +115,21 @@ public class MainWindow extends JFrame {
     super("Practice Tracker");
 
     // Object instantiation and field initialization
-    this.sessions = new ArrayList<>();
+    this.sessions = new SessionRepository();
     this.store = new JsonStore();
+    this.writeBehind = new WriteBehindStore(store);
+    writeBehind.setErrorHandler((file, error) -> SwingUtilities.invokeLater(() ->
+        JOptionPane.showMessageDialog(this,
+            "Could not save " + file + ":\n" + error.getMessage()
+                + "\nThe session is still open; save it again to retry.",
+            "Save Error",
+            JOptionPane.ERROR_MESSAGE)));
+    this.importer = new BulkImporter(store.getCatalog(),
+        Runtime.getRuntime().availableProcessors());
+    this.notesIndex = new NotesIndex();
+    this.tempoProgress = new TempoProgressTracker(store.getCatalog());
+    this.planGenerator = new PlanGenerator();
+    this.planCache = new PlanCache();
 
     // Simple dark mode
     Color bg = new Color(25, 25, 25);
@@ -96,6 +156,7 @@ public class MainWindow extends JFrame {
     buttonPanel.setBackground(panelBg);
     newSessionButton = new JButton("New Session");
     loadSessionButton = new JButton("Load Session");
+    importFolderButton = new JButton("Import Folder");
     saveSessionButton = new JButton("Save Session");
     deleteSessionButton = new JButton("Delete Session");
     newPlanButton = new JButton("New Plan");
@@ -105,6 +166,7 @@ public class MainWindow extends JFrame {
     JButton[] buttons = {
         newSessionButton,
         loadSessionButton,
+        importFolderButton,
         saveSessionButton,
         deleteSessionButton,
         newPlanButton
@@ -122,6 +184,7 @@ public class MainWindow extends JFrame {
     // Each call places the buttons inside the top panel so the layout manager can arrange/display
     buttonPanel.add(newSessionButton);
     buttonPanel.add(loadSessionButton);
+    buttonPanel.add(importFolderButton);
     buttonPanel.add(saveSessionButton);
     buttonPanel.add(deleteSessionButton);
     buttonPanel.add(newPlanButton);
@@ -131,10 +194,15 @@ public class MainWindow extends JFrame {
 
     // Session list UI
     // JList does not store data itself, it reads data from another object called a model
-    sessionListModel = new DefaultListModel<>(); // list of strings -> stores data
+    sessionListModel = new SessionListModel(sessions); // reads rows straight from the repository
     // Creates a visual list that displays whatever is inside sessionListModel
     sessionList = new JList<>(sessionListModel); // -> Displays data
     // List is now connected to the model
+    // Labels are built only for visible rows, and a fixed row height stops
+    // JList from rendering every row just to measure it
+    sessionList.setCellRenderer(new SessionCellRenderer());
+    sessionList.setFixedCellHeight(
+        sessionList.getFontMetrics(sessionList.getFont()).getHeight() + 4);
     sessionList.setBackground(bg);
     sessionList.setForeground(fg);
     sessionList.setSelectionBackground(accent.darker());
@@ -146,6 +214,18 @@ public class MainWindow extends JFrame {
     listScrollPane.getViewport().setBackground(bg);
     listScrollPane.setBorder(BorderFactory.createTitledBorder("Sessions"));
 
+    // Search box above the list; results update on every keystroke
+    searchField = new JTextField();
+    searchField.setBackground(bg);
+    searchField.setForeground(fg);
+    searchField.setCaretColor(fg);
+    searchField.setBorder(BorderFactory.createTitledBorder("Search notes"));
+    searchField.setToolTipText("Show sessions whose notes or exercise names contain these words");
+    JPanel listPanel = new JPanel(new BorderLayout());
+    listPanel.setBackground(bg);
+    listPanel.add(searchField, BorderLayout.NORTH);
+    listPanel.add(listScrollPane, BorderLayout.CENTER);
+
     // Session details panel
     sessionDetails = new JTextArea();
     sessionDetails.setEditable(false);
@@ -161,19 +241,66 @@ public class MainWindow extends JFrame {
     
     // Create the middle pane split that allows for resizing
     JSplitPane splitPane =
-        new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, listScrollPane, detailsScrollPane);
+        new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, listPanel, detailsScrollPane);
     splitPane.setResizeWeight(0.35);
     
     // Position split pane in center border layout
     add(splitPane, BorderLayout.CENTER);
 
+    // Status bar for background persistence work, hidden while idle
+    statusPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+    statusPanel.setBackground(panelBg);
+    statusLabel = new JLabel();
+    statusLabel.setForeground(fg);
+    progressBar = new JProgressBar(0, 100);
+    cancelButton = new JButton("Cancel");
+    cancelButton.setBackground(accent);
+    cancelButton.setForeground(fg);
+    cancelButton.setFocusPainted(false);
+    cancelButton.setBorderPainted(false);
+    statusPanel.add(statusLabel);
+    statusPanel.add(progressBar);
+    statusPanel.add(cancelButton);
+    statusPanel.setVisible(false);
+    add(statusPanel, BorderLayout.SOUTH);
+    statusNoteTimer = new Timer(4_000, e -> {
+      if (activeTask == null) {
+        statusPanel.setVisible(false);
+        revalidate();
+      }
+    });
+    statusNoteTimer.setRepeats(false);
+
     // Button behavior
     // Wire button to specific functions, call on click
     newSessionButton.addActionListener(e -> createNewSession());
     loadSessionButton.addActionListener(e -> loadSessionFromFile());
+    importFolderButton.addActionListener(e -> importSessionsFromFolder());
     saveSessionButton.addActionListener(e -> saveSelectedSessionToFile());
     deleteSessionButton.addActionListener(e -> deleteSelectedSession());
     newPlanButton.addActionListener(e -> showWeeklyPlan());
+    cancelButton.addActionListener(e -> {
+      if (activeTask != null) {
+        activeTask.cancel(true);
+      }
+    });
+
+    searchField.getDocument().addDocumentListener(new DocumentListener() {
+      @Override
+      public void insertUpdate(DocumentEvent e) {
+        runSearch();
+      }
+
+      @Override
+      public void removeUpdate(DocumentEvent e) {
+        runSearch();
+      }
+
+      @Override
+      public void changedUpdate(DocumentEvent e) {
+        runSearch();
+      }
+    });
 
     // updates the session details whenever the list seleciton changes and initalizes the details 
     // panel at startup
@@ -192,15 +319,16 @@ public class MainWindow extends JFrame {
  * Creates a new practice session for the current date.
  *
  * Instantiates a new {@link Session} using today's date, adds it to the
- * in-memory session list, and inserts a formatted label into the session
- * list UI model. The newly created session is then selected so its details
+ * in-memory session repository in date order through the session list model,
+ * which notifies the list of the new row. The newly created session is then selected so its details
  * are immediately displayed.
  */
   private void createNewSession() {
     Session s = new Session(LocalDate.now());
-    sessions.add(s);
-    sessionListModel.addElement(formatSessionLabel(s));
-    sessionList.setSelectedIndex(sessionListModel.size() - 1);
+    clearSearch();
+    int index = sessionListModel.add(s);
+    notesIndex.add(s);
+    sessionList.setSelectedIndex(index);
   }
 
 
@@ -210,7 +338,7 @@ public class MainWindow extends JFrame {
  *
  * Displays a file chooser dialog to allow the user to select a session file.
  * If a valid file is chosen, the session is deserialized using {@link JsonStore}
- * and added to the in-memory session list and session list UI.
+ * and added in date order to the in-memory session repository and session list UI.
  *
  * If the user cancels the dialog, the method exits without making changes.
  * Validation and I/O errors encountered during loading are reported to the user
@@ -226,24 +354,166 @@ public class MainWindow extends JFrame {
 
     Path file = chooser.getSelectedFile().toPath();
 
-    try {
-      Session loaded = store.load(file);
-      sessions.add(loaded);
-      sessionListModel.addElement(formatSessionLabel(loaded));
-      sessionList.setSelectedIndex(sessionListModel.size() - 1);
-    } catch (ValidationException ex) {
-      JOptionPane.showMessageDialog(this, ex.getMessage(),
-          "Load Error", JOptionPane.ERROR_MESSAGE);
-    } catch (IOException ex) {
-      JOptionPane.showMessageDialog(this, ex.getMessage(),
-          "File Error", JOptionPane.ERROR_MESSAGE);
+    // Parse on a worker thread; done() runs back on the EDT to update the list
+    SwingWorker<Session, Void> task = new SwingWorker<>() {
+      @Override
+      protected Session doInBackground() throws Exception {
+        return store.load(file);
+      }
+
+      @Override
+      protected void done() {
+        finishBackgroundTask(this);
+        if (isCancelled()) {
+          return;
+        }
+        try {
+          Session loaded = get();
+          clearSearch();
+          int index = sessionListModel.add(loaded);
+          notesIndex.add(loaded);
+          tempoProgress.record(loaded);
+          sessionList.setSelectedIndex(index);
+        } catch (ExecutionException ex) {
+          if (ex.getCause() instanceof ValidationException) {
+            JOptionPane.showMessageDialog(MainWindow.this, ex.getCause().getMessage(),
+                "Load Error", JOptionPane.ERROR_MESSAGE);
+          } else {
+            JOptionPane.showMessageDialog(MainWindow.this, ex.getCause().getMessage(),
+                "File Error", JOptionPane.ERROR_MESSAGE);
+          }
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    startBackgroundTask("Loading " + file.getFileName() + "...", task, true);
+  }
+
+
+/**
+ * Imports every session JSON file in a folder chosen by the user.
+ *
+ * The files are parsed in parallel by {@link BulkImporter}, then merged with
+ * the sessions already in memory so the session list stays in date order.
+ * Files that fail to load do not stop the import; they are listed in a
+ * summary dialog once the import finishes.
+ */
+  private void importSessionsFromFolder() {
+    JFileChooser chooser = new JFileChooser();
+    chooser.setDialogTitle("Import Session Folder");
+    chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+
+    if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+      return;
+    }
+
+    Path dir = chooser.getSelectedFile().toPath();
+    startBackgroundTask("Importing " + dir.getFileName() + "...", new ImportTask(dir), true);
+  }
+
+
+
+/**
+ * Background task that bulk imports a folder, reporting progress through the
+ * status bar and merging the result into the session list on the EDT.
+ */
+  private final class ImportTask extends SwingWorker<BulkImporter.Result, Void> {
+
+    private final Path dir;
+
+    ImportTask(Path dir) {
+      this.dir = dir;
+    }
+
+    @Override
+    protected BulkImporter.Result doInBackground() throws IOException {
+      return importer.importDirectory(dir, BulkImporter.DEFAULT_GLOB,
+          new BulkImporter.ProgressListener() {
+            @Override
+            public void onProgress(int completed, int total) {
+              setProgress(completed * 100 / total);
+            }
+
+            @Override
+            public boolean isCancelled() {
+              return ImportTask.this.isCancelled();
+            }
+          });
+    }
+
+    @Override
+    protected void done() {
+      finishBackgroundTask(this);
+      if (isCancelled()) {
+        return;
+      }
+      try {
+        BulkImporter.Result result = get();
+        mergeSessions(result.getSessions());
+        showImportSummary(result);
+      } catch (ExecutionException ex) {
+        JOptionPane.showMessageDialog(MainWindow.this, ex.getCause().getMessage(),
+            "File Error", JOptionPane.ERROR_MESSAGE);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+
+
+/**
+ * Merges newly loaded sessions into the session list, keeping date order.
+ *
+ * @param loaded the sessions to add, sorted by date
+ */
+  private void mergeSessions(List<Session> loaded) {
+    if (loaded.isEmpty()) {
+      return;
+    }
+    clearSearch();
+    sessionListModel.addAll(loaded);
+    for (Session s : loaded) {
+      notesIndex.add(s);
+      tempoProgress.record(s);
+    }
+    sessionList.setSelectedIndex(sessions.indexOf(loaded.get(loaded.size() - 1)));
+  }
+
+
+
+/**
+ * Shows how many sessions a bulk import loaded and which files failed.
+ *
+ * @param result the outcome of the import
+ */
+  private void showImportSummary(BulkImporter.Result result) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Imported ").append(result.getSessions().size()).append(" session(s).");
+
+    Map<Path, Exception> failures = result.getFailures();
+    if (!failures.isEmpty()) {
+      sb.append("\n\n").append(failures.size()).append(" file(s) could not be loaded:");
+      int shown = 0;
+      for (Map.Entry<Path, Exception> failure : failures.entrySet()) {
+        if (shown++ == 10) {
+          sb.append("\n...");
+          break;
+        }
+        sb.append("\n").append(failure.getKey().getFileName())
+            .append(": ").append(failure.getValue().getMessage());
+      }
     }
+
+    JOptionPane.showMessageDialog(this, sb.toString(), "Import Folder",
+        failures.isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
   }
 
 
   private void saveSelectedSessionToFile() {
-    int index = sessionList.getSelectedIndex();
-    if (index < 0 || index >= sessions.size()) {
+    Session session = sessionList.getSelectedValue();
+    if (session == null) {
       JOptionPane.showMessageDialog(this,
           "Select a session to save.",
           "Save Session",
@@ -265,18 +535,93 @@ public class MainWindow extends JFrame {
     //   file = Path.of(file.toString() + ".json");
     // }
 
-    try {
-    store.save(sessions.get(index), file);
-    JOptionPane.showMessageDialog(this,
-        "Saved to:\n" + file,
-        "Save Session",
-        JOptionPane.INFORMATION_MESSAGE);
-    } catch (IOException ex) {
-      JOptionPane.showMessageDialog(this,
-          "File error: " + ex.getMessage(),
-          "Save Error",
-          JOptionPane.ERROR_MESSAGE);
+    // The write happens in the background within a few seconds, or at exit;
+    // failures are reported by the handler set up in the constructor
+    writeBehind.save(session, file);
+    showStatusNote("Saving to " + file);
+  }
+
+
+
+/**
+ * Shows a short note in the status bar for a few seconds. Does nothing while
+ * a background task is using the status bar.
+ *
+ * @param note text shown in the status bar
+ */
+  private void showStatusNote(String note) {
+    if (activeTask != null) {
+      return;
+    }
+    statusLabel.setText(note);
+    progressBar.setVisible(false);
+    cancelButton.setVisible(false);
+    statusPanel.setVisible(true);
+    revalidate();
+    statusNoteTimer.restart();
+  }
+
+
+
+/**
+ * Runs a persistence task off the event dispatch thread.
+ *
+ * Shows the status bar with the task's description and progress, disables the
+ * persistence buttons so only one task runs at a time, and starts the worker.
+ * Tasks that never report progress show an indeterminate progress bar.
+ *
+ * @param description text shown in the status bar
+ * @param task the worker to run
+ * @param cancellable whether the Cancel button is offered
+ */
+  private void startBackgroundTask(String description, SwingWorker<?, ?> task,
+                                   boolean cancellable) {
+    activeTask = task;
+    setPersistenceButtonsEnabled(false);
+
+    statusLabel.setText(description);
+    statusNoteTimer.stop();
+    progressBar.setValue(0);
+    progressBar.setIndeterminate(true);
+    progressBar.setVisible(true);
+    cancelButton.setVisible(cancellable);
+    statusPanel.setVisible(true);
+    revalidate();
+
+    // SwingWorker delivers progress changes on the EDT
+    task.addPropertyChangeListener(e -> {
+      if ("progress".equals(e.getPropertyName())) {
+        progressBar.setIndeterminate(false);
+        progressBar.setValue((Integer) e.getNewValue());
+      }
+    });
+    task.execute();
+  }
+
+
+
+/**
+ * Hides the status bar and re-enables the persistence buttons once the
+ * given task has finished or been cancelled.
+ *
+ * @param task the worker that finished
+ */
+  private void finishBackgroundTask(SwingWorker<?, ?> task) {
+    if (activeTask != task) {
+      return;
     }
+    activeTask = null;
+    statusPanel.setVisible(false);
+    setPersistenceButtonsEnabled(true);
+    revalidate();
+  }
+
+
+
+  private void setPersistenceButtonsEnabled(boolean enabled) {
+    loadSessionButton.setEnabled(enabled);
+    importFolderButton.setEnabled(enabled);
+    saveSessionButton.setEnabled(enabled);
   }
 
 
@@ -294,8 +639,8 @@ public class MainWindow extends JFrame {
  * to indicate that no session is selected.
  */
   private void deleteSelectedSession() {
-    int index = sessionList.getSelectedIndex();
-    if (index < 0) {
+    Session selected = sessionList.getSelectedValue();
+    if (selected == null) {
       JOptionPane.showMessageDialog(this,
           "Select a session to delete.",
           "Delete Session",
@@ -303,11 +648,14 @@ public class MainWindow extends JFrame {
       return;
     }
 
-    sessions.remove(index);
+    // Search results are cleared so the selection can move to a neighbouring session
+    clearSearch();
+    int index = sessions.indexOf(selected);
     sessionListModel.remove(index);
+    notesIndex.remove(selected);
 
-    if (!sessionListModel.isEmpty()) {
-      sessionList.setSelectedIndex(Math.min(index, sessionListModel.size() - 1));
+    if (!sessions.isEmpty()) {
+      sessionList.setSelectedIndex(Math.min(index, sessions.size() - 1));
     } else {
       updateSessionDetails();
     }
@@ -324,16 +672,26 @@ public class MainWindow extends JFrame {
  * entries into readable text, and displays the result in the details panel.
  */
   private void updateSessionDetails() {
-    int index = sessionList.getSelectedIndex();
-    if (index < 0 || index >= sessions.size()) {
+    Session s = sessionList.getSelectedValue();
+    if (s == null) {
       sessionDetails.setText("No session selected.");
       return;
     }
 
-    Session s = sessions.get(index);
     StringBuilder sb = new StringBuilder();
     sb.append("Date: ").append(s.getDate()).append("\n");
-    sb.append("Total minutes: ").append(s.getTotalMinutes()).append("\n\n");
+    SessionStats stats = s.getStats();
+    sb.append("Total minutes: ").append(stats.getTotalMinutes()).append("\n");
+    if (stats.getTempoEntryCount() > 0) {
+      sb.append("Tempo: ").append(stats.getMinTempoBpm())
+          .append("-").append(stats.getMaxTempoBpm())
+          .append(String.format(" (avg %.0f)", stats.getMeanTempoBpm())).append("\n");
+    }
+    for (Map.Entry<String, Integer> c : stats.getMinutesByCategory().entrySet()) {
+      sb.append(c.getKey()).append(": ").append(c.getValue()).append(" min\n");
+    }
+    appendTempoProgress(sb, s);
+    sb.append("\n");
 
     for (SessionEntry entry : s.getEntries()) {
       sb.append("Minutes: ").append(entry.getMinutesPracticed()).append("\n");
@@ -352,41 +710,85 @@ public class MainWindow extends JFrame {
 
 
 /**
- * Generates and displays a weekly practice plan.
+ * Appends the tempo progress of each exercise in the session that has a
+ * target tempo, as tracked over every session loaded so far.
  *
- * Creates a predefined set of {@link Exercise} objects, uses a
- * {@link PlanGenerator} to produce a {@link WeeklyPlan}, and displays
- * the resulting plan in a modal dialog. This method is intended to
- * demonstrate weekly plan visualization rather than persist data.
+ * @param sb the details text being built
+ * @param s the selected session
  */
-  private void showWeeklyPlan() {
-    List<Exercise> exercises = List.of(
-        new ScaleExercise("Major Scales", 15, "Major", "C", 90),
-        new ArpeggioExercise("Arpeggios", 10, "Cmaj7", 100),
-        new SongExercise("Repertoire", 20, "Fade To Black", "Metallica")
-    );
+  private void appendTempoProgress(StringBuilder sb, Session s) {
+    Set<Exercise> shown = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < s.getEntryCount(); i++) {
+      Exercise exercise = s.getEntryExercise(i);
+      if (!shown.add(exercise)) {
+        continue;
+      }
+      TempoProgressTracker.TempoProgress progress = tempoProgress.getProgress(exercise);
+      if (progress == null) {
+        continue;
+      }
+      sb.append(exercise.getName()).append(String.format(": %.0f of %d BPM",
+          progress.getEwmaTempoBpm(), progress.getTargetTempoBpm()));
+      Integer days = progress.getDaysToTarget();
+      if (days == null) {
+        sb.append(", not improving");
+      } else if (days > 0) {
+        sb.append(", about ").append(days).append(" days to target");
+      }
+      sb.append("\n");
+    }
+  }
 
-    PlanGenerator generator = new PlanGenerator();
-    WeeklyPlan plan = generator.generate(exercises);
 
-    PlanDialog dialog = new PlanDialog(this, plan);
-    dialog.setVisible(true);
+
+/**
+ * Filters the session list to the sessions matching the search box.
+ *
+ * Every word typed must appear in an entry's notes or exercise name, and
+ * the last word may be partial. The lookup goes through the
+ * {@link NotesIndex}, so it does not scan note text. An empty search box
+ * shows every session again.
+ */
+  private void runSearch() {
+    String query = searchField.getText();
+    if (query.isBlank()) {
+      sessionListModel.setFilter(null);
+    } else {
+      sessionListModel.setFilter(notesIndex.search(query));
+    }
+    if (sessionListModel.getSize() > 0 && sessionList.getSelectedIndex() < 0) {
+      sessionList.setSelectedIndex(0);
+    }
+    updateSessionDetails();
   }
 
 
 
 /**
- * Formats a practice session for display in the session list.
- *
- * Creates a concise, human-readable label containing the session date
- * and total practice time in minutes. This string is used as the visual
- * representation of a {@link Session} in the session list UI.
+ * Empties the search box, which shows every session again.
+ */
+  private void clearSearch() {
+    if (!searchField.getText().isEmpty()) {
+      searchField.setText("");
+    }
+  }
+
+
+
+/**
+ * Generates and displays a weekly practice plan.
  *
- * @param s the session to format
- * @return a formatted session label suitable for list display
+ * Uses a {@link PlanGenerator} to produce a {@link WeeklyPlan} for the
+ * predefined plan exercises and displays it in a modal dialog. Plans and
+ * their table models are kept in a {@link PlanCache}, so opening the same
+ * plan again does not regenerate it. This method is intended to
+ * demonstrate weekly plan visualization rather than persist data.
  */
-  private String formatSessionLabel(Session s) {
-    return s.getDate() + " (" + s.getTotalMinutes() + " min)";
+  private void showWeeklyPlan() {
+    PlanCache.Entry cached = planCache.get(PLAN_EXERCISES, "weekly", planGenerator::generate);
+
+    PlanDialog dialog = new PlanDialog(this, cached.getPlan(), cached.getTableModel());
+    dialog.setVisible(true);
   }
 
 
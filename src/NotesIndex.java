@@ -0,0 +1,344 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from words in entry notes and exercise names to the
+ * sessions that contain them.
+ *
+ * Text is split into lower case words at every character that is not a
+ * letter or digit. Each indexed session gets a document number, and each
+ * word maps to a sorted int[] posting list of the documents that contain
+ * it. A query matches sessions containing all of its words; the last word
+ * also matches as a prefix, so results can update while the user types.
+ * Queries intersect posting lists, smallest first, and never read note
+ * text. Words are kept in a sorted map so a prefix is one range lookup.
+ *
+ * Sessions are indexed whole with {@link #add} and kept current by adding
+ * entries through {@link #addEntry}. Removed sessions are only marked as
+ * removed, so removal is O(1); their postings are skipped by queries. Once
+ * removed sessions outnumber the live ones, the index is compacted: documents
+ * are renumbered and dead postings and slots are dropped, so memory follows
+ * the live sessions and the cost is amortized over the removals.
+ * All methods are thread safe.
+ *
+ * HAS-A: NotesIndex has a sorted word dictionary of posting lists and the indexed sessions
+ */
+public class NotesIndex {
+
+  // Fewer removed documents than this are never worth a compaction
+  private static final int MIN_COMPACT_REMOVED = 64;
+
+  private final NavigableMap<String, Postings> postings = new TreeMap<>();
+  private final List<Session> documents = new ArrayList<>();
+  private final Map<Session, Integer> documentIds = new IdentityHashMap<>();
+  private final BitSet removed = new BitSet();
+  private int removedCount;
+
+
+
+  /**
+   * Indexes every entry of a session. Adding a session that is already
+   * indexed does nothing.
+   *
+   * @param session the session
+   * @throws IllegalArgumentException if session is null
+   */
+  public synchronized void add(Session session) {
+    if (session == null) {
+      throw new IllegalArgumentException("session must not be null");
+    }
+    if (documentIds.containsKey(session)) {
+      return;
+    }
+    int doc = documents.size();
+    documents.add(session);
+    documentIds.put(session, doc);
+    for (int e = 0; e < session.getEntryCount(); e++) {
+      indexText(doc, session.getEntryExercise(e).getName());
+      indexText(doc, session.getEntryNotes(e));
+    }
+  }
+
+
+
+  /**
+   * Adds an entry to a session and indexes it, adding the session to the
+   * index first if needed.
+   *
+   * @param session the session to add to
+   * @param entry the entry
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public synchronized void addEntry(Session session, SessionEntry entry) {
+    if (session == null || entry == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    Integer doc = documentIds.get(session);
+    session.addEntry(entry);
+    if (doc == null) {
+      add(session);
+    } else {
+      indexText(doc, entry.getExercise().getName());
+      indexText(doc, entry.getNotes());
+    }
+  }
+
+
+
+  /**
+   * Removes a session from search results.
+   *
+   * @param session the session
+   */
+  public synchronized void remove(Session session) {
+    Integer doc = documentIds.remove(session);
+    if (doc != null) {
+      removed.set(doc);
+      documents.set(doc, null);
+      removedCount++;
+      if (removedCount >= MIN_COMPACT_REMOVED && removedCount > documentIds.size()) {
+        compact();
+      }
+    }
+  }
+
+
+
+  /**
+   * Returns the sessions whose notes or exercise names contain every word
+   * of a query, with the last word also matching as a prefix.
+   *
+   * @param query the words to look for
+   * @return matching sessions in date order; empty for a query with no words
+   */
+  public synchronized List<Session> search(String query) {
+    List<String> words = tokenize(query);
+    if (words.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<int[]> lists = new ArrayList<>();
+    for (int i = 0; i < words.size() - 1; i++) {
+      Postings p = postings.get(words.get(i));
+      if (p == null) {
+        return new ArrayList<>();
+      }
+      lists.add(p.toArray());
+    }
+    int[] last = prefixUnion(words.get(words.size() - 1));
+    if (last.length == 0) {
+      return new ArrayList<>();
+    }
+    lists.add(last);
+
+    // Intersecting the shortest lists first keeps every step small
+    lists.sort(Comparator.comparingInt(a -> a.length));
+    int[] matches = lists.get(0);
+    for (int i = 1; i < lists.size() && matches.length > 0; i++) {
+      matches = intersect(matches, lists.get(i));
+    }
+
+    List<Session> result = new ArrayList<>(matches.length);
+    for (int doc : matches) {
+      if (!removed.get(doc)) {
+        result.add(documents.get(doc));
+      }
+    }
+    result.sort(Comparator.comparing(Session::getDate));
+    return result;
+  }
+
+
+
+  /**
+   * Returns the number of sessions that can be found.
+   *
+   * @return indexed session count
+   */
+  public synchronized int size() {
+    return documentIds.size();
+  }
+
+
+
+  /**
+   * Returns the number of document slots, live or removed. Used by tests.
+   *
+   * @return document slot count
+   */
+  synchronized int getDocumentSlots() {
+    return documents.size();
+  }
+
+
+
+  /**
+   * Splits text into lower case words of letters and digits.
+   *
+   * @param text the text, or null
+   * @return the words in order
+   */
+  static List<String> tokenize(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null) {
+      return words;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+
+
+  private void indexText(int doc, String text) {
+    for (String word : tokenize(text)) {
+      postings.computeIfAbsent(word, w -> new Postings()).add(doc);
+    }
+  }
+
+
+
+  /**
+   * Drops removed documents: live documents are renumbered in order, which
+   * keeps every posting list sorted, and words left without postings go.
+   */
+  private void compact() {
+    int[] newIds = new int[documents.size()];
+    List<Session> live = new ArrayList<>(documentIds.size());
+    for (int doc = 0; doc < documents.size(); doc++) {
+      if (removed.get(doc)) {
+        newIds[doc] = -1;
+      } else {
+        newIds[doc] = live.size();
+        live.add(documents.get(doc));
+      }
+    }
+
+    Iterator<Postings> lists = postings.values().iterator();
+    while (lists.hasNext()) {
+      Postings p = lists.next();
+      int n = 0;
+      for (int i = 0; i < p.size; i++) {
+        int doc = newIds[p.ids[i]];
+        if (doc >= 0) {
+          p.ids[n++] = doc;
+        }
+      }
+      p.size = n;
+      if (n == 0) {
+        lists.remove();
+      }
+    }
+
+    documents.clear();
+    documents.addAll(live);
+    for (int doc = 0; doc < live.size(); doc++) {
+      documentIds.put(live.get(doc), doc);
+    }
+    removed.clear();
+    removedCount = 0;
+  }
+
+
+
+  /**
+   * Returns the sorted union of the postings of every word that starts with prefix.
+   */
+  private int[] prefixUnion(String prefix) {
+    Map<String, Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    if (range.size() == 1) {
+      return range.values().iterator().next().toArray();
+    }
+    BitSet docs = new BitSet();
+    for (Postings p : range.values()) {
+      for (int i = 0; i < p.size; i++) {
+        docs.set(p.ids[i]);
+      }
+    }
+    return docs.stream().toArray();
+  }
+
+
+
+  /**
+   * Intersects two sorted lists, galloping through the longer one.
+   */
+  static int[] intersect(int[] small, int[] large) {
+    int[] out = new int[small.length];
+    int n = 0;
+    int from = 0;
+    for (int doc : small) {
+      int step = 1;
+      int hi = from;
+      while (hi < large.length && large[hi] < doc) {
+        from = hi + 1;
+        hi += step;
+        step <<= 1;
+      }
+      int pos = Arrays.binarySearch(large, from, Math.min(hi + 1, large.length), doc);
+      if (pos >= 0) {
+        out[n++] = doc;
+        from = pos + 1;
+      } else {
+        from = -pos - 1;
+      }
+      if (from >= large.length) {
+        break;
+      }
+    }
+    return Arrays.copyOf(out, n);
+  }
+
+
+
+  /**
+   * Sorted, duplicate free, growable list of document numbers.
+   */
+  private static final class Postings {
+    int[] ids = new int[4];
+    int size;
+
+    void add(int doc) {
+      if (size > 0 && ids[size - 1] >= doc) {
+        // Only an entry added to an older session lands out of order
+        int pos = Arrays.binarySearch(ids, 0, size, doc);
+        if (pos >= 0) {
+          return;
+        }
+        insert(-pos - 1, doc);
+        return;
+      }
+      insert(size, doc);
+    }
+
+    void insert(int pos, int doc) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+      ids[pos] = doc;
+      size++;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(ids, size);
+    }
+  }
+}
@@ -0,0 +1,189 @@
+import javax.swing.table.TableModel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Least recently used cache of generated plans.
+ *
+ * Plans are keyed by a fingerprint of the exercise list and the generator
+ * parameters: a SHA-256 digest of each exercise's canonical JSON form (the
+ * same form {@link ExerciseCatalog} uses to recognise equal exercises) and
+ * a caller supplied parameter string. Equal exercise lists therefore hit
+ * the cache even when they are different instances, and any change to an
+ * exercise or a parameter gives a new key. Each entry also keeps the table
+ * model {@link PlanDialog} shows, built the first time it is asked for, so
+ * reopening a plan does no work at all.
+ *
+ * HAS-A: PlanCache has a bounded, access ordered map of fingerprints to plans
+ */
+public class PlanCache {
+
+  public static final int DEFAULT_CAPACITY = 16;
+
+  private final Map<String, Entry> entries;
+
+
+
+  /**
+   * Creates a cache holding up to {@value #DEFAULT_CAPACITY} plans.
+   */
+  public PlanCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+
+
+  /**
+   * Creates a cache.
+   *
+   * @param capacity the most plans to keep
+   * @throws IllegalArgumentException if capacity is not positive
+   */
+  public PlanCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be > 0");
+    }
+    this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+
+
+  /**
+   * Returns the cached plan for an exercise list and parameters, generating
+   * and caching it on a miss.
+   *
+   * @param exercises the exercises the plan covers
+   * @param parameters a description of every other generator input, such as "weeks=4"
+   * @param generator builds the plan on a miss
+   * @return the cache entry
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public synchronized Entry get(List<Exercise> exercises, String parameters,
+                                Function<List<Exercise>, ? extends PracticePlan> generator) {
+    if (exercises == null || parameters == null || generator == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    String key = fingerprint(exercises, parameters);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry(generator.apply(exercises));
+      entries.put(key, entry);
+    }
+    return entry;
+  }
+
+
+
+  /**
+   * Drops every cached plan that includes an exercise equal to the given one.
+   *
+   * @param exercise the exercise that changed or was removed
+   */
+  public synchronized void invalidate(Exercise exercise) {
+    String key = ExerciseCatalog.keyOf(exercise);
+    entries.values().removeIf(entry -> {
+      for (Exercise ex : entry.plan.getExercises()) {
+        if (ex == exercise || ExerciseCatalog.keyOf(ex).equals(key)) {
+          return true;
+        }
+      }
+      return false;
+    });
+  }
+
+
+
+  /**
+   * Drops every cached plan.
+   */
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+
+
+  /**
+   * Returns the number of cached plans.
+   *
+   * @return cached plan count
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+
+
+  /**
+   * Returns the cache key for an exercise list and parameters.
+   *
+   * @param exercises the exercises
+   * @param parameters the other generator inputs
+   * @return a hex SHA-256 fingerprint
+   */
+  static String fingerprint(List<Exercise> exercises, String parameters) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to provide SHA-256
+      throw new IllegalStateException(e);
+    }
+    digest.update(parameters.getBytes(StandardCharsets.UTF_8));
+    for (Exercise exercise : exercises) {
+      digest.update((byte) '\n');
+      digest.update(ExerciseCatalog.keyOf(exercise).getBytes(StandardCharsets.UTF_8));
+    }
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest()) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+
+
+
+  /**
+   * A cached plan and the table model derived from it.
+   */
+  public static final class Entry {
+
+    private final PracticePlan plan;
+    private TableModel tableModel;
+
+    private Entry(PracticePlan plan) {
+      this.plan = plan;
+    }
+
+    /**
+     * Returns the cached plan.
+     *
+     * @return the plan
+     */
+    public PracticePlan getPlan() {
+      return plan;
+    }
+
+    /**
+     * Returns the table model for showing the plan in a {@link PlanDialog},
+     * building it on first use. Call on the event dispatch thread.
+     *
+     * @return the table model
+     */
+    public TableModel getTableModel() {
+      if (tableModel == null) {
+        tableModel = PlanDialog.buildTableModel(plan);
+      }
+      return tableModel;
+    }
+  }
+}
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits and preferences used by {@link PlanScheduler} to build a weekly plan.
+ *
+ * Each day has a budget of available minutes. Each exercise can be given a
+ * priority, which weights how much covering it is worth, and a session
+ * length range: an exercise is either left out of a day or scheduled for at
+ * least its minimum and at most its maximum minutes. Exercises without
+ * settings have priority {@value #DEFAULT_PRIORITY}, a minimum of
+ * {@value #DEFAULT_MIN_MINUTES} minutes (or their target, if smaller) and a
+ * maximum equal to their daily target.
+ *
+ * HAS-A: PlanConstraints has daily minute budgets and per-exercise priorities and lengths
+ */
+public class PlanConstraints {
+
+  public static final int DEFAULT_PRIORITY = 1;
+  public static final int DEFAULT_MIN_MINUTES = 10;
+
+  private final int[] dailyBudgets;
+  private final Map<Exercise, Integer> priorities = new HashMap<>();
+  private final Map<Exercise, int[]> lengths = new HashMap<>();
+
+
+
+  /**
+   * Creates constraints with a minute budget for each day of the week.
+   *
+   * @param dailyBudgets available minutes for Monday through Sunday
+   * @throws IllegalArgumentException if dailyBudgets is null, does not have
+   *                                  7 values, or holds a negative value
+   */
+  public PlanConstraints(int[] dailyBudgets) {
+    if (dailyBudgets == null || dailyBudgets.length != PlanGenerator.DAYS.length) {
+      throw new IllegalArgumentException("dailyBudgets must have one value per day");
+    }
+    for (int budget : dailyBudgets) {
+      if (budget < 0) {
+        throw new IllegalArgumentException("dailyBudgets must not be negative");
+      }
+    }
+    this.dailyBudgets = dailyBudgets.clone();
+  }
+
+
+
+  /**
+   * Creates constraints with the same budget every day.
+   *
+   * @param minutesPerDay available minutes each day
+   * @return the constraints
+   * @throws IllegalArgumentException if minutesPerDay is negative
+   */
+  public static PlanConstraints everyDay(int minutesPerDay) {
+    int[] budgets = new int[PlanGenerator.DAYS.length];
+    Arrays.fill(budgets, minutesPerDay);
+    return new PlanConstraints(budgets);
+  }
+
+
+
+  /**
+   * Returns an independent copy of these constraints.
+   *
+   * @return the copy
+   */
+  public PlanConstraints copy() {
+    PlanConstraints copy = new PlanConstraints(dailyBudgets);
+    copy.priorities.putAll(priorities);
+    copy.lengths.putAll(lengths);
+    return copy;
+  }
+
+
+
+  /**
+   * Sets how much covering an exercise is worth relative to the others.
+   *
+   * @param exercise the exercise
+   * @param priority the weight, must be > 0
+   * @return these constraints
+   * @throws IllegalArgumentException if exercise is null or priority is not positive
+   */
+  public PlanConstraints setPriority(Exercise exercise, int priority) {
+    if (exercise == null) {
+      throw new IllegalArgumentException("exercise must not be null");
+    }
+    if (priority <= 0) {
+      throw new IllegalArgumentException("priority must be > 0");
+    }
+    priorities.put(exercise, priority);
+    return this;
+  }
+
+
+
+  /**
+   * Sets the shortest and longest block of time an exercise may get on one day.
+   *
+   * @param exercise the exercise
+   * @param minMinutes the shortest block, must be > 0
+   * @param maxMinutes the longest block, must be >= minMinutes
+   * @return these constraints
+   * @throws IllegalArgumentException if exercise is null or the range is invalid
+   */
+  public PlanConstraints setSessionLength(Exercise exercise, int minMinutes, int maxMinutes) {
+    if (exercise == null) {
+      throw new IllegalArgumentException("exercise must not be null");
+    }
+    if (minMinutes <= 0 || maxMinutes < minMinutes) {
+      throw new IllegalArgumentException("need 0 < minMinutes <= maxMinutes");
+    }
+    lengths.put(exercise, new int[] {minMinutes, maxMinutes});
+    return this;
+  }
+
+
+
+  /**
+   * Returns the minute budget for a day.
+   *
+   * @param dayIndex 0 for Monday through 6 for Sunday
+   * @return available minutes
+   */
+  public int getBudget(int dayIndex) {
+    return dailyBudgets[dayIndex];
+  }
+
+
+
+  /**
+   * Returns the priority of an exercise.
+   *
+   * @param exercise the exercise
+   * @return its priority
+   */
+  public int getPriority(Exercise exercise) {
+    return priorities.getOrDefault(exercise, DEFAULT_PRIORITY);
+  }
+
+
+
+  /**
+   * Returns the shortest block an exercise may get on a day it is scheduled.
+   *
+   * @param exercise the exercise
+   * @return minimum minutes
+   */
+  public int getMinMinutes(Exercise exercise) {
+    int[] range = lengths.get(exercise);
+    return range != null
+        ? range[0]
+        : Math.min(DEFAULT_MIN_MINUTES, exercise.getTargetMinutesPerDay());
+  }
+
+
+
+  /**
+   * Returns the longest block an exercise may get on one day.
+   *
+   * @param exercise the exercise
+   * @return maximum minutes
+   */
+  public int getMaxMinutes(Exercise exercise) {
+    int[] range = lengths.get(exercise);
+    return range != null ? range[1] : exercise.getTargetMinutesPerDay();
+  }
+}
@@ -1,24 +1,24 @@
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.util.List;
 
 public class PlanDialog extends JDialog {
   
-  public PlanDialog(JFrame owner, WeeklyPlan plan) {
-    super(owner, "WeeklyPlan", true);
+  public PlanDialog(JFrame owner, PracticePlan plan) {
+    this(owner, plan, buildTableModel(plan));
+  }
+
+  /**
+   *  Shows a plan using a table model that was already built, for example
+   *  one kept by {@link PlanCache}.
+   */
+  public PlanDialog(JFrame owner, PracticePlan plan, TableModel model) {
+    super(owner, plan.getDays() == PlanGenerator.DAYS.length ? "WeeklyPlan" : "Practice Plan", true);
     setSize(800, 350);
     setLocationRelativeTo(owner);
 
-    String[] columns = buildColumns(plan.getExercises());
-    Object[][] data = buildData(plan);
-
-    DefaultTableModel model = new DefaultTableModel(data, columns) {
-      public boolean isCellEditable(int row, int col) {
-        return false;
-      }
-    };
-
     JTable table = new JTable(model);
     table.setRowHeight(28);
 
@@ -33,7 +33,18 @@ public class PlanDialog extends JDialog {
     add(bottom, BorderLayout.SOUTH);
   }
 
-  private String[] buildColumns(List<Exercise> exercises) {
+  static TableModel buildTableModel(PracticePlan plan) {
+    String[] columns = buildColumns(plan.getExercises());
+    Object[][] data = buildData(plan);
+
+    return new DefaultTableModel(data, columns) {
+      public boolean isCellEditable(int row, int col) {
+        return false;
+      }
+    };
+  }
+
+  static String[] buildColumns(List<Exercise> exercises) {
     String[] cols = new String[exercises.size() + 1];
     cols[0] = "Day";
     for(int i = 0; i < exercises.size(); i++) {
@@ -42,10 +53,10 @@ public class PlanDialog extends JDialog {
     return cols;
   }
 
-  private Object[][] buildData(WeeklyPlan plan) {
+  static Object[][] buildData(PracticePlan plan) {
     Object[][] data = new Object[plan.getDays()][plan.getExerciseCount() + 1];
     for(int day = 0; day < plan.getDays(); day++) {
-      data[day][0] = PlanGenerator.DAYS[day];
+      data[day][0] = plan.getDayLabel(day);
       for(int ex = 0; ex < plan.getExerciseCount(); ex++) {
         data[day][ex + 1] = plan.getMinutes(day, ex);
       }
@@ -1,3 +1,5 @@
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 
 public class PlanGenerator {
@@ -28,6 +30,54 @@ public class PlanGenerator {
 
     return new WeeklyPlan(exercises, minutes);
   }
+
+  /**
+   *  Builds a plan over several weeks, with each exercise's daily target on
+   *  every day. Use {@link PlanStore} to save long plans compactly.
+   */
+
+  public PracticePlan generate(List<Exercise> exercises, int weeks) {
+    if (exercises == null) {
+      throw new IllegalArgumentException("exercises must not be null");
+    }
+    if (weeks <= 0) {
+      throw new IllegalArgumentException("weeks must be > 0");
+    }
+    WeeklyPlan week = generate(exercises);
+    int[][] minutes = new int[weeks * DAYS.length][exercises.size()];
+    for (int day = 0; day < minutes.length; day++) {
+      for (int ex = 0; ex < exercises.size(); ex++) {
+        minutes[day][ex] = week.getMinutes(day % DAYS.length, ex);
+      }
+    }
+    return new PracticePlan(exercises, minutes);
+  }
+
+  /**
+   *  Builds a weekly plan that fits the given daily budgets, weighting
+   *  exercises by priority. See {@link PlanScheduler}.
+   */
+
+  public WeeklyPlan generate(List<Exercise> exercises, PlanConstraints constraints) {
+    return new PlanScheduler().schedule(exercises, constraints);
+  }
+
+  /**
+   *  Builds next week's plan weighted toward exercises that recent history
+   *  shows as neglected or below target tempo. The history is read once,
+   *  in any order, and may be streamed straight from disk.
+   *  See {@link PracticeGapAnalyzer}.
+   */
+
+  public WeeklyPlan generateFromHistory(List<Exercise> exercises, Iterator<Session> history,
+                                        LocalDate today, int windowDays,
+                                        PlanConstraints constraints) {
+    if (history == null || constraints == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    PracticeGapAnalyzer gaps = new PracticeGapAnalyzer(exercises, today, windowDays).scan(history);
+    return generate(exercises, gaps.weight(constraints));
+  }
 }
 
 
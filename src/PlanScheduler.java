@@ -0,0 +1,80 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds a {@link WeeklyPlan} that fits the daily minute budgets in a
+ * {@link PlanConstraints}.
+ *
+ * Each exercise earns value for the share of its daily target that is
+ * covered, scaled by its priority, so a minute spent on an exercise is worth
+ * priority / target. Repeating an exercise on more days earns less each time
+ * (the k-th day counts 1 / k), which spreads the week across the library
+ * instead of giving every day the same top few exercises.
+ *
+ * The solver is greedy: for each day it ranks exercises by value per minute
+ * and gives each one as long a block as its maximum and the remaining budget
+ * allow, skipping an exercise if less than its minimum is left. Ranking is
+ * one sort per day, so hundreds of exercises take well under a millisecond.
+ * Ties are broken by list position, so the same inputs always give the same
+ * plan.
+ *
+ * HAS-A: PlanScheduler has no state; it is a pure function of its inputs
+ */
+public class PlanScheduler {
+
+  /**
+   * Schedules a week of practice.
+   *
+   * @param exercises the exercises to choose from
+   * @param constraints budgets, priorities and session lengths
+   * @return the plan; exercises that did not fit have zero minutes
+   * @throws IllegalArgumentException if an argument is null or exercises holds a null
+   */
+  public WeeklyPlan schedule(List<Exercise> exercises, PlanConstraints constraints) {
+    if (exercises == null || constraints == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+
+    int days = PlanGenerator.DAYS.length;
+    int n = exercises.size();
+    double[] perMinute = new double[n];
+    int[] minMinutes = new int[n];
+    int[] maxMinutes = new int[n];
+    for (int i = 0; i < n; i++) {
+      Exercise ex = exercises.get(i);
+      if (ex == null) {
+        throw new IllegalArgumentException("exercises must not contain null");
+      }
+      perMinute[i] = (double) constraints.getPriority(ex) / ex.getTargetMinutesPerDay();
+      minMinutes[i] = constraints.getMinMinutes(ex);
+      maxMinutes[i] = constraints.getMaxMinutes(ex);
+    }
+
+    int[][] minutes = new int[days][n];
+    int[] daysScheduled = new int[n];
+    Integer[] order = new Integer[n];
+    double[] score = new double[n];
+
+    for (int day = 0; day < days; day++) {
+      for (int i = 0; i < n; i++) {
+        order[i] = i;
+        score[i] = perMinute[i] / (1 + daysScheduled[i]);
+      }
+      // Highest value first; the stable sort keeps list order for equal scores
+      Arrays.sort(order, (a, b) -> Double.compare(score[b], score[a]));
+
+      int remaining = constraints.getBudget(day);
+      for (int k = 0; k < n && remaining > 0; k++) {
+        int ex = order[k];
+        if (remaining < minMinutes[ex]) {
+          continue;
+        }
+        int block = Math.min(maxMinutes[ex], remaining);
+        minutes[day][ex] = block;
+        remaining -= block;
+        daysScheduled[ex]++;
+      }
+    }
+    return new WeeklyPlan(exercises, minutes);
+  }
+}
@@ -0,0 +1,451 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves and loads {@link PracticePlan}s as JSON or in a compact binary form.
+ *
+ * Both formats keep the plan's layout. Dense plans store every cell in
+ * row-major order; sparse plans store only their non-zero cells, so a long
+ * plan that schedules a few exercises a day over a large library stays
+ * small on disk and is never expanded to a full grid on load.
+ *
+ * JSON layout: {"days", "exercises", and either "minutes" (all cells,
+ * row-major) or "cells" (day, exercise, minutes triples)}.
+ *
+ * Binary layout (integers are unsigned LEB128 varints): magic "PTSP", a
+ * version byte, the string and exercise tables used by
+ * {@link BinarySessionCodec}, the day count, a layout byte (0 = dense,
+ * 1 = sparse), then either every cell or, per day, a cell count followed by
+ * the gap from the previous exercise index and the minutes of each cell.
+ *
+ * Loaded exercises are interned through an {@link ExerciseCatalog}.
+ *
+ * HAS-A: PlanStore has a Gson instance and an exercise catalog
+ */
+public class PlanStore {
+
+  public static final int VERSION = 1;
+
+  /**
+   * Longest plan that can be loaded, in days: a century. Day counts come from
+   * the file and size the plan's row tables, so they are checked against
+   * this before anything is allocated.
+   */
+  public static final int MAX_DAYS = 36_600;
+
+  private static final byte[] MAGIC = {'P', 'T', 'S', 'P'};
+  private static final int LAYOUT_DENSE = 0;
+  private static final int LAYOUT_SPARSE = 1;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Gson gson;
+  private final ExerciseCatalog catalog;
+
+
+
+  /**
+   * Creates a store with its own exercise catalog.
+   */
+  public PlanStore() {
+    this(new ExerciseCatalog());
+  }
+
+
+
+  /**
+   * Creates a store that interns loaded exercises through the given catalog.
+   *
+   * @param catalog the catalog to intern through
+   * @throws IllegalArgumentException if catalog is null
+   */
+  public PlanStore(ExerciseCatalog catalog) {
+    if (catalog == null) {
+      throw new IllegalArgumentException("catalog must not be null");
+    }
+    this.catalog = catalog;
+    this.gson = new GsonBuilder()
+        .registerTypeHierarchyAdapter(Exercise.class, new ExerciseAdapter())
+        .create();
+  }
+
+
+
+  /**
+   * Saves a plan as JSON.
+   *
+   * @param plan the plan to save
+   * @param file the destination file
+   * @throws IllegalArgumentException if an argument is null
+   * @throws IOException if the file cannot be written
+   */
+  public void saveJson(PracticePlan plan, Path file) throws IOException {
+    if (plan == null || file == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writeJson(plan, out);
+    }
+  }
+
+
+
+  /**
+   * Writes a plan as JSON to a character stream, in the format
+   * {@link #saveJson} uses. The writer is flushed but not closed.
+   *
+   * @param plan the plan to write
+   * @param out the destination
+   * @throws IllegalArgumentException if an argument is null
+   * @throws IOException if the plan cannot be written
+   */
+  public void writeJson(PracticePlan plan, Writer out) throws IOException {
+    if (plan == null || out == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    StoredPlan stored = new StoredPlan();
+    stored.days = plan.getDays();
+    stored.exercises = plan.getExercises();
+
+    if (plan.isSparse()) {
+      List<Integer> cells = new ArrayList<>();
+      plan.forEachNonZero((day, ex, m) -> {
+        cells.add(day);
+        cells.add(ex);
+        cells.add(m);
+      });
+      stored.cells = cells.stream().mapToInt(Integer::intValue).toArray();
+    } else {
+      int n = plan.getExerciseCount();
+      stored.minutes = new int[plan.getDays() * n];
+      plan.forEachNonZero((day, ex, m) -> stored.minutes[day * n + ex] = m);
+    }
+
+    try {
+      gson.toJson(stored, out);
+    } catch (JsonIOException e) {
+      throw new IOException("Failed to write plan", e);
+    }
+    out.flush();
+  }
+
+
+
+  /**
+   * Loads a plan saved by {@link #saveJson}.
+   *
+   * @param file the file to read
+   * @return the plan, in the layout it was saved in
+   * @throws IOException if the file cannot be read
+   * @throws ValidationException if the file is not a valid plan
+   */
+  public PracticePlan loadJson(Path file) throws IOException, ValidationException {
+    StoredPlan stored;
+    try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      stored = gson.fromJson(in, StoredPlan.class);
+    } catch (JsonParseException e) {
+      throw new ValidationException("Invalid plan JSON", e);
+    }
+    if (stored == null || stored.days < 0 || stored.days > MAX_DAYS || stored.exercises == null
+        || (stored.minutes == null) == (stored.cells == null)) {
+      throw new ValidationException("Invalid plan JSON");
+    }
+
+    List<Exercise> exercises = intern(stored.exercises);
+    int n = exercises.size();
+    try {
+      if (stored.minutes != null) {
+        if (stored.minutes.length != (long) stored.days * n) {
+          throw new ValidationException("Plan minutes do not match its size");
+        }
+        int[][] grid = new int[stored.days][];
+        for (int day = 0; day < stored.days; day++) {
+          grid[day] = Arrays.copyOfRange(stored.minutes, day * n, (day + 1) * n);
+        }
+        return new PracticePlan(exercises, grid);
+      }
+
+      if (stored.cells.length % 3 != 0) {
+        throw new ValidationException("Plan cells must be day, exercise, minutes triples");
+      }
+      int count = stored.cells.length / 3;
+      int[] rowStart = new int[stored.days + 1];
+      int[] columns = new int[count];
+      short[] values = new short[count];
+      for (int k = 0; k < count; k++) {
+        int day = stored.cells[3 * k];
+        int minutes = stored.cells[3 * k + 2];
+        if (day < 0 || day >= stored.days || (k > 0 && day < stored.cells[3 * k - 3])
+            || minutes > PracticePlan.MAX_MINUTES) {
+          throw new ValidationException("Invalid plan cell " + k);
+        }
+        rowStart[day + 1]++;
+        columns[k] = stored.cells[3 * k + 1];
+        values[k] = (short) minutes;
+      }
+      for (int day = 0; day < stored.days; day++) {
+        rowStart[day + 1] += rowStart[day];
+      }
+      return new PracticePlan(exercises, rowStart, columns, values);
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Invalid plan data", e);
+    }
+  }
+
+
+
+  /**
+   * Saves a plan in the binary format.
+   *
+   * @param plan the plan to save
+   * @param file the destination file
+   * @throws IllegalArgumentException if an argument is null
+   * @throws IOException if the file cannot be written
+   */
+  public void saveBinary(PracticePlan plan, Path file) throws IOException {
+    if (plan == null || file == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    try (OutputStream out = Files.newOutputStream(file)) {
+      write(plan, out);
+    }
+  }
+
+
+
+  /**
+   * Loads a plan saved by {@link #saveBinary}.
+   *
+   * @param file the file to read
+   * @return the plan, in the layout it was saved in
+   * @throws IOException if the file cannot be read
+   * @throws ValidationException if the file is not a valid binary plan
+   */
+  public PracticePlan loadBinary(Path file) throws IOException, ValidationException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return read(in);
+    }
+  }
+
+
+
+  /**
+   * Encodes a plan to a stream. The stream is flushed but not closed.
+   *
+   * @param plan the plan
+   * @param out the destination
+   * @throws IOException if writing fails
+   */
+  void write(PracticePlan plan, OutputStream out) throws IOException {
+    Map<String, Integer> stringIds = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    for (Exercise exercise : plan.getExercises()) {
+      for (String field : BinarySessionCodec.stringFields(exercise)) {
+        BinarySessionCodec.intern(field, stringIds, strings);
+      }
+    }
+
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+    data.write(MAGIC);
+    data.writeByte(VERSION);
+    BinarySessionCodec.writeVarint(data, strings.size());
+    for (String s : strings) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      BinarySessionCodec.writeVarint(data, bytes.length);
+      data.write(bytes);
+    }
+    BinarySessionCodec.writeVarint(data, plan.getExerciseCount());
+    for (Exercise exercise : plan.getExercises()) {
+      BinarySessionCodec.writeExercise(data, exercise, stringIds);
+    }
+
+    int days = plan.getDays();
+    int n = plan.getExerciseCount();
+    BinarySessionCodec.writeVarint(data, days);
+    if (plan.isSparse()) {
+      data.writeByte(LAYOUT_SPARSE);
+      SparseCells cells = new SparseCells(plan);
+      int k = 0;
+      for (int day = 0; day < days; day++) {
+        BinarySessionCodec.writeVarint(data, cells.perDay[day]);
+        int previous = -1;
+        for (int c = 0; c < cells.perDay[day]; c++, k++) {
+          BinarySessionCodec.writeVarint(data, cells.columns[k] - previous - 1);
+          BinarySessionCodec.writeVarint(data, cells.minutes[k]);
+          previous = cells.columns[k];
+        }
+      }
+    } else {
+      data.writeByte(LAYOUT_DENSE);
+      for (int day = 0; day < days; day++) {
+        for (int ex = 0; ex < n; ex++) {
+          BinarySessionCodec.writeVarint(data, plan.getMinutes(day, ex));
+        }
+      }
+    }
+    data.flush();
+  }
+
+
+
+  /**
+   * Decodes a plan from a stream. The stream is not closed.
+   *
+   * @param in the source
+   * @return the plan
+   * @throws IOException if reading fails
+   * @throws ValidationException if the data is not a valid binary plan
+   */
+  PracticePlan read(InputStream in) throws IOException, ValidationException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+    try {
+      byte[] magic = new byte[MAGIC.length];
+      data.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new ValidationException("Not a binary plan file");
+      }
+      int version = data.readUnsignedByte();
+      if (version != VERSION) {
+        throw new ValidationException("Unsupported binary plan format version " + version);
+      }
+
+      // Tables grow as items are read, so forged counts cannot allocate ahead of the data
+      int stringCount = BinarySessionCodec.readCount(data);
+      List<String> stringList = new ArrayList<>();
+      for (int i = 0; i < stringCount; i++) {
+        stringList.add(new String(
+            BinarySessionCodec.readBytes(data, BinarySessionCodec.readCount(data)),
+            StandardCharsets.UTF_8));
+      }
+      String[] strings = stringList.toArray(new String[0]);
+      List<Exercise> exercises = new ArrayList<>();
+      int exerciseCount = BinarySessionCodec.readCount(data);
+      for (int i = 0; i < exerciseCount; i++) {
+        exercises.add(catalog.intern(BinarySessionCodec.readExercise(data, strings)));
+      }
+
+      int days = BinarySessionCodec.readCount(data);
+      if (days > MAX_DAYS) {
+        throw new ValidationException("Plan too long: " + days + " days");
+      }
+      int layout = data.readUnsignedByte();
+      if (layout == LAYOUT_DENSE) {
+        // Rows are allocated as they are read; exerciseCount is backed by real exercises
+        int[][] grid = new int[days][];
+        for (int day = 0; day < days; day++) {
+          grid[day] = new int[exerciseCount];
+          for (int ex = 0; ex < exerciseCount; ex++) {
+            grid[day][ex] = BinarySessionCodec.readCount(data);
+          }
+        }
+        return new PracticePlan(exercises, grid);
+      }
+      if (layout != LAYOUT_SPARSE) {
+        throw new ValidationException("Unknown plan layout " + layout);
+      }
+
+      int[] rowStart = new int[days + 1];
+      int[] columns = new int[16];
+      short[] values = new short[16];
+      int k = 0;
+      for (int day = 0; day < days; day++) {
+        rowStart[day] = k;
+        int cells = BinarySessionCodec.readCount(data);
+        int ex = -1;
+        for (int c = 0; c < cells; c++) {
+          if (k == columns.length) {
+            columns = Arrays.copyOf(columns, k * 2);
+            values = Arrays.copyOf(values, k * 2);
+          }
+          ex += BinarySessionCodec.readCount(data) + 1;
+          int minutes = BinarySessionCodec.readCount(data);
+          if (minutes > PracticePlan.MAX_MINUTES) {
+            throw new ValidationException("Invalid plan minutes " + minutes);
+          }
+          columns[k] = ex;
+          values[k] = (short) minutes;
+          k++;
+        }
+      }
+      rowStart[days] = k;
+      return new PracticePlan(exercises, rowStart,
+          Arrays.copyOf(columns, k), Arrays.copyOf(values, k));
+    } catch (EOFException e) {
+      throw new ValidationException("Truncated binary plan file", e);
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Invalid binary plan data", e);
+    }
+  }
+
+
+
+  private List<Exercise> intern(List<Exercise> exercises) throws ValidationException {
+    List<Exercise> interned = new ArrayList<>(exercises.size());
+    for (Exercise exercise : exercises) {
+      if (exercise == null) {
+        throw new ValidationException("Invalid plan JSON");
+      }
+      interned.add(catalog.intern(exercise));
+    }
+    return interned;
+  }
+
+
+
+  /**
+   * The non-zero cells of a plan, gathered in one pass so they can be
+   * written with a count before each day.
+   */
+  private static class SparseCells {
+    final int[] perDay;
+    int[] columns = new int[16];
+    int[] minutes = new int[16];
+    int size;
+
+    SparseCells(PracticePlan plan) {
+      perDay = new int[plan.getDays()];
+      plan.forEachNonZero((day, ex, m) -> {
+        if (size == columns.length) {
+          columns = Arrays.copyOf(columns, size * 2);
+          minutes = Arrays.copyOf(minutes, size * 2);
+        }
+        perDay[day]++;
+        columns[size] = ex;
+        minutes[size] = m;
+        size++;
+      });
+    }
+  }
+
+
+
+  /**
+   * JSON form of a plan.
+   */
+  private static class StoredPlan {
+    int days;
+    List<Exercise> exercises;
+    int[] minutes;
+    int[] cells;
+  }
+}
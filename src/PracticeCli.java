@@ -0,0 +1,687 @@
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
+
+/**
+ * Command line front end for running imports, reports and plans without a
+ * display.
+ *
+ * Usage: {@code java -cp practice-tracker.jar PracticeCli <command> [options] <path>...}
+ *
+ * Commands:
+ * - import: writes every session of the inputs, in input order
+ * - merge: writes the sessions of several date-ordered inputs as one date-ordered history
+ * - stats: writes a {@link PracticeReport} over the inputs
+ * - plan: writes a practice plan for the exercises found in the inputs
+ *
+ * Each path is a session JSON file or a directory whose *.json files are read
+ * in name order. Sessions are streamed through {@link JsonStore.SessionReader}
+ * one at a time, so memory use does not grow with the size of the archive.
+ * merge reads at most {@value #MAX_MERGE_FAN_IN} files at a time and merges
+ * longer input lists through temporary files.
+ * Output goes to stdout as JSON (the default) or CSV, chosen with
+ * {@code --format}. Errors go to stderr and give a non-zero exit status.
+ * import and merge read their inputs once before writing anything, so a
+ * command that fails on bad input leaves stdout empty.
+ *
+ * This class must not touch AWT or Swing, directly or through the classes it
+ * uses, so that it starts quickly and runs on machines with no display.
+ *
+ * HAS-A: PracticeCli has a JsonStore and the output and error streams
+ */
+public class PracticeCli {
+
+  static final int EXIT_OK = 0;
+  static final int EXIT_FAILURE = 1;
+  static final int EXIT_USAGE = 2;
+  // Inputs a merge reads at once; stays well below common open file limits
+  static final int MAX_MERGE_FAN_IN = 64;
+
+  private static final String USAGE = String.join(System.lineSeparator(),
+      "usage: PracticeCli <command> [options] <path>...",
+      "",
+      "commands:",
+      "  import   write every session of the inputs, in input order",
+      "  merge    merge date-ordered inputs into one date-ordered history",
+      "  stats    write totals, streaks, session lengths and tempo trends",
+      "  plan     write a practice plan for the exercises in the inputs",
+      "",
+      "options:",
+      "  --format json|csv   output format (default json)",
+      "  --weeks N           plan: number of weeks (default 1)",
+      "  --budget MINUTES    plan: daily budget; weights the week toward neglected exercises",
+      "  --window DAYS       plan: days of history --budget looks back over (default 28)",
+      "  --today YYYY-MM-DD  plan: last day of that window (default today)");
+
+  private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+  private static final int DEFAULT_WINDOW_DAYS = 28;
+
+  private final JsonStore store = new JsonStore();
+  private final Writer out;
+  private final PrintWriter err;
+
+  // Options; only the ones that apply to the command are read
+  private boolean csv;
+  private int weeks = 1;
+  private Integer budget;
+  private int windowDays = DEFAULT_WINDOW_DAYS;
+  private LocalDate today = LocalDate.now();
+
+
+
+  /**
+   * Creates a command line runner.
+   *
+   * @param out where results are written
+   * @param err where errors and usage are written
+   * @throws IllegalArgumentException if an argument is null
+   */
+  PracticeCli(Writer out, PrintWriter err) {
+    if (out == null || err == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    this.out = out;
+    this.err = err;
+  }
+
+
+
+  /**
+   * Runs one command and exits with its status.
+   *
+   * @param args the command, its options and its input paths
+   */
+  public static void main(String[] args) {
+    // Nothing here should need a display; fail fast if something tries
+    System.setProperty("java.awt.headless", "true");
+    Writer out = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE);
+    PrintWriter err = new PrintWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8), true);
+    int status = new PracticeCli(out, err).run(args);
+    err.flush();
+    System.exit(status);
+  }
+
+
+
+  /**
+   * Runs one command, writing its result to the output stream.
+   *
+   * @param args the command, its options and its input paths
+   * @return the exit status: 0 on success, 1 if the command failed, 2 for bad usage
+   */
+  int run(String[] args) {
+    if (args.length == 0 || args[0].equals("--help") || args[0].equals("-h")) {
+      err.println(USAGE);
+      return args.length == 0 ? EXIT_USAGE : EXIT_OK;
+    }
+
+    String command = args[0];
+    List<Path> inputs;
+    try {
+      if (!List.of("import", "merge", "stats", "plan").contains(command)) {
+        throw new IllegalArgumentException("unknown command '" + command + "'");
+      }
+      inputs = parseOptions(args);
+      if (inputs.isEmpty()) {
+        throw new IllegalArgumentException("no input paths given");
+      }
+      if (budget != null && weeks != 1) {
+        throw new IllegalArgumentException("--budget plans one week; drop --weeks");
+      }
+    } catch (IllegalArgumentException e) {
+      err.println("practice: " + e.getMessage());
+      err.println(USAGE);
+      return EXIT_USAGE;
+    }
+
+    try {
+      List<Path> files = expand(inputs);
+      switch (command) {
+        case "import":
+          validate(new SessionSource(files));
+          writeSessions(new SessionSource(files));
+          break;
+        case "merge":
+          // Every input is checked whole, so merge order does not matter here
+          validate(new SessionSource(files));
+          writeSessions(new MergedSource(files));
+          break;
+        case "stats":
+          writeStats(files);
+          break;
+        default: // plan
+          writePlan(files);
+          break;
+      }
+      out.flush();
+      return EXIT_OK;
+    } catch (IOException e) {
+      err.println("practice: " + e.getMessage());
+    } catch (UncheckedIOException e) {
+      err.println("practice: " + e.getCause().getMessage());
+    } catch (IllegalStateException e) {
+      // Invalid data met while iterating a SessionReader
+      err.println("practice: " + e.getMessage());
+    }
+    try {
+      out.flush();
+    } catch (IOException ignored) {
+      // Already failing; the error above is the one worth reporting
+    }
+    return EXIT_FAILURE;
+  }
+
+
+
+  /**
+   * Reads the options after the command and returns the remaining input paths.
+   */
+  private List<Path> parseOptions(String[] args) {
+    List<Path> inputs = new ArrayList<>();
+    for (int i = 1; i < args.length; i++) {
+      String arg = args[i];
+      if (!arg.startsWith("--")) {
+        inputs.add(Paths.get(arg));
+        continue;
+      }
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException(arg + " needs a value");
+      }
+      String value = args[++i];
+      switch (arg) {
+        case "--format":
+          if (!value.equals("json") && !value.equals("csv")) {
+            throw new IllegalArgumentException("--format must be json or csv");
+          }
+          csv = value.equals("csv");
+          break;
+        case "--weeks":
+          weeks = positive(arg, value);
+          break;
+        case "--budget":
+          budget = positive(arg, value);
+          break;
+        case "--window":
+          windowDays = positive(arg, value);
+          break;
+        case "--today":
+          try {
+            today = LocalDate.parse(value);
+          } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("--today must be a date like 2025-01-31");
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("unknown option " + arg);
+      }
+    }
+    return inputs;
+  }
+
+
+
+  private static int positive(String option, String value) {
+    try {
+      int n = Integer.parseInt(value);
+      if (n > 0) {
+        return n;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    throw new IllegalArgumentException(option + " must be a positive whole number");
+  }
+
+
+
+  /**
+   * Replaces each directory with the *.json files inside it, in name order.
+   */
+  private static List<Path> expand(List<Path> inputs) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (Path input : inputs) {
+      if (!Files.isDirectory(input)) {
+        files.add(input);
+        continue;
+      }
+      List<Path> found = new ArrayList<>();
+      try (DirectoryStream<Path> dir = Files.newDirectoryStream(input, BulkImporter.DEFAULT_GLOB)) {
+        for (Path p : dir) {
+          if (Files.isRegularFile(p)) {
+            found.add(p);
+          }
+        }
+      }
+      Collections.sort(found);
+      files.addAll(found);
+    }
+    return files;
+  }
+
+
+
+  /**
+   * Reads every session without writing anything, so that invalid input is
+   * reported before the first byte of output.
+   */
+  private static void validate(SessionIterator sessions) throws IOException {
+    try (sessions) {
+      while (sessions.hasNext()) {
+        sessions.next();
+      }
+    }
+  }
+
+
+
+  /**
+   * Writes sessions as a JSON array, or as one CSV row per entry.
+   */
+  private void writeSessions(SessionIterator sessions) throws IOException {
+    try (sessions) {
+      if (!csv) {
+        store.writeAll(sessions, out);
+        out.write(System.lineSeparator());
+        return;
+      }
+      out.write("date,exercise,category,minutes,tempo_bpm,notes");
+      out.write(System.lineSeparator());
+      while (sessions.hasNext()) {
+        Session s = sessions.next();
+        String date = s.getDate().toString();
+        for (int i = 0; i < s.getEntryCount(); i++) {
+          Exercise exercise = s.getEntryExercise(i);
+          int tempo = s.getEntryTempo(i);
+          writeRow(date, exercise.getName(), exercise.getCategory(),
+              String.valueOf(s.getEntryMinutes(i)),
+              tempo == Session.NO_TEMPO ? "" : String.valueOf(tempo),
+              s.getEntryNotes(i) == null ? "" : s.getEntryNotes(i));
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * Streams every input through {@link ReportCollectors#report()} and writes the result.
+   */
+  private void writeStats(List<Path> files) throws IOException {
+    PracticeReport report;
+    try (SessionSource sessions = new SessionSource(files)) {
+      report = StreamSupport.stream(Spliterators.spliteratorUnknownSize(sessions,
+          Spliterator.ORDERED | Spliterator.NONNULL), false)
+          .collect(ReportCollectors.report());
+    }
+    PracticeReport.Streaks streaks = report.getStreaks();
+    PracticeReport.Percentiles lengths = report.getSessionLengths();
+    long totalMinutes = 0;
+    for (long minutes : report.getMinutesByCategory().values()) {
+      totalMinutes += minutes;
+    }
+
+    if (csv) {
+      out.write("section,key,value");
+      out.write(System.lineSeparator());
+      writeRow("total", "sessions", String.valueOf(report.getSessionCount()));
+      writeRow("total", "minutes", String.valueOf(totalMinutes));
+      for (Map.Entry<String, Long> e : report.getMinutesByCategory().entrySet()) {
+        writeRow("category", e.getKey(), e.getValue().toString());
+      }
+      for (Map.Entry<YearMonth, Long> e : report.getMinutesByMonth().entrySet()) {
+        writeRow("month", e.getKey().toString(), e.getValue().toString());
+      }
+      for (Map.Entry<LocalDate, Long> e : report.getMinutesByWeek().entrySet()) {
+        writeRow("week", e.getKey().toString(), e.getValue().toString());
+      }
+      writeRow("streak", "longest", String.valueOf(streaks.getLongest()));
+      writeRow("streak", "current", String.valueOf(streaks.getCurrent()));
+      writeRow("streak", "practice_days", String.valueOf(streaks.getPracticeDays()));
+      writeRow("session_minutes", "median", String.valueOf(lengths.getMedian()));
+      writeRow("session_minutes", "p90", String.valueOf(lengths.get(90)));
+      for (Map.Entry<String, PracticeReport.TrendLine> e : report.getTempoTrends().entrySet()) {
+        writeRow("tempo_slope_per_day", e.getKey(), String.valueOf(e.getValue().getSlopePerDay()));
+      }
+      return;
+    }
+
+    JsonWriter json = new JsonWriter(out);
+    json.setIndent("  ");
+    json.beginObject();
+    json.name("sessions").value(report.getSessionCount());
+    json.name("totalMinutes").value(totalMinutes);
+    json.name("minutesByCategory").beginObject();
+    for (Map.Entry<String, Long> e : report.getMinutesByCategory().entrySet()) {
+      json.name(e.getKey()).value(e.getValue());
+    }
+    json.endObject();
+    json.name("minutesByMonth").beginObject();
+    for (Map.Entry<YearMonth, Long> e : report.getMinutesByMonth().entrySet()) {
+      json.name(e.getKey().toString()).value(e.getValue());
+    }
+    json.endObject();
+    json.name("minutesByWeek").beginObject();
+    for (Map.Entry<LocalDate, Long> e : report.getMinutesByWeek().entrySet()) {
+      json.name(e.getKey().toString()).value(e.getValue());
+    }
+    json.endObject();
+    json.name("streaks").beginObject();
+    json.name("longest").value(streaks.getLongest());
+    json.name("longestStart").value(
+        streaks.getLongestStart() == null ? null : streaks.getLongestStart().toString());
+    json.name("current").value(streaks.getCurrent());
+    json.name("practiceDays").value(streaks.getPracticeDays());
+    json.endObject();
+    json.name("sessionMinutes").beginObject();
+    json.name("count").value(lengths.getCount());
+    json.name("median").value(lengths.getMedian());
+    json.name("p90").value(lengths.get(90));
+    json.endObject();
+    json.name("tempoTrends").beginObject();
+    for (Map.Entry<String, PracticeReport.TrendLine> e : report.getTempoTrends().entrySet()) {
+      PracticeReport.TrendLine trend = e.getValue();
+      json.name(e.getKey()).beginObject();
+      json.name("samples").value(trend.getSamples());
+      json.name("meanTempo").value(trend.getMeanTempo());
+      json.name("slopePerDay").value(trend.getSlopePerDay());
+      json.endObject();
+    }
+    json.endObject();
+    json.endObject();
+    json.flush();
+    out.write(System.lineSeparator());
+  }
+
+
+
+  /**
+   * Writes a plan for every exercise in the inputs. With a budget the inputs
+   * are read a second time as history for {@link PlanGenerator#generateFromHistory}.
+   */
+  private void writePlan(List<Path> files) throws IOException {
+    // The first pass only collects exercises, which the store's catalog interns
+    try (SessionSource sessions = new SessionSource(files)) {
+      while (sessions.hasNext()) {
+        sessions.next();
+      }
+    }
+    List<Exercise> exercises = store.getCatalog().getExercises();
+
+    PlanGenerator generator = new PlanGenerator();
+    PracticePlan plan;
+    if (budget == null) {
+      plan = weeks == 1 ? generator.generate(exercises) : generator.generate(exercises, weeks);
+    } else {
+      try (SessionSource history = new SessionSource(files)) {
+        plan = generator.generateFromHistory(exercises, history, today, windowDays,
+            PlanConstraints.everyDay(budget));
+      }
+    }
+
+    if (!csv) {
+      new PlanStore(store.getCatalog()).writeJson(plan, out);
+      out.write(System.lineSeparator());
+      return;
+    }
+    String[] header = new String[plan.getDays() + 2];
+    header[0] = "exercise";
+    header[1] = "category";
+    for (int day = 0; day < plan.getDays(); day++) {
+      header[day + 2] = plan.getDayLabel(day);
+    }
+    writeRow(header);
+    for (int ex = 0; ex < plan.getExerciseCount(); ex++) {
+      String[] row = new String[header.length];
+      row[0] = exercises.get(ex).getName();
+      row[1] = exercises.get(ex).getCategory();
+      for (int day = 0; day < plan.getDays(); day++) {
+        row[day + 2] = String.valueOf(plan.getMinutes(day, ex));
+      }
+      writeRow(row);
+    }
+  }
+
+
+
+  private void writeRow(String... fields) throws IOException {
+    for (int i = 0; i < fields.length; i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      out.write(csvField(fields[i]));
+    }
+    out.write(System.lineSeparator());
+  }
+
+
+
+  /**
+   * Quotes a CSV field if it holds a comma, quote or line break.
+   *
+   * @param field the raw value
+   * @return the value as it should appear in a CSV row
+   */
+  static String csvField(String field) {
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+        return '"' + field.replace("\"", "\"\"") + '"';
+      }
+    }
+    return field;
+  }
+
+
+
+  /**
+   * Session iterator over input files that must be closed when done with.
+   */
+  private interface SessionIterator extends Iterator<Session>, Closeable {
+  }
+
+
+
+  /**
+   * Reads the inputs one after another, opening each file only when the
+   * previous one is finished.
+   */
+  private final class SessionSource implements SessionIterator {
+
+    private final Iterator<Path> files;
+    private JsonStore.SessionReader reader;
+    private Path current;
+
+    SessionSource(List<Path> files) {
+      this.files = files.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (reader == null || !reader.hasNext()) {
+          if (reader != null) {
+            reader.close();
+            reader = null;
+          }
+          if (!files.hasNext()) {
+            return false;
+          }
+          current = files.next();
+          reader = store.openReader(current);
+        }
+        return true;
+      } catch (FileSystemException e) {
+        // Its message already names the file
+        throw new UncheckedIOException(e);
+      } catch (IOException e) {
+        throw new UncheckedIOException(new IOException(current + ": " + e.getMessage(), e));
+      } catch (IllegalStateException e) {
+        throw new IllegalStateException(current + ": " + e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public Session next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        return reader.next();
+      } catch (IllegalStateException e) {
+        throw new IllegalStateException(current + ": " + e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (reader != null) {
+        reader.close();
+        reader = null;
+      }
+    }
+  }
+
+
+
+  /**
+   * Merges date-ordered inputs by always taking the earliest next session.
+   * At most {@value #MAX_MERGE_FAN_IN} inputs are open at once, each holding
+   * one session in memory. Longer input lists are first merged in groups of
+   * that size into temporary files, which are merged in turn and deleted on
+   * close. Sessions on the same date come out in input order.
+   */
+  private final class MergedSource implements SessionIterator {
+
+    private final List<SessionSource> sources = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private final PriorityQueue<Head> heads = new PriorityQueue<>(
+        Comparator.comparing((Head h) -> h.session.getDate()).thenComparingInt(h -> h.source));
+
+    MergedSource(List<Path> files) throws IOException {
+      try {
+        List<Path> inputs = files;
+        while (inputs.size() > MAX_MERGE_FAN_IN) {
+          inputs = mergeRuns(inputs);
+        }
+        for (Path file : inputs) {
+          SessionSource source = new SessionSource(List.of(file));
+          sources.add(source);
+          advance(sources.size() - 1);
+        }
+      } catch (IOException | RuntimeException e) {
+        try {
+          close();
+        } catch (IOException suppressed) {
+          e.addSuppressed(suppressed);
+        }
+        throw e;
+      }
+    }
+
+    // Merges consecutive groups of inputs into one temporary file each, so
+    // ties still come out in input order
+    private List<Path> mergeRuns(List<Path> inputs) throws IOException {
+      List<Path> merged = new ArrayList<>();
+      for (int from = 0; from < inputs.size(); from += MAX_MERGE_FAN_IN) {
+        Path run = Files.createTempFile("practice-merge-", ".json");
+        runs.add(run);
+        merged.add(run);
+        List<Path> group = inputs.subList(from, Math.min(inputs.size(), from + MAX_MERGE_FAN_IN));
+        try (MergedSource part = new MergedSource(group);
+             Writer writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+          store.writeAll(part, writer);
+        }
+      }
+      return merged;
+    }
+
+    private void advance(int source) {
+      SessionSource s = sources.get(source);
+      if (s.hasNext()) {
+        heads.add(new Head(s.next(), source));
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public Session next() {
+      Head head = heads.poll();
+      if (head == null) {
+        throw new NoSuchElementException();
+      }
+      advance(head.source);
+      return head.session;
+    }
+
+    @Override
+    public void close() throws IOException {
+      IOException first = null;
+      for (SessionSource s : sources) {
+        try {
+          s.close();
+        } catch (IOException e) {
+          if (first == null) {
+            first = e;
+          }
+        }
+      }
+      for (Path run : runs) {
+        try {
+          Files.deleteIfExists(run);
+        } catch (IOException e) {
+          if (first == null) {
+            first = e;
+          }
+        }
+      }
+      if (first != null) {
+        throw first;
+      }
+    }
+  }
+
+
+
+  private static final class Head {
+    final Session session;
+    final int source;
+
+    Head(Session session, int source) {
+      this.session = session;
+      this.source = source;
+    }
+  }
+}
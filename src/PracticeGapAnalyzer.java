@@ -0,0 +1,209 @@
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how far recent practice falls short of each exercise's goals.
+ *
+ * The analyzer looks at a window of days ending on a given date and, for
+ * each exercise in a library, compares the minutes practiced with the daily
+ * target over the window (the minute deficit) and, for scales and arpeggios,
+ * the most recent recorded tempo with the target tempo (the tempo gap).
+ *
+ * Sessions are consumed one at a time in any order, so the whole history
+ * can be streamed from disk through a single pass, for example from
+ * {@link JsonStore#openReader}. Memory use depends only on the library
+ * size, never on the length of the history. History entries are matched to
+ * the library by exercise name; entries for other exercises are ignored.
+ *
+ * HAS-A: PracticeGapAnalyzer has an exercise library, a date window and per-exercise totals
+ */
+public class PracticeGapAnalyzer {
+
+  /**
+   * Largest extra priority given for each of the minute and tempo gaps.
+   */
+  static final int MAX_GAP_BOOST = 4;
+
+  private final List<Exercise> library;
+  private final Map<String, Integer> indexByName = new HashMap<>();
+  private final long firstDay;
+  private final long lastDay;
+  private final int windowDays;
+
+  private final long[] minutes;
+  // Most recent tempo per exercise and the day it was recorded; 0 means none
+  private final int[] latestTempo;
+  private final long[] latestTempoDay;
+
+
+
+  /**
+   * Creates an analyzer over a window of days.
+   *
+   * @param library the exercises to measure
+   * @param today the last day of the window
+   * @param windowDays number of days in the window, ending on today
+   * @throws IllegalArgumentException if library or today is null, or windowDays is not positive
+   */
+  public PracticeGapAnalyzer(List<Exercise> library, LocalDate today, int windowDays) {
+    if (library == null || today == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    if (windowDays <= 0) {
+      throw new IllegalArgumentException("windowDays must be > 0");
+    }
+    this.library = List.copyOf(library);
+    for (int i = 0; i < this.library.size(); i++) {
+      indexByName.putIfAbsent(this.library.get(i).getName(), i);
+    }
+    this.lastDay = today.toEpochDay();
+    this.firstDay = lastDay - windowDays + 1;
+    this.windowDays = windowDays;
+    this.minutes = new long[this.library.size()];
+    this.latestTempo = new int[this.library.size()];
+    this.latestTempoDay = new long[this.library.size()];
+  }
+
+
+
+  /**
+   * Adds one session to the totals. Sessions outside the window are ignored.
+   *
+   * @param session the session
+   * @throws IllegalArgumentException if session is null
+   */
+  public void accept(Session session) {
+    if (session == null) {
+      throw new IllegalArgumentException("session must not be null");
+    }
+    long day = session.getDate().toEpochDay();
+    if (day < firstDay || day > lastDay) {
+      return;
+    }
+    for (int e = 0; e < session.getEntryCount(); e++) {
+      Integer index = indexByName.get(session.getEntryExercise(e).getName());
+      if (index == null) {
+        continue;
+      }
+      minutes[index] += session.getEntryMinutes(e);
+
+      int tempo = session.getEntryTempo(e);
+      if (tempo != Session.NO_TEMPO
+          && (latestTempo[index] == 0 || day > latestTempoDay[index]
+              || (day == latestTempoDay[index] && tempo > latestTempo[index]))) {
+        latestTempo[index] = tempo;
+        latestTempoDay[index] = day;
+      }
+    }
+  }
+
+
+
+  /**
+   * Adds every remaining session from an iterator, such as a
+   * {@link JsonStore.SessionReader}, in a single pass.
+   *
+   * @param sessions the sessions to add
+   * @return this analyzer
+   */
+  public PracticeGapAnalyzer scan(Iterator<Session> sessions) {
+    while (sessions.hasNext()) {
+      accept(sessions.next());
+    }
+    return this;
+  }
+
+
+
+  /**
+   * Adds every session in a collection.
+   *
+   * @param sessions the sessions to add
+   * @return this analyzer
+   */
+  public PracticeGapAnalyzer scan(Iterable<Session> sessions) {
+    return scan(sessions.iterator());
+  }
+
+
+
+  /**
+   * Returns the share of the window's target minutes that was not practiced.
+   *
+   * @param exerciseIndex position of the exercise in the library
+   * @return 0 when the target was met, up to 1 when nothing was practiced
+   */
+  public double getMinuteDeficit(int exerciseIndex) {
+    long target = (long) library.get(exerciseIndex).getTargetMinutesPerDay() * windowDays;
+    return Math.max(0.0, 1.0 - (double) minutes[exerciseIndex] / target);
+  }
+
+
+
+  /**
+   * Returns how far the most recent tempo is below the target tempo, as a
+   * share of the target. Exercises without a target tempo, and exercises
+   * with no tempo recorded in the window, have no tempo gap; neglect shows
+   * up in the minute deficit instead.
+   *
+   * @param exerciseIndex position of the exercise in the library
+   * @return 0 when at or above target, up to 1
+   */
+  public double getTempoGap(int exerciseIndex) {
+    int target = targetTempo(library.get(exerciseIndex));
+    int latest = latestTempo[exerciseIndex];
+    if (target <= 0 || latest == 0) {
+      return 0.0;
+    }
+    return Math.max(0.0, (double) (target - latest) / target);
+  }
+
+
+
+  /**
+   * Returns the scheduling priority for an exercise: the base priority
+   * raised by up to {@value #MAX_GAP_BOOST} for each of its gaps.
+   *
+   * @param exerciseIndex position of the exercise in the library
+   * @param basePriority the priority before history is considered
+   * @return the weighted priority
+   */
+  public int getPriority(int exerciseIndex, int basePriority) {
+    return basePriority
+        + (int) Math.round(MAX_GAP_BOOST * getMinuteDeficit(exerciseIndex))
+        + (int) Math.round(MAX_GAP_BOOST * getTempoGap(exerciseIndex));
+  }
+
+
+
+  /**
+   * Returns a copy of the given constraints with every library exercise's
+   * priority raised according to its gaps.
+   *
+   * @param base the constraints to start from; not changed
+   * @return weighted constraints
+   */
+  public PlanConstraints weight(PlanConstraints base) {
+    PlanConstraints weighted = base.copy();
+    for (int i = 0; i < library.size(); i++) {
+      Exercise ex = library.get(i);
+      weighted.setPriority(ex, getPriority(i, base.getPriority(ex)));
+    }
+    return weighted;
+  }
+
+
+
+  private static int targetTempo(Exercise exercise) {
+    if (exercise instanceof ScaleExercise) {
+      return ((ScaleExercise) exercise).getTargetTempoBpm();
+    }
+    if (exercise instanceof ArpeggioExercise) {
+      return ((ArpeggioExercise) exercise).getTargetTempoBpm();
+    }
+    return 0;
+  }
+}
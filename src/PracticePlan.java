@@ -0,0 +1,306 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A practice plan over any number of days: planned minutes for each
+ * exercise on each day.
+ *
+ * Day 0 is a Monday, so a plan of several weeks lines up with the week days
+ * in {@link PlanGenerator#DAYS}. Minutes are stored in one of two compact
+ * layouts chosen when the plan is built:
+ * - dense: a flat short[] indexed day * exerciseCount + exercise, two bytes
+ *   per cell with no per-row arrays
+ * - sparse: only the non-zero cells, as a per-day offset table plus
+ *   parallel exercise index and minute arrays (compressed sparse rows)
+ * A plan uses the sparse layout when at most a quarter of its cells are
+ * non-zero, which is typical for long plans over a large exercise library.
+ * Plans are immutable.
+ *
+ * HAS-A: PracticePlan has a list of exercises and a grid of planned minutes
+ */
+public class PracticePlan {
+
+  /**
+   * Receives the non-zero cells of a plan.
+   */
+  @FunctionalInterface
+  public interface CellConsumer {
+
+    /**
+     * Called once per non-zero cell, in day then exercise order.
+     *
+     * @param day the day index
+     * @param exercise the exercise index
+     * @param minutes the planned minutes, always > 0
+     */
+    void accept(int day, int exercise, int minutes);
+  }
+
+  /**
+   * Largest number of minutes one cell can hold.
+   */
+  public static final int MAX_MINUTES = Short.MAX_VALUE;
+
+  private final List<Exercise> exercises;
+  private final int days;
+  // Exactly one of dense or (rowStart, columns, values) is set
+  private final short[] dense;
+  private final int[] rowStart;
+  private final int[] columns;
+  private final short[] values;
+
+
+
+  /**
+   * Creates a plan from a day by exercise grid of minutes.
+   *
+   * @param exercises the exercises, one per column
+   * @param minutes one row per day, each with one value per exercise
+   * @throws IllegalArgumentException if an argument is null, a row has the wrong
+   *                                  length, or a value is outside 0 to {@value #MAX_MINUTES}
+   */
+  public PracticePlan(List<Exercise> exercises, int[][] minutes) {
+    if (exercises == null || minutes == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    this.exercises = List.copyOf(exercises);
+    this.days = minutes.length;
+    int n = this.exercises.size();
+
+    int nonZero = 0;
+    for (int[] row : minutes) {
+      if (row == null || row.length != n) {
+        throw new IllegalArgumentException("each day must have one value per exercise");
+      }
+      for (int m : row) {
+        checkMinutes(m);
+        if (m != 0) {
+          nonZero++;
+        }
+      }
+    }
+
+    if ((long) nonZero * 4 <= (long) days * n) {
+      this.dense = null;
+      this.rowStart = new int[days + 1];
+      this.columns = new int[nonZero];
+      this.values = new short[nonZero];
+      int k = 0;
+      for (int day = 0; day < days; day++) {
+        rowStart[day] = k;
+        for (int ex = 0; ex < n; ex++) {
+          if (minutes[day][ex] != 0) {
+            columns[k] = ex;
+            values[k] = (short) minutes[day][ex];
+            k++;
+          }
+        }
+      }
+      rowStart[days] = k;
+    } else {
+      this.dense = new short[Math.multiplyExact(days, n)];
+      for (int day = 0; day < days; day++) {
+        for (int ex = 0; ex < n; ex++) {
+          dense[day * n + ex] = (short) minutes[day][ex];
+        }
+      }
+      this.rowStart = null;
+      this.columns = null;
+      this.values = null;
+    }
+  }
+
+
+
+  /**
+   * Creates a sparse plan from its non-zero cells. Used by {@link PlanStore}
+   * so a saved sparse plan never has to be expanded into a full grid.
+   *
+   * @param exercises the exercises
+   * @param rowStart for each day, the position of its first cell; days + 1 values
+   * @param columns exercise index of each cell, ascending within a day
+   * @param values minutes of each cell
+   * @throws IllegalArgumentException if the arrays are inconsistent
+   */
+  PracticePlan(List<Exercise> exercises, int[] rowStart, int[] columns, short[] values) {
+    this.exercises = List.copyOf(exercises);
+    this.days = rowStart.length - 1;
+    if (days < 0 || rowStart[0] != 0 || rowStart[days] != columns.length
+        || columns.length != values.length) {
+      throw new IllegalArgumentException("inconsistent sparse plan");
+    }
+    for (int day = 0; day < days; day++) {
+      if (rowStart[day + 1] < rowStart[day]) {
+        throw new IllegalArgumentException("inconsistent sparse plan");
+      }
+      for (int k = rowStart[day]; k < rowStart[day + 1]; k++) {
+        boolean ascending = k == rowStart[day] || columns[k] > columns[k - 1];
+        if (!ascending || columns[k] < 0 || columns[k] >= this.exercises.size() || values[k] <= 0) {
+          throw new IllegalArgumentException("invalid sparse plan cell");
+        }
+      }
+    }
+    this.dense = null;
+    this.rowStart = rowStart;
+    this.columns = columns;
+    this.values = values;
+  }
+
+
+
+  /**
+   * Returns the exercises in column order.
+   *
+   * @return an unmodifiable list of exercises
+   */
+  public List<Exercise> getExercises() {
+    return Collections.unmodifiableList(exercises);
+  }
+
+
+
+  /**
+   * Returns the planned minutes for one exercise on one day.
+   *
+   * @param dayIndex the day, from 0
+   * @param exerciseIndex the exercise, from 0
+   * @return planned minutes
+   * @throws IndexOutOfBoundsException if either index is out of range
+   */
+  public int getMinutes(int dayIndex, int exerciseIndex) {
+    int n = exercises.size();
+    if (dayIndex < 0 || dayIndex >= days || exerciseIndex < 0 || exerciseIndex >= n) {
+      throw new IndexOutOfBoundsException("cell " + dayIndex + "," + exerciseIndex);
+    }
+    if (dense != null) {
+      return dense[dayIndex * n + exerciseIndex];
+    }
+    int lo = rowStart[dayIndex];
+    int hi = rowStart[dayIndex + 1] - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (columns[mid] < exerciseIndex) {
+        lo = mid + 1;
+      } else if (columns[mid] > exerciseIndex) {
+        hi = mid - 1;
+      } else {
+        return values[mid];
+      }
+    }
+    return 0;
+  }
+
+
+
+  /**
+   * Returns the total planned minutes on one day.
+   *
+   * @param dayIndex the day, from 0
+   * @return minutes planned that day
+   */
+  public int getDayTotal(int dayIndex) {
+    int[] total = new int[1];
+    forEachNonZero(dayIndex, dayIndex + 1, (day, ex, m) -> total[0] += m);
+    return total[0];
+  }
+
+
+
+  /**
+   * Returns the number of days in the plan.
+   *
+   * @return day count
+   */
+  public int getDays() {
+    return days;
+  }
+
+
+
+  /**
+   * Returns the number of weeks the plan touches, counting a partial last week.
+   *
+   * @return week count
+   */
+  public int getWeeks() {
+    return (days + PlanGenerator.DAYS.length - 1) / PlanGenerator.DAYS.length;
+  }
+
+
+
+  /**
+   * Returns the number of exercises.
+   *
+   * @return exercise count
+   */
+  public int getExerciseCount() {
+    return exercises.size();
+  }
+
+
+
+  /**
+   * Returns a display label for a day: the week day name for plans of up
+   * to one week, such as "Mon", or the week and day for longer plans, such
+   * as "Wk 3 Mon".
+   *
+   * @param dayIndex the day, from 0
+   * @return the label
+   */
+  public String getDayLabel(int dayIndex) {
+    int week = PlanGenerator.DAYS.length;
+    String name = PlanGenerator.DAYS[dayIndex % week];
+    return days <= week ? name : "Wk " + (dayIndex / week + 1) + " " + name;
+  }
+
+
+
+  /**
+   * Returns true if the plan keeps only its non-zero cells.
+   *
+   * @return whether the sparse layout is used
+   */
+  public boolean isSparse() {
+    return dense == null;
+  }
+
+
+
+  /**
+   * Passes every non-zero cell to a consumer, in day then exercise order.
+   * Sparse plans visit only the stored cells.
+   *
+   * @param consumer receives each cell
+   */
+  public void forEachNonZero(CellConsumer consumer) {
+    forEachNonZero(0, days, consumer);
+  }
+
+
+
+  private void forEachNonZero(int fromDay, int toDay, CellConsumer consumer) {
+    int n = exercises.size();
+    for (int day = fromDay; day < toDay; day++) {
+      if (dense != null) {
+        for (int ex = 0; ex < n; ex++) {
+          int m = dense[day * n + ex];
+          if (m != 0) {
+            consumer.accept(day, ex, m);
+          }
+        }
+      } else {
+        for (int k = rowStart[day]; k < rowStart[day + 1]; k++) {
+          consumer.accept(day, columns[k], values[k]);
+        }
+      }
+    }
+  }
+
+
+
+  private static void checkMinutes(int minutes) {
+    if (minutes < 0 || minutes > MAX_MINUTES) {
+      throw new IllegalArgumentException("minutes must be between 0 and " + MAX_MINUTES);
+    }
+  }
+}
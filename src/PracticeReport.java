@@ -0,0 +1,265 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Summary statistics over a practice history, produced by
+ * {@link ReportCollectors#report()}.
+ *
+ * HAS-A: PracticeReport has grouped minute totals, streaks, session length
+ * percentiles and per-exercise tempo trends
+ */
+public final class PracticeReport {
+
+  private final long sessionCount;
+  private final Map<String, Long> minutesByCategory;
+  private final SortedMap<LocalDate, Long> minutesByWeek;
+  private final SortedMap<YearMonth, Long> minutesByMonth;
+  private final Streaks streaks;
+  private final Percentiles sessionLengths;
+  private final Map<String, TrendLine> tempoTrends;
+
+
+
+  PracticeReport(long sessionCount, Map<String, Long> minutesByCategory,
+                 SortedMap<LocalDate, Long> minutesByWeek, SortedMap<YearMonth, Long> minutesByMonth,
+                 Streaks streaks, Percentiles sessionLengths, Map<String, TrendLine> tempoTrends) {
+    this.sessionCount = sessionCount;
+    this.minutesByCategory = Collections.unmodifiableMap(minutesByCategory);
+    this.minutesByWeek = Collections.unmodifiableSortedMap(minutesByWeek);
+    this.minutesByMonth = Collections.unmodifiableSortedMap(minutesByMonth);
+    this.streaks = streaks;
+    this.sessionLengths = sessionLengths;
+    this.tempoTrends = Collections.unmodifiableMap(tempoTrends);
+  }
+
+
+
+  /**
+   * Returns the number of sessions in the report.
+   *
+   * @return session count
+   */
+  public long getSessionCount() {
+    return sessionCount;
+  }
+
+
+
+  /**
+   * Returns total minutes per exercise category, sorted by category.
+   *
+   * @return minutes by category
+   */
+  public Map<String, Long> getMinutesByCategory() {
+    return minutesByCategory;
+  }
+
+
+
+  /**
+   * Returns total minutes per week, keyed by the Monday that starts the week.
+   *
+   * @return minutes by week
+   */
+  public SortedMap<LocalDate, Long> getMinutesByWeek() {
+    return minutesByWeek;
+  }
+
+
+
+  /**
+   * Returns total minutes per calendar month.
+   *
+   * @return minutes by month
+   */
+  public SortedMap<YearMonth, Long> getMinutesByMonth() {
+    return minutesByMonth;
+  }
+
+
+
+  /**
+   * Returns the practice streaks.
+   *
+   * @return streaks
+   */
+  public Streaks getStreaks() {
+    return streaks;
+  }
+
+
+
+  /**
+   * Returns percentiles of total minutes per session.
+   *
+   * @return session length percentiles
+   */
+  public Percentiles getSessionLengths() {
+    return sessionLengths;
+  }
+
+
+
+  /**
+   * Returns the tempo trend line of each exercise that recorded a tempo, sorted by name.
+   *
+   * @return tempo trends by exercise name
+   */
+  public Map<String, TrendLine> getTempoTrends() {
+    return tempoTrends;
+  }
+
+
+
+  /**
+   * Runs of consecutive days with at least one session.
+   */
+  public static final class Streaks {
+
+    private final int longest;
+    private final LocalDate longestStart;
+    private final int current;
+    private final int practiceDays;
+
+    Streaks(int longest, LocalDate longestStart, int current, int practiceDays) {
+      this.longest = longest;
+      this.longestStart = longestStart;
+      this.current = current;
+      this.practiceDays = practiceDays;
+    }
+
+    /**
+     * Returns the longest run of consecutive practice days.
+     *
+     * @return longest streak in days
+     */
+    public int getLongest() {
+      return longest;
+    }
+
+    /**
+     * Returns the first day of the longest streak.
+     *
+     * @return the start date, or null if there were no sessions
+     */
+    public LocalDate getLongestStart() {
+      return longestStart;
+    }
+
+    /**
+     * Returns the length of the streak that ends on the latest practice day.
+     *
+     * @return current streak in days
+     */
+    public int getCurrent() {
+      return current;
+    }
+
+    /**
+     * Returns the number of distinct days with a session.
+     *
+     * @return practice day count
+     */
+    public int getPracticeDays() {
+      return practiceDays;
+    }
+  }
+
+
+
+  /**
+   * Exact percentiles of a set of values, using the nearest rank method.
+   */
+  public static final class Percentiles {
+
+    private final int[] sorted;
+
+    Percentiles(int[] sorted) {
+      this.sorted = sorted;
+    }
+
+    /**
+     * Returns the value at a percentile.
+     *
+     * @param percent the percentile, from 0 to 100
+     * @return the value, or 0 if there are no values
+     * @throws IllegalArgumentException if percent is out of range
+     */
+    public int get(double percent) {
+      if (percent < 0 || percent > 100) {
+        throw new IllegalArgumentException("percent must be between 0 and 100");
+      }
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int rank = (int) Math.ceil(percent / 100 * sorted.length);
+      return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Returns the median.
+     *
+     * @return the 50th percentile
+     */
+    public int getMedian() {
+      return get(50);
+    }
+
+    /**
+     * Returns how many values the percentiles are taken over.
+     *
+     * @return value count
+     */
+    public int getCount() {
+      return sorted.length;
+    }
+  }
+
+
+
+  /**
+   * Least squares line of tempo over time for one exercise.
+   */
+  public static final class TrendLine {
+
+    private final long samples;
+    private final double slopePerDay;
+    private final double meanTempo;
+
+    TrendLine(long samples, double slopePerDay, double meanTempo) {
+      this.samples = samples;
+      this.slopePerDay = slopePerDay;
+      this.meanTempo = meanTempo;
+    }
+
+    /**
+     * Returns the number of tempo samples.
+     *
+     * @return sample count
+     */
+    public long getSamples() {
+      return samples;
+    }
+
+    /**
+     * Returns the tempo change per day.
+     *
+     * @return slope in BPM per day; 0 if all samples fall on one day
+     */
+    public double getSlopePerDay() {
+      return slopePerDay;
+    }
+
+    /**
+     * Returns the mean recorded tempo.
+     *
+     * @return mean tempo in BPM
+     */
+    public double getMeanTempo() {
+      return meanTempo;
+    }
+  }
+}
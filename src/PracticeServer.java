@@ -0,0 +1,532 @@
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP API for logging practice and reading sessions and plans,
+ * backed by a {@link SessionJournal}.
+ *
+ * Endpoints (request and response bodies are JSON):
+ * - GET /sessions?from=DATE&to=DATE: sessions in a date range, both ends optional
+ * - GET /sessions/DATE: one session
+ * - POST /sessions: {"date": DATE, "entries": [ENTRY, ...]}
+ * - POST /sessions/DATE/entries: one ENTRY
+ * - GET /plan?budget=MINUTES&window=DAYS&today=DATE: a {@link WeeklyPlan}
+ *   for every exercise in the journal, weighted by history when a budget is given
+ *
+ * Sessions use the format {@link JsonStore#save} writes. An ENTRY is
+ * {"exercise": {...}, "minutesPracticed": N, "averageTempoBpm": N, "notes": "..."},
+ * with the exercise in the same form as in a session's exercise table.
+ *
+ * Requests run on a virtual thread each when the JDK has them, and on a
+ * bounded thread pool otherwise. Writes are group committed: request threads
+ * queue their entries and wait, while one committer thread appends everything
+ * queued so far to the journal and syncs it once for the whole batch. A
+ * write is acknowledged only after it is on disk, and many concurrent writers
+ * share each fsync. Reads take no lock: each {@link Session} they serialize
+ * is a consistent snapshot. The server only listens on the loopback address.
+ *
+ * HAS-A: PracticeServer has an HttpServer, a request executor, a SessionJournal
+ * and a queue of pending writes
+ */
+public class PracticeServer implements Closeable {
+
+  public static final int DEFAULT_PORT = 8191;
+  public static final int MAX_BATCH_SIZE = 1024;
+
+  // Largest request body accepted; a session with hundreds of entries fits easily
+  private static final int MAX_BODY_BYTES = 1024 * 1024;
+  // Pending connections the socket holds while every handler is busy
+  private static final int BACKLOG = 4096;
+  private static final int FALLBACK_THREADS =
+      Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+  private static final int DEFAULT_WINDOW_DAYS = 28;
+
+  private final SessionJournal journal;
+  private final JsonStore store = new JsonStore();
+  private final HttpServer server;
+  private final ExecutorService requestExecutor;
+  private final BlockingQueue<PendingWrite> pendingWrites = new LinkedBlockingQueue<>();
+  private final Thread committer;
+  private final AtomicLong committedWrites = new AtomicLong();
+  private final AtomicLong committedBatches = new AtomicLong();
+
+  private volatile boolean running;
+
+
+
+  /**
+   * Creates a server on a loopback port. Call {@link #start} to begin serving.
+   *
+   * @param journal the journal sessions are read from and written to
+   * @param port the port to listen on, or 0 for any free port
+   * @throws IllegalArgumentException if journal is null or port is out of range
+   * @throws IOException if the port cannot be bound
+   */
+  public PracticeServer(SessionJournal journal, int port) throws IOException {
+    if (journal == null) {
+      throw new IllegalArgumentException("journal must not be null");
+    }
+    if (port < 0 || port > 65535) {
+      throw new IllegalArgumentException("port must be between 0 and 65535");
+    }
+    this.journal = journal;
+    this.server = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+    this.requestExecutor = newRequestExecutor();
+    server.setExecutor(requestExecutor);
+    server.createContext("/sessions", this::handleSessions);
+    server.createContext("/plan", this::handlePlan);
+    this.committer = new Thread(this::commitLoop, "practice-server-committer");
+    committer.setDaemon(true);
+  }
+
+
+
+  /**
+   * Runs a server over the journal in a directory until the process is stopped.
+   *
+   * @param args the journal directory and optionally the port
+   * @throws Exception if the journal cannot be opened or the port cannot be bound
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1 || args.length > 2) {
+      System.err.println("usage: PracticeServer <journal-dir> [port]");
+      System.exit(PracticeCli.EXIT_USAGE);
+    }
+    Path directory = Paths.get(args[0]);
+    int port = args.length == 2 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+
+    // The committer syncs after every batch, so the journal never has to on its own
+    SessionJournal journal = new SessionJournal(directory, Integer.MAX_VALUE,
+        SessionJournal.DEFAULT_COMPACT_THRESHOLD);
+    PracticeServer server = new PracticeServer(journal, port);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        server.close();
+        journal.close();
+      } catch (IOException e) {
+        System.err.println("Shutdown failed: " + e.getMessage());
+      }
+    }, "practice-server-shutdown"));
+    server.start();
+    System.err.println("Listening on http://localhost:" + server.getPort() + "/");
+  }
+
+
+
+  /**
+   * Starts accepting requests.
+   */
+  public void start() {
+    running = true;
+    committer.start();
+    server.start();
+  }
+
+
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the bound port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+
+
+  /**
+   * Returns the number of write requests committed so far.
+   *
+   * @return committed write count
+   */
+  public long getCommittedWrites() {
+    return committedWrites.get();
+  }
+
+
+
+  /**
+   * Returns the number of journal syncs the committed writes were grouped into.
+   *
+   * @return committed batch count
+   */
+  public long getCommittedBatches() {
+    return committedBatches.get();
+  }
+
+
+
+  /**
+   * Stops accepting requests, commits every write already queued, and stops
+   * the request threads. The journal is left open for the caller to close.
+   */
+  @Override
+  public void close() {
+    if (!running) {
+      return;
+    }
+    server.stop(1);
+    running = false;
+    try {
+      committer.join(TimeUnit.MINUTES.toMillis(1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    requestExecutor.shutdown();
+  }
+
+
+
+  /**
+   * Returns a virtual-thread-per-task executor on JDKs that have one, and a
+   * bounded pool of platform threads otherwise. The lookup is reflective so
+   * the code still compiles and runs on JDK 17.
+   */
+  static ExecutorService newRequestExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Not present, or still a preview feature on this JDK
+      return Executors.newFixedThreadPool(FALLBACK_THREADS, r -> {
+        Thread t = new Thread(r, "practice-server-request");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }
+
+
+
+  private void handleSessions(HttpExchange exchange) throws IOException {
+    try {
+      String path = exchange.getRequestURI().getPath();
+      String[] parts = path.replaceAll("^/+|/+$", "").split("/+");
+      String method = exchange.getRequestMethod();
+
+      if (parts.length == 1 && method.equals("GET")) {
+        Map<String, String> query = query(exchange);
+        LocalDate from = query.containsKey("from") ? date(query.get("from")) : LocalDate.MIN;
+        LocalDate to = query.containsKey("to") ? date(query.get("to")) : LocalDate.MAX;
+        respond(exchange, 200, sessionsJson(from, to));
+      } else if (parts.length == 1 && method.equals("POST")) {
+        JsonObject body = jsonObject(exchange);
+        JsonElement date = body.get("date");
+        JsonElement entries = body.get("entries");
+        if (date == null || !date.isJsonPrimitive() || entries == null || !entries.isJsonArray()) {
+          throw new ValidationException("a session needs a date and an entries array");
+        }
+        List<SessionEntry> parsed = new ArrayList<>();
+        for (JsonElement e : entries.getAsJsonArray()) {
+          parsed.add(store.entryFromJson(e.toString()));
+        }
+        if (parsed.isEmpty()) {
+          throw new ValidationException("a session needs at least one entry");
+        }
+        LocalDate sessionDate = date(date.getAsString());
+        commit(sessionDate, parsed);
+        respond(exchange, 201, sessionJson(sessionDate));
+      } else if (parts.length == 2 && method.equals("GET")) {
+        String json = sessionJson(date(parts[1]));
+        if (json == null) {
+          respondError(exchange, 404, "no session on " + parts[1]);
+        } else {
+          respond(exchange, 200, json);
+        }
+      } else if (parts.length == 3 && parts[2].equals("entries") && method.equals("POST")) {
+        LocalDate sessionDate = date(parts[1]);
+        SessionEntry entry = store.entryFromJson(body(exchange));
+        commit(sessionDate, List.of(entry));
+        respond(exchange, 201, sessionJson(sessionDate));
+      } else if (parts.length <= 3) {
+        respondError(exchange, 405, method + " is not supported on " + path);
+      } else {
+        respondError(exchange, 404, "no such resource " + path);
+      }
+    } catch (ValidationException | IllegalArgumentException e) {
+      respondError(exchange, 400, e.getMessage());
+    } catch (IllegalStateException e) {
+      respondError(exchange, 503, e.getMessage());
+    } catch (IOException e) {
+      respondError(exchange, 500, e.getMessage());
+    } finally {
+      exchange.close();
+    }
+  }
+
+
+
+  private void handlePlan(HttpExchange exchange) throws IOException {
+    try {
+      if (!exchange.getRequestMethod().equals("GET")) {
+        respondError(exchange, 405, "only GET is supported on /plan");
+        return;
+      }
+      Map<String, String> query = query(exchange);
+      LocalDate today = query.containsKey("today") ? date(query.get("today")) : LocalDate.now();
+      int window = query.containsKey("window")
+          ? positive("window", query.get("window")) : DEFAULT_WINDOW_DAYS;
+
+      List<Session> history = journal.getSessions();
+      // Every distinct exercise in the journal, in the order first used
+      Map<String, Exercise> exercises = new LinkedHashMap<>();
+      for (Session s : history) {
+        for (int i = 0; i < s.getEntryCount(); i++) {
+          Exercise e = s.getEntryExercise(i);
+          exercises.putIfAbsent(ExerciseCatalog.keyOf(e), e);
+        }
+      }
+      List<Exercise> library = new ArrayList<>(exercises.values());
+
+      PlanGenerator generator = new PlanGenerator();
+      WeeklyPlan plan = query.containsKey("budget")
+          ? generator.generateFromHistory(library, history.iterator(), today, window,
+              PlanConstraints.everyDay(positive("budget", query.get("budget"))))
+          : generator.generate(library);
+      StringWriter out = new StringWriter();
+      new PlanStore().writeJson(plan, out);
+      respond(exchange, 200, out.toString());
+    } catch (IllegalArgumentException e) {
+      respondError(exchange, 400, e.getMessage());
+    } finally {
+      exchange.close();
+    }
+  }
+
+
+
+  /**
+   * Queues entries for the committer and waits until they are on disk.
+   */
+  private void commit(LocalDate date, List<SessionEntry> entries) throws IOException {
+    if (!running) {
+      throw new IllegalStateException("server is shutting down");
+    }
+    PendingWrite write = new PendingWrite(date, entries);
+    pendingWrites.add(write);
+    // The committer may have drained the queue and stopped since the check above
+    if (!running && pendingWrites.remove(write)) {
+      throw new IllegalStateException("server is shutting down");
+    }
+    try {
+      write.done.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the journal", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Journal write failed: " + e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+
+
+  /**
+   * Takes every queued write, up to {@link #MAX_BATCH_SIZE}, appends them all,
+   * then syncs the journal once and releases their waiting requests.
+   * Each write is appended as one unit, so a write that fails leaves nothing
+   * behind and fails alone; the rest of the batch still commits.
+   * Runs until the server is closed and the queue is empty.
+   */
+  private void commitLoop() {
+    List<PendingWrite> batch = new ArrayList<>();
+    List<PendingWrite> appended = new ArrayList<>();
+    while (running || !pendingWrites.isEmpty()) {
+      PendingWrite first;
+      try {
+        first = pendingWrites.poll(100, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        continue;
+      }
+      if (first == null) {
+        continue;
+      }
+      batch.add(first);
+      pendingWrites.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+      for (PendingWrite w : batch) {
+        try {
+          journal.addEntries(w.date, w.entries);
+          appended.add(w);
+        } catch (IOException | RuntimeException e) {
+          w.done.completeExceptionally(e);
+        }
+      }
+
+      IOException failure = null;
+      if (!appended.isEmpty()) {
+        try {
+          journal.sync();
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+      for (PendingWrite w : appended) {
+        if (failure == null) {
+          w.done.complete(null);
+        } else {
+          w.done.completeExceptionally(failure);
+        }
+      }
+      if (failure == null && !appended.isEmpty()) {
+        committedWrites.addAndGet(appended.size());
+        committedBatches.incrementAndGet();
+      }
+      batch.clear();
+      appended.clear();
+    }
+  }
+
+
+
+  private String sessionsJson(LocalDate from, LocalDate to) throws IOException {
+    StringWriter out = new StringWriter();
+    store.writeAll(journal.getSessions(from, to).iterator(), out);
+    return out.toString();
+  }
+
+
+
+  // Returns null if the journal has no session on the date
+  private String sessionJson(LocalDate date) {
+    Session s = journal.getSession(date);
+    return s == null ? null : store.sessionToJson(s);
+  }
+
+
+
+  private static LocalDate date(String text) {
+    try {
+      return LocalDate.parse(text);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("not a date: " + text);
+    }
+  }
+
+
+
+  private static int positive(String name, String text) {
+    try {
+      int n = Integer.parseInt(text);
+      if (n > 0) {
+        return n;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    throw new IllegalArgumentException(name + " must be a positive whole number");
+  }
+
+
+
+  private static Map<String, String> query(HttpExchange exchange) {
+    Map<String, String> params = new HashMap<>();
+    String raw = exchange.getRequestURI().getRawQuery();
+    if (raw == null || raw.isEmpty()) {
+      return params;
+    }
+    for (String pair : raw.split("&")) {
+      int eq = pair.indexOf('=');
+      String key = eq < 0 ? pair : pair.substring(0, eq);
+      String value = eq < 0 ? "" : pair.substring(eq + 1);
+      params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return params;
+  }
+
+
+
+  private static String body(HttpExchange exchange) throws IOException, ValidationException {
+    try (InputStream in = exchange.getRequestBody()) {
+      byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+      if (bytes.length > MAX_BODY_BYTES) {
+        throw new ValidationException("request body is larger than " + MAX_BODY_BYTES + " bytes");
+      }
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+
+
+  private static JsonObject jsonObject(HttpExchange exchange) throws IOException, ValidationException {
+    try {
+      JsonElement json = JsonParser.parseString(body(exchange));
+      if (!json.isJsonObject()) {
+        throw new ValidationException("request body must be a JSON object");
+      }
+      return json.getAsJsonObject();
+    } catch (JsonParseException e) {
+      throw new ValidationException("Invalid JSON format", e);
+    }
+  }
+
+
+
+  private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+
+
+  private static void respondError(HttpExchange exchange, int status, String message)
+      throws IOException {
+    JsonObject error = new JsonObject();
+    error.addProperty("error", message);
+    respond(exchange, status, error.toString());
+  }
+
+
+
+  /**
+   * Entries from one request, waiting for the committer.
+   */
+  private static final class PendingWrite {
+    final LocalDate date;
+    final List<SessionEntry> entries;
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    PendingWrite(LocalDate date, List<SessionEntry> entries) {
+      this.date = date;
+      this.entries = entries;
+    }
+  }
+}
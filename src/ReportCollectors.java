@@ -0,0 +1,327 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Stream collectors that aggregate practice history.
+ *
+ * Each method returns an ordinary {@link Collector} over {@link Session}s,
+ * so the aggregates can be used alone, combined with the standard
+ * collectors, or all at once through {@link #report()}. Every collector
+ * works the same on sequential and parallel streams: partial results from
+ * separate chunks merge exactly, and none depends on encounter order. Any
+ * source with a good {@link java.util.Spliterator} splits well, such as
+ * {@code SessionRepository.getAll().stream()} or {@link JsonStore#stream}.
+ *
+ * Per-session work uses the session's running {@link SessionStats} and
+ * entry columns, so no SessionEntry objects are created.
+ */
+public final class ReportCollectors {
+
+  // Tempo regression days are measured from here to keep the sums small
+  private static final long TREND_ORIGIN_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+
+  private ReportCollectors() {
+  }
+
+
+
+  /**
+   * Collects every aggregate into one {@link PracticeReport} in a single pass.
+   *
+   * @return the report collector
+   */
+  public static Collector<Session, ?, PracticeReport> report() {
+    List<Collector<Session, ?, ?>> parts = List.of(
+        Collectors.counting(),
+        minutesByCategory(),
+        minutesByWeek(),
+        minutesByMonth(),
+        streaks(),
+        sessionLengthPercentiles(),
+        tempoTrends());
+    return Collectors.collectingAndThen(all(parts), r -> build(r));
+  }
+
+
+
+  /**
+   * Sums minutes per exercise category.
+   *
+   * @return a collector of minutes by category, sorted by category
+   */
+  public static Collector<Session, ?, Map<String, Long>> minutesByCategory() {
+    return Collector.<Session, Map<String, Long>, Map<String, Long>>of(
+        HashMap::new,
+        (totals, s) -> s.getStats().getMinutesByCategory()
+            .forEach((category, minutes) -> totals.merge(category, (long) minutes, Long::sum)),
+        ReportCollectors::mergeSums,
+        TreeMap::new,
+        Collector.Characteristics.UNORDERED);
+  }
+
+
+
+  /**
+   * Sums minutes per Monday to Sunday week.
+   *
+   * @return a collector of minutes keyed by each week's Monday
+   */
+  public static Collector<Session, ?, SortedMap<LocalDate, Long>> minutesByWeek() {
+    return sumBy(s -> s.getDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+  }
+
+
+
+  /**
+   * Sums minutes per calendar month.
+   *
+   * @return a collector of minutes by month
+   */
+  public static Collector<Session, ?, SortedMap<YearMonth, Long>> minutesByMonth() {
+    return sumBy(s -> YearMonth.from(s.getDate()));
+  }
+
+
+
+  /**
+   * Finds runs of consecutive practice days. Several sessions on one day count once.
+   *
+   * @return a collector of streaks
+   */
+  public static Collector<Session, ?, PracticeReport.Streaks> streaks() {
+    return Collector.of(
+        LongList::new,
+        (days, s) -> days.add(s.getDate().toEpochDay()),
+        LongList::addAll,
+        ReportCollectors::toStreaks,
+        Collector.Characteristics.UNORDERED);
+  }
+
+
+
+  /**
+   * Collects exact percentiles of total minutes per session.
+   *
+   * @return a collector of session length percentiles
+   */
+  public static Collector<Session, ?, PracticeReport.Percentiles> sessionLengthPercentiles() {
+    return Collector.of(
+        LongList::new,
+        (lengths, s) -> lengths.add(s.getTotalMinutes()),
+        LongList::addAll,
+        lengths -> {
+          long[] sorted = lengths.toSortedArray();
+          int[] values = new int[sorted.length];
+          for (int i = 0; i < sorted.length; i++) {
+            values[i] = (int) sorted[i];
+          }
+          return new PracticeReport.Percentiles(values);
+        },
+        Collector.Characteristics.UNORDERED);
+  }
+
+
+
+  /**
+   * Fits a least squares tempo line over time for each exercise that recorded a tempo.
+   *
+   * @return a collector of trend lines by exercise name, sorted by name
+   */
+  public static Collector<Session, ?, Map<String, PracticeReport.TrendLine>> tempoTrends() {
+    // Per exercise: n, sum x, sum y, sum x^2, sum xy
+    return Collector.<Session, Map<String, double[]>, Map<String, PracticeReport.TrendLine>>of(
+        HashMap::new,
+        (sums, s) -> {
+          double x = s.getDate().toEpochDay() - TREND_ORIGIN_DAY;
+          for (int e = 0; e < s.getEntryCount(); e++) {
+            int tempo = s.getEntryTempo(e);
+            if (tempo == Session.NO_TEMPO) {
+              continue;
+            }
+            double[] t = sums.computeIfAbsent(s.getEntryExercise(e).getName(), k -> new double[5]);
+            t[0]++;
+            t[1] += x;
+            t[2] += tempo;
+            t[3] += x * x;
+            t[4] += x * tempo;
+          }
+        },
+        (a, b) -> {
+          b.forEach((name, t) -> a.merge(name, t, (x, y) -> {
+            for (int i = 0; i < x.length; i++) {
+              x[i] += y[i];
+            }
+            return x;
+          }));
+          return a;
+        },
+        sums -> {
+          Map<String, PracticeReport.TrendLine> lines = new TreeMap<>();
+          sums.forEach((name, t) -> {
+            double denominator = t[0] * t[3] - t[1] * t[1];
+            double slope = denominator < 1e-9 ? 0.0 : (t[0] * t[4] - t[1] * t[2]) / denominator;
+            lines.put(name, new PracticeReport.TrendLine((long) t[0], slope, t[2] / t[0]));
+          });
+          return lines;
+        },
+        Collector.Characteristics.UNORDERED);
+  }
+
+
+
+  private static <K> Collector<Session, ?, SortedMap<K, Long>> sumBy(
+      Function<Session, K> key) {
+    return Collector.<Session, Map<K, Long>, SortedMap<K, Long>>of(
+        HashMap::new,
+        (totals, s) -> totals.merge(key.apply(s), (long) s.getTotalMinutes(), Long::sum),
+        ReportCollectors::mergeSums,
+        TreeMap::new,
+        Collector.Characteristics.UNORDERED);
+  }
+
+
+
+  private static <K> Map<K, Long> mergeSums(Map<K, Long> a, Map<K, Long> b) {
+    b.forEach((k, v) -> a.merge(k, v, Long::sum));
+    return a;
+  }
+
+
+
+  private static PracticeReport.Streaks toStreaks(LongList days) {
+    long[] sorted = days.toSortedArray();
+    int longest = 0;
+    long longestStart = 0;
+    int run = 0;
+    long runStart = 0;
+    int distinct = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i > 0 && sorted[i] == sorted[i - 1]) {
+        continue;
+      }
+      distinct++;
+      if (run > 0 && sorted[i] == sorted[i - 1] + 1) {
+        run++;
+      } else {
+        run = 1;
+        runStart = sorted[i];
+      }
+      if (run > longest) {
+        longest = run;
+        longestStart = runStart;
+      }
+    }
+    return new PracticeReport.Streaks(longest,
+        longest == 0 ? null : LocalDate.ofEpochDay(longestStart), run, distinct);
+  }
+
+
+
+  @SuppressWarnings("unchecked")
+  private static PracticeReport build(List<Object> r) {
+    return new PracticeReport(
+        (Long) r.get(0),
+        (Map<String, Long>) r.get(1),
+        (SortedMap<LocalDate, Long>) r.get(2),
+        (SortedMap<YearMonth, Long>) r.get(3),
+        (PracticeReport.Streaks) r.get(4),
+        (PracticeReport.Percentiles) r.get(5),
+        (Map<String, PracticeReport.TrendLine>) r.get(6));
+  }
+
+
+
+  /**
+   * Runs several collectors side by side over one stream, returning their
+   * results in order.
+   */
+  @SuppressWarnings("unchecked")
+  private static Collector<Session, ?, List<Object>> all(List<Collector<Session, ?, ?>> parts) {
+    int n = parts.size();
+    List<Supplier<Object>> suppliers = new ArrayList<>(n);
+    List<BiConsumer<Object, Session>> accumulators = new ArrayList<>(n);
+    List<BinaryOperator<Object>> combiners = new ArrayList<>(n);
+    List<Function<Object, Object>> finishers = new ArrayList<>(n);
+    for (Collector<Session, ?, ?> part : parts) {
+      Collector<Session, Object, Object> c = (Collector<Session, Object, Object>) part;
+      suppliers.add(c.supplier());
+      accumulators.add(c.accumulator());
+      combiners.add(c.combiner());
+      finishers.add(c.finisher());
+    }
+    return Collector.<Session, Object[], List<Object>>of(
+        () -> {
+          Object[] state = new Object[n];
+          for (int i = 0; i < n; i++) {
+            state[i] = suppliers.get(i).get();
+          }
+          return state;
+        },
+        (state, s) -> {
+          for (int i = 0; i < n; i++) {
+            accumulators.get(i).accept(state[i], s);
+          }
+        },
+        (a, b) -> {
+          for (int i = 0; i < n; i++) {
+            a[i] = combiners.get(i).apply(a[i], b[i]);
+          }
+          return a;
+        },
+        state -> {
+          Object[] results = new Object[n];
+          for (int i = 0; i < n; i++) {
+            results[i] = finishers.get(i).apply(state[i]);
+          }
+          return Arrays.asList(results);
+        },
+        Collector.Characteristics.UNORDERED);
+  }
+
+
+
+  /**
+   * Growable array of longs, cheaper than a List of Long for day and length values.
+   */
+  private static final class LongList {
+    long[] values = new long[64];
+    int size;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    LongList addAll(LongList other) {
+      if (size + other.size > values.length) {
+        values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+      }
+      System.arraycopy(other.values, 0, values, size, other.size);
+      size += other.size;
+      return this;
+    }
+
+    long[] toSortedArray() {
+      long[] sorted = Arrays.copyOf(values, size);
+      Arrays.sort(sorted);
+      return sorted;
+    }
+  }
+}
@@ -1,21 +1,60 @@
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Represents a single practice session on a specific date.
  * 
  * A session contains one or more {@link SessionEntry} objects, each
- * describing time spent on a particular exercise.
+ * describing time spent on a particular exercise. Running totals are kept
+ * in a {@link SessionStats} that is updated as entries are added.
+ *
+ * Entries are not stored as objects. Their fields are kept in parallel
+ * primitive columns: minutes and tempo as ints (0 meaning no tempo), the
+ * exercise as an index into a small per-session table of distinct
+ * exercises, and notes in a side array that is only allocated once an entry
+ * has notes. {@link #getEntries()} builds SessionEntry objects on demand, so
+ * a long history costs a few ints per entry instead of an object graph.
+ *
+ * Sessions are thread safe without locks. All state lives in an immutable
+ * {@link Snapshot}: the columns are split into chunks of
+ * {@value #CHUNK_SIZE} entries, full chunks are shared by every later
+ * snapshot, and adding an entry copies only the last, partly filled chunk
+ * and the stats before swapping in the new snapshot with a compare-and-set.
+ * Writers that lose the race retry against the newer snapshot. Readers never
+ * block, and {@link #getEntries()} and {@link #getStats()} each return a
+ * consistent view as of one moment.
+ *
+ * Sessions also carry a save mark for {@link SessionDeltaStore}. Entries are
+ * only ever appended, so everything from {@link #getFirstUnsavedIndex()} on
+ * was added since that store last saved or loaded the session, and it writes
+ * just those. Other stores and loaders leave the mark alone, so it says
+ * nothing about saves made through them.
  * 
  * IS-A: Session is a domain model object
- * HAS-A: Session has a date and a list of SessionEntry items
+ * HAS-A: Session has a date and an atomically replaced snapshot of its entry columns and SessionStats
  */
 public class Session {
 
+  /**
+   * Tempo column value for an entry that did not record a tempo.
+   */
+  static final int NO_TEMPO = 0;
+
+  /**
+   * Number of entries per column chunk. Chunks are copied on every append
+   * until they fill, so this bounds the cost of an append.
+   */
+  static final int CHUNK_SIZE = 32;
+
   private final LocalDate date;
-  private final List<SessionEntry> entries = new ArrayList<>();
+  private final AtomicReference<Snapshot> state = new AtomicReference<>(Snapshot.EMPTY);
+  // Entries below this index were written by SessionDeltaStore; only ever grows
+  private final AtomicInteger savedCount = new AtomicInteger();
 
 
 
@@ -55,7 +94,7 @@ public class Session {
 
 
   /**
-   * Adds a new entry to this session.
+   * Adds a new entry to this session. Safe to call from several threads at once.
    *
    * @param entry the practice entry to add
    * @throws IllegalArgumentException if entry is null
@@ -64,33 +103,69 @@ public class Session {
     if (entry == null) {
       throw new IllegalArgumentException("entry must not be null");
     }
-    entries.add(entry);
+    Integer tempo = entry.getAverageTempoBpm();
+    append(entry.getExercise(), entry.getMinutesPracticed(),
+        tempo == null ? NO_TEMPO : tempo, entry.getNotes());
+  }
+
+
+
+  /**
+   * Adds an entry from its fields without creating a {@link SessionEntry}.
+   * Used by the loaders, which already hold the fields separately.
+   *
+   * @param exercise the exercise performed
+   * @param minutesPracticed minutes spent, must be > 0
+   * @param tempoBpm average tempo, or {@link #NO_TEMPO}
+   * @param entryNotes notes, or null
+   * @throws IllegalArgumentException if the values would not make a valid SessionEntry
+   */
+  void addEntry(Exercise exercise, int minutesPracticed, int tempoBpm, String entryNotes) {
+    if (exercise == null) {
+      throw new IllegalArgumentException("exercise must not be null");
+    }
+    if (minutesPracticed <= 0) {
+      throw new IllegalArgumentException("minutesPracticed must be > 0");
+    }
+    if (tempoBpm < 0) {
+      throw new IllegalArgumentException("averageTempoBpm must be > 0 when provided");
+    }
+    append(exercise, minutesPracticed, tempoBpm, entryNotes);
   }
 
 
 
   /**
-   * Returns an unmodifiable list of all session entries.
+   * Returns an unmodifiable list of the session's entries as of this call.
+   * Entries added later do not appear in it; its elements are created when
+   * they are read.
    *
    * @return list of entries
    */
   public List<SessionEntry> getEntries() {
-    return Collections.unmodifiableList(entries);
+    return new EntryView(state.get());
   }
 
 
 
   /**
-   * Calculates the total minutes practiced across all entries.
+   * Returns the total minutes practiced across all entries.
    *
    * @return total minutes practiced
    */
   public int getTotalMinutes() {
-    int total = 0;
-    for (SessionEntry entry : entries) {
-      total += entry.getMinutesPracticed();
-    }
-    return total;
+    return state.get().stats.getTotalMinutes();
+  }
+
+
+
+  /**
+   * Returns the totals for this session as of this call.
+   *
+   * @return the session stats
+   */
+  public SessionStats getStats() {
+    return state.get().stats;
   }
 
 
@@ -101,7 +176,284 @@ public class Session {
    * @return whether the session has no entries
    */
   public boolean isEmpty() {
-    return entries.isEmpty();
+    return state.get().size == 0;
+  }
+
+
+
+  /**
+   * Returns a counter that changes every time the session is modified.
+   * Two equal readings mean nothing changed in between.
+   *
+   * @return the modification count
+   */
+  public int getModificationCount() {
+    return state.get().modCount;
+  }
+
+
+
+  /**
+   * Returns the index of the first entry added since {@link SessionDeltaStore}
+   * last saved or loaded the session, which equals the entry count when it
+   * has nothing to write. Saves through other stores do not move it, so a
+   * session that never went through that store reports every entry unsaved.
+   *
+   * @return index of the first unsaved entry
+   */
+  public int getFirstUnsavedIndex() {
+    return savedCount.get();
+  }
+
+
+
+  /**
+   * Returns true if entries were added since {@link SessionDeltaStore} last
+   * saved or loaded the session. See {@link #getFirstUnsavedIndex()}.
+   *
+   * @return whether the session has unsaved entries
+   */
+  public boolean isDirty() {
+    return savedCount.get() < state.get().size;
+  }
+
+
+
+  /**
+   * Records that {@link SessionDeltaStore} wrote the first entryCount entries.
+   * Entries added meanwhile stay dirty. Marks never move backwards.
+   *
+   * @param entryCount number of leading entries that were written
+   * @throws IllegalArgumentException if entryCount is negative or larger than the entry count
+   */
+  void markSaved(int entryCount) {
+    if (entryCount < 0 || entryCount > state.get().size) {
+      throw new IllegalArgumentException("entryCount out of range: " + entryCount);
+    }
+    savedCount.accumulateAndGet(entryCount, Math::max);
   }
-}
 
+
+
+  /**
+   * Returns the number of entries. Entries are only ever added, so every
+   * index below this count stays valid.
+   *
+   * @return entry count
+   */
+  int getEntryCount() {
+    return state.get().size;
+  }
+
+
+
+  /**
+   * Returns the exercise of one entry without creating a SessionEntry.
+   *
+   * @param index the entry position
+   * @return the exercise
+   */
+  Exercise getEntryExercise(int index) {
+    return state.get().exercise(index);
+  }
+
+
+
+  /**
+   * Returns the minutes of one entry without creating a SessionEntry.
+   *
+   * @param index the entry position
+   * @return minutes practiced
+   */
+  int getEntryMinutes(int index) {
+    return state.get().minutes(index);
+  }
+
+
+
+  /**
+   * Returns the tempo of one entry without boxing it.
+   *
+   * @param index the entry position
+   * @return the tempo in BPM, or {@link #NO_TEMPO}
+   */
+  int getEntryTempo(int index) {
+    return state.get().tempo(index);
+  }
+
+
+
+  /**
+   * Returns the notes of one entry.
+   *
+   * @param index the entry position
+   * @return the notes, or null
+   */
+  String getEntryNotes(int index) {
+    return state.get().notes(index);
+  }
+
+
+
+  private void append(Exercise exercise, int entryMinutes, int tempo, String entryNotes) {
+    Snapshot current;
+    Snapshot next;
+    do {
+      current = state.get();
+      next = current.plus(exercise, entryMinutes, tempo, entryNotes);
+    } while (!state.compareAndSet(current, next));
+  }
+
+
+
+  /**
+   * Immutable state of a session: its entry columns, exercise table and stats.
+   * Nothing reachable from a snapshot is written after it is published.
+   */
+  private static final class Snapshot {
+
+    static final Snapshot EMPTY =
+        new Snapshot(new Chunk[0], Chunk.EMPTY, 0, 0, new Exercise[0], SessionStats.EMPTY);
+
+    // Full chunks, shared with every later snapshot
+    final Chunk[] full;
+    // The remaining size % CHUNK_SIZE entries
+    final Chunk tail;
+    final int size;
+    // Counts every change; equal to size while entries can only be appended
+    final int modCount;
+    // Distinct exercises in this session; exercise ids index into it
+    final Exercise[] exercises;
+    final SessionStats stats;
+
+    Snapshot(Chunk[] full, Chunk tail, int size, int modCount, Exercise[] exercises,
+             SessionStats stats) {
+      this.full = full;
+      this.tail = tail;
+      this.size = size;
+      this.modCount = modCount;
+      this.exercises = exercises;
+      this.stats = stats;
+    }
+
+    Snapshot plus(Exercise exercise, int entryMinutes, int tempo, String entryNotes) {
+      // Sessions hold only a handful of distinct exercises, so a scan is
+      // cheaper than a map
+      Exercise[] table = exercises;
+      int id = 0;
+      while (id < table.length && table[id] != exercise) {
+        id++;
+      }
+      if (id == table.length) {
+        table = Arrays.copyOf(table, id + 1);
+        table[id] = exercise;
+      }
+
+      Chunk grown = tail.plus(id, entryMinutes, tempo, entryNotes);
+      Chunk[] fullChunks = full;
+      if (grown.size() == CHUNK_SIZE) {
+        fullChunks = Arrays.copyOf(full, full.length + 1);
+        fullChunks[full.length] = grown;
+        grown = Chunk.EMPTY;
+      }
+      return new Snapshot(fullChunks, grown, size + 1, modCount + 1, table,
+          stats.plus(exercise, entryMinutes, tempo));
+    }
+
+    Exercise exercise(int index) {
+      return exercises[chunk(index).exerciseIds[index % CHUNK_SIZE]];
+    }
+
+    int minutes(int index) {
+      return chunk(index).minutes[index % CHUNK_SIZE];
+    }
+
+    int tempo(int index) {
+      return chunk(index).tempos[index % CHUNK_SIZE];
+    }
+
+    String notes(int index) {
+      String[] notes = chunk(index).notes;
+      return notes == null ? null : notes[index % CHUNK_SIZE];
+    }
+
+    private Chunk chunk(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+      }
+      int c = index / CHUNK_SIZE;
+      return c < full.length ? full[c] : tail;
+    }
+  }
+
+
+
+  /**
+   * Up to {@link #CHUNK_SIZE} entries as exact-length columns.
+   */
+  private static final class Chunk {
+
+    static final Chunk EMPTY = new Chunk(new int[0], new int[0], new int[0], null);
+
+    final int[] exerciseIds;
+    final int[] minutes;
+    final int[] tempos;
+    // Null until an entry in the chunk has notes; most entries have none
+    final String[] notes;
+
+    Chunk(int[] exerciseIds, int[] minutes, int[] tempos, String[] notes) {
+      this.exerciseIds = exerciseIds;
+      this.minutes = minutes;
+      this.tempos = tempos;
+      this.notes = notes;
+    }
+
+    int size() {
+      return minutes.length;
+    }
+
+    Chunk plus(int exerciseId, int entryMinutes, int tempo, String entryNotes) {
+      int n = minutes.length;
+      int[] ids = Arrays.copyOf(exerciseIds, n + 1);
+      int[] mins = Arrays.copyOf(minutes, n + 1);
+      int[] temps = Arrays.copyOf(tempos, n + 1);
+      String[] text = notes == null ? null : Arrays.copyOf(notes, n + 1);
+      ids[n] = exerciseId;
+      mins[n] = entryMinutes;
+      temps[n] = tempo;
+      if (entryNotes != null) {
+        if (text == null) {
+          text = new String[n + 1];
+        }
+        text[n] = entryNotes;
+      }
+      return new Chunk(ids, mins, temps, text);
+    }
+  }
+
+
+
+  /**
+   * Read-only list over the columns of one snapshot.
+   */
+  private static final class EntryView extends AbstractList<SessionEntry> implements RandomAccess {
+
+    private final Snapshot snapshot;
+
+    EntryView(Snapshot snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    @Override
+    public SessionEntry get(int index) {
+      int tempo = snapshot.tempo(index);
+      return new SessionEntry(snapshot.exercise(index), snapshot.minutes(index),
+          tempo == NO_TEMPO ? null : tempo, snapshot.notes(index));
+    }
+
+    @Override
+    public int size() {
+      return snapshot.size;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+import java.awt.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders a {@link Session} in the session list as "date (N min)".
+ *
+ * JList only calls the renderer for rows in the viewport, so labels are built
+ * lazily for the rows being painted. Recently built labels are kept in a
+ * small LRU cache so scrolling back and forth does not rebuild them. A cached
+ * label is rebuilt when the session's entry count has changed since.
+ *
+ * IS-A: SessionCellRenderer is a Swing list cell renderer
+ * HAS-A: SessionCellRenderer has a bounded cache of formatted labels
+ */
+public class SessionCellRenderer extends DefaultListCellRenderer {
+
+  private static final int CACHE_SIZE = 512;
+
+  // Label cache in least recently used order, evicting past CACHE_SIZE
+  private final Map<Session, CachedLabel> labels =
+      new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Session, CachedLabel> eldest) {
+          return size() > CACHE_SIZE;
+        }
+      };
+
+
+
+  /**
+   * Returns the component used to paint one row.
+   *
+   * @param list the list being painted
+   * @param value the session in the row
+   * @param index the row index
+   * @param isSelected whether the row is selected
+   * @param cellHasFocus whether the row has focus
+   * @return the configured label component
+   */
+  @Override
+  public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                boolean isSelected, boolean cellHasFocus) {
+    Object text = value instanceof Session ? labelFor((Session) value) : value;
+    return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+  }
+
+
+
+  /**
+   * Returns the cached label for a session, building it if it is missing or stale.
+   *
+   * @param session the session to label
+   * @return the formatted label
+   */
+  String labelFor(Session session) {
+    int entryCount = session.getStats().getEntryCount();
+    CachedLabel cached = labels.get(session);
+    if (cached == null || cached.entryCount != entryCount) {
+      cached = new CachedLabel(formatSessionLabel(session), entryCount);
+      labels.put(session, cached);
+    }
+    return cached.text;
+  }
+
+
+
+  /**
+   * Formats a practice session for display in the session list.
+   *
+   * Creates a concise, human-readable label containing the session date
+   * and total practice time in minutes.
+   *
+   * @param s the session to format
+   * @return a formatted session label suitable for list display
+   */
+  static String formatSessionLabel(Session s) {
+    return s.getDate() + " (" + s.getTotalMinutes() + " min)";
+  }
+
+
+
+  private static final class CachedLabel {
+    final String text;
+    final int entryCount;
+
+    CachedLabel(String text, int entryCount) {
+      this.text = text;
+      this.entryCount = entryCount;
+    }
+  }
+}
@@ -0,0 +1,353 @@
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Saves sessions incrementally: a save appends only the entries added since
+ * the last save, instead of rewriting the whole session file.
+ *
+ * Each session file written through {@link JsonStore#save} (the base) may have
+ * a delta file next to it, named after the base plus {@value #DELTA_SUFFIX}.
+ * The delta is JSON Lines: a header naming the base it extends, then one entry
+ * per line in the format of {@link JsonStore#entryToJson}. A save appends the
+ * session's unsaved entries (see {@link Session#getFirstUnsavedIndex()}) and
+ * forces them to disk, so its cost depends on the change, not the session.
+ *
+ * Once the delta holds as many entries as the base, the next save merges:
+ * the whole session is written as a new base and the delta is deleted. The
+ * base at least doubles between merges, so the total merge cost stays
+ * proportional to the entries saved. {@link #merge} folds a delta in on demand.
+ *
+ * The header records the entry count and modification time of the base. A
+ * crash between writing a new base and deleting the old delta leaves a
+ * header that no longer matches, and that delta is discarded on load. A line
+ * torn by a crash at the end of the delta is dropped and truncated away. An
+ * append that fails without a crash is truncated away at once, so the next
+ * append never lands behind a partial line.
+ *
+ * A session is only extended in place when it was loaded from, or last saved
+ * to, the same file through this store, and no other session has been saved
+ * to that file since. Anything else is a full save.
+ *
+ * HAS-A: SessionDeltaStore has a JsonStore, the state of each known file, and
+ *     the file each session was last saved to
+ */
+public class SessionDeltaStore {
+
+  public static final String DELTA_SUFFIX = ".delta";
+
+  // Deltas smaller than this are never merged, however small the base
+  static final int MIN_MERGE_ENTRIES = 16;
+
+  /**
+   * What is on disk for one base file, as last written or loaded by this store.
+   */
+  private static class FileState {
+    // The session the file holds; weak so forgotten sessions do not pin memory
+    final WeakReference<Session> owner;
+    final int baseEntries;
+    final long baseModified;
+    int deltaEntries;
+
+    FileState(Session owner, int baseEntries, long baseModified, int deltaEntries) {
+      this.owner = new WeakReference<>(owner);
+      this.baseEntries = baseEntries;
+      this.baseModified = baseModified;
+      this.deltaEntries = deltaEntries;
+    }
+  }
+
+  private final JsonStore store;
+  private final Map<Path, FileState> files = new HashMap<>();
+  // Weak so forgotten sessions do not pin memory
+  private final Map<Session, Path> savedTo = Collections.synchronizedMap(new WeakHashMap<>());
+  private long deltaWrites;
+  private long baseWrites;
+
+
+
+  /**
+   * Creates a delta store that writes bases through the given store.
+   *
+   * @param store the store used for base files and entry encoding
+   * @throws IllegalArgumentException if store is null
+   */
+  public SessionDeltaStore(JsonStore store) {
+    if (store == null) {
+      throw new IllegalArgumentException("store must not be null");
+    }
+    this.store = store;
+  }
+
+
+
+  /**
+   * Returns the delta file that belongs to a base file.
+   *
+   * @param file the base file
+   * @return the delta file next to it
+   */
+  public static Path deltaFile(Path file) {
+    return file.resolveSibling(file.getFileName() + DELTA_SUFFIX);
+  }
+
+
+
+  /**
+   * Saves a session to a file, appending only its unsaved entries when the
+   * file already holds the rest. Does nothing if there is nothing new.
+   *
+   * @param session the session to save
+   * @param file the base file
+   * @throws IOException if an I/O error occurs; unsaved entries stay unsaved
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public synchronized void save(Session session, Path file) throws IOException {
+    if (session == null || file == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    Path key = file.toAbsolutePath().normalize();
+    FileState state = files.get(key);
+    // Extend in place only if the file holds this session and the session
+    // has not been saved anywhere else since
+    if (state == null || state.owner.get() != session || !key.equals(savedTo.get(session))) {
+      writeBase(session, key);
+      return;
+    }
+
+    int from = session.getFirstUnsavedIndex();
+    int to = session.getEntryCount();
+    if (from == to) {
+      return;
+    }
+    if (state.deltaEntries + (to - from) >= Math.max(MIN_MERGE_ENTRIES, state.baseEntries)) {
+      writeBase(session, key);
+      return;
+    }
+    appendDelta(session, key, state, from, to);
+  }
+
+
+
+  /**
+   * Loads a session from a base file and its delta, if any. The session
+   * comes back clean, and later saves of it to the same file are incremental.
+   *
+   * @param file the base file
+   * @return the session with the delta's entries applied
+   * @throws IOException if an I/O error occurs while reading
+   * @throws ValidationException if the base or a complete delta line is invalid
+   */
+  public synchronized Session load(Path file) throws IOException, ValidationException {
+    Path key = file.toAbsolutePath().normalize();
+    Session session = store.load(key);
+    int baseEntries = session.getEntryCount();
+    long baseModified = Files.getLastModifiedTime(key).toMillis();
+    int deltaEntries = replayDelta(session, key, baseEntries, baseModified);
+
+    files.put(key, new FileState(session, baseEntries, baseModified, deltaEntries));
+    session.markSaved(session.getEntryCount());
+    savedTo.put(session, key);
+    return session;
+  }
+
+
+
+  /**
+   * Folds a file's delta into its base, leaving a single base file.
+   *
+   * @param file the base file
+   * @throws IOException if an I/O error occurs
+   * @throws ValidationException if the stored data is invalid
+   */
+  public synchronized void merge(Path file) throws IOException, ValidationException {
+    Path key = file.toAbsolutePath().normalize();
+    if (!Files.exists(deltaFile(key))) {
+      return;
+    }
+    writeBase(load(key), key);
+  }
+
+
+
+  /**
+   * Returns the number of saves that appended to a delta file.
+   *
+   * @return delta write count
+   */
+  public synchronized long getDeltaWriteCount() {
+    return deltaWrites;
+  }
+
+
+
+  /**
+   * Returns the number of saves and merges that rewrote a base file.
+   *
+   * @return base write count
+   */
+  public synchronized long getBaseWriteCount() {
+    return baseWrites;
+  }
+
+
+
+  // Full save: a new base, then the old delta is dropped. If the delete never
+  // happens the stale delta no longer matches the base and is ignored
+  private void writeBase(Session session, Path key) throws IOException {
+    // Entries added during the write must not reach the base uncounted
+    List<SessionEntry> snapshot = session.getEntries();
+    int entries = snapshot.size();
+    Session base = new Session(session.getDate());
+    for (SessionEntry entry : snapshot) {
+      base.addEntry(entry);
+    }
+    store.save(base, key);
+    Files.deleteIfExists(deltaFile(key));
+    files.put(key, new FileState(session, entries, Files.getLastModifiedTime(key).toMillis(), 0));
+    session.markSaved(entries);
+    savedTo.put(session, key);
+    baseWrites++;
+  }
+
+
+
+  // Appends entries [from, to) to the delta, starting a new one with a
+  // header if the base has no delta yet
+  private void appendDelta(Session session, Path key, FileState state, int from, int to)
+      throws IOException {
+    StringBuilder lines = new StringBuilder();
+    boolean fresh = state.deltaEntries == 0;
+    if (fresh) {
+      JsonObject header = new JsonObject();
+      header.addProperty("baseEntries", state.baseEntries);
+      header.addProperty("baseModified", state.baseModified);
+      lines.append(header).append('\n');
+    }
+    List<SessionEntry> entries = session.getEntries();
+    for (int i = from; i < to; i++) {
+      lines.append(store.entryToJson(entries.get(i))).append('\n');
+    }
+
+    ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+    StandardOpenOption mode = fresh ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND;
+    try (FileChannel channel = FileChannel.open(deltaFile(key),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+      long size = channel.size();
+      try {
+        write(channel, bytes);
+        channel.force(false);
+      } catch (IOException | RuntimeException e) {
+        // A partial line would sit in front of the next append's lines
+        try {
+          channel.truncate(size);
+        } catch (IOException truncateFailure) {
+          e.addSuppressed(truncateFailure);
+          // The delta can no longer be trusted: the next save writes a new base
+          files.remove(key);
+        }
+        throw e;
+      }
+    }
+    state.deltaEntries += to - from;
+    session.markSaved(to);
+    deltaWrites++;
+  }
+
+
+
+  /**
+   * Writes all of the given bytes to the delta. Tests override this to
+   * simulate a write that fails part way through.
+   *
+   * @param channel the open delta file
+   * @param bytes the bytes to write
+   * @throws IOException if an I/O error occurs
+   */
+  void write(FileChannel channel, ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+  }
+
+
+
+  /**
+   * Applies the entries of a base file's delta to the session loaded from
+   * the base. A delta written against another version of the base is
+   * deleted, and a torn last line is truncated away.
+   *
+   * @return the number of entries applied
+   */
+  private int replayDelta(Session session, Path key, int baseEntries, long baseModified)
+      throws IOException, ValidationException {
+    Path delta = deltaFile(key);
+    if (!Files.exists(delta)) {
+      return 0;
+    }
+    byte[] bytes = Files.readAllBytes(delta);
+    int lineEnd = indexOf(bytes, 0);
+    if (lineEnd < 0 || !matchesBase(new String(bytes, 0, lineEnd, StandardCharsets.UTF_8),
+        baseEntries, baseModified)) {
+      Files.delete(delta);
+      return 0;
+    }
+
+    int applied = 0;
+    int start = lineEnd + 1;
+    while ((lineEnd = indexOf(bytes, start)) >= 0) {
+      session.addEntry(store.entryFromJson(
+          new String(bytes, start, lineEnd - start, StandardCharsets.UTF_8)));
+      applied++;
+      start = lineEnd + 1;
+    }
+    if (start < bytes.length) {
+      // Unterminated last line: the append it came from never completed
+      try (FileChannel channel = FileChannel.open(delta, StandardOpenOption.WRITE)) {
+        channel.truncate(start);
+        channel.force(false);
+      }
+    }
+    return applied;
+  }
+
+
+
+  // Reads a delta header and checks that it was written against this base
+  private static boolean matchesBase(String line, int baseEntries, long baseModified) {
+    try {
+      JsonObject header = JsonParser.parseString(line).getAsJsonObject();
+      return header.get("baseEntries").getAsInt() == baseEntries
+          && header.get("baseModified").getAsLong() == baseModified;
+    } catch (JsonParseException | IllegalStateException | NullPointerException
+             | UnsupportedOperationException | NumberFormatException e) {
+      return false;
+    }
+  }
+
+
+
+  // Index of the next newline at or after start, or -1
+  private static int indexOf(byte[] bytes, int start) {
+    for (int i = start; i < bytes.length; i++) {
+      if (bytes[i] == '\n') {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -1,3 +1,4 @@
+import java.util.Objects;
 /**
  * Represents a single recorded practice entry within a session
  * 
@@ -89,4 +90,41 @@ public class SessionEntry {
   public String getNotes() {
     return notes;
   }
+
+
+
+  /**
+   * Entries are equal when they hold the same exercise and the same values.
+   * Session builds a fresh SessionEntry each time one is read, so callers
+   * should compare entries with equals rather than by reference.
+   *
+   * @param o the object to compare with
+   * @return whether o is an equal entry
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SessionEntry)) {
+      return false;
+    }
+    SessionEntry other = (SessionEntry) o;
+    return exercise.equals(other.exercise)
+        && minutesPracticed == other.minutesPracticed
+        && Objects.equals(averageTempoBpm, other.averageTempoBpm)
+        && Objects.equals(notes, other.notes);
+  }
+
+
+
+  /**
+   * Returns a hash code consistent with {@link #equals(Object)}.
+   *
+   * @return the hash code
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(exercise, minutesPracticed, averageTempoBpm, notes);
+  }
 }
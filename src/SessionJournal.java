@@ -0,0 +1,742 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of practice entries, kept in a directory on disk.
+ *
+ * Every {@link #addEntry} call appends one length-prefixed, checksummed record
+ * to the active log segment instead of rewriting a whole session file. The log
+ * is flushed to disk with fsync once every {@code syncBatchSize} records, and in
+ * the background the journal periodically folds its sealed segments into a
+ * {@link JsonStore} snapshot. On start-up the newest snapshot is loaded and
+ * only the records written after it are replayed.
+ *
+ * Files in the journal directory:
+ * - snapshot-SEQ.json: every session as of record SEQ, written by {@link JsonStore#saveAll}
+ * - journal-SEQ.log: a log segment whose first record has sequence number SEQ
+ *
+ * Record layout: int payload length, int CRC32, long sequence number,
+ * long epoch day of the session date, followed by the entry as UTF-8 JSON.
+ * The checksum covers everything after it, so a record torn by a crash is
+ * detected and dropped on replay. A write that fails part way is cut off
+ * again at once, or if that fails too, left at the end of a segment that is
+ * sealed so later records go to a new one. A segment may therefore end in a
+ * torn record when the next segment carries on from its last good record.
+ * Any other bad record would leave a gap in the history, so opening the
+ * journal fails instead, as it does for a record whose checksum matches but
+ * whose entry is invalid.
+ *
+ * Failed background compactions leave the log intact and are retried by the
+ * next compaction. They are reported to the {@link ErrorHandler} if one is
+ * set, and the most recent one is kept for {@link #getLastCompactionError()}.
+ *
+ * The journal keeps one session per date, in a {@link ConcurrentSessionStore}.
+ * Appends are serialized so the log stays in sequence order, but reads do
+ * not take the journal's lock.
+ *
+ * HAS-A: SessionJournal has a JsonStore, the replayed sessions, and an open log segment
+ */
+public class SessionJournal implements Closeable {
+
+  public static final int DEFAULT_SYNC_BATCH_SIZE = 32;
+  public static final int DEFAULT_COMPACT_THRESHOLD = 10_000;
+
+  /**
+   * Receives failed background compactions, on the compaction thread.
+   */
+  @FunctionalInterface
+  public interface ErrorHandler {
+
+    /**
+     * Called when a background compaction could not write its snapshot.
+     *
+     * @param error why the compaction failed
+     */
+    void onError(IOException error);
+  }
+
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".json";
+  // payload length + crc
+  private static final int RECORD_PREFIX_BYTES = 8;
+  // sequence number + epoch day
+  private static final int RECORD_HEADER_BYTES = 16;
+
+  private final Path directory;
+  private final JsonStore store;
+  private final int syncBatchSize;
+  private final int compactThreshold;
+  private final ConcurrentSessionStore sessions = new ConcurrentSessionStore();
+  // Segments that are no longer written to and are waiting for compaction
+  private final List<Path> sealedSegments = new ArrayList<>();
+  private final ExecutorService compactor;
+
+  private FileChannel activeChannel;
+  private Path activeSegment;
+  private long activeSegmentStartSeq;
+  private long nextSeq;
+  private int unsyncedRecords;
+  private int recordsSinceSnapshot;
+  private boolean compactionPending;
+  private boolean closed;
+  private volatile ErrorHandler errorHandler;
+  private volatile IOException lastCompactionError;
+
+
+
+  /**
+   * Opens the journal in the given directory with the default batch and
+   * compaction settings, replaying any existing snapshot and log.
+   *
+   * @param directory the directory holding the journal files
+   * @throws IOException if the journal files cannot be read or created
+   * @throws ValidationException if the snapshot holds invalid data, or a log
+   *     segment holds a corrupt record that leaves a gap in the history
+   */
+  public SessionJournal(Path directory) throws IOException, ValidationException {
+    this(directory, DEFAULT_SYNC_BATCH_SIZE, DEFAULT_COMPACT_THRESHOLD);
+  }
+
+
+
+  /**
+   * Opens the journal in the given directory, replaying any existing snapshot and log.
+   *
+   * @param directory the directory holding the journal files
+   * @param syncBatchSize number of records appended between fsync calls
+   * @param compactThreshold number of records after which a background compaction starts
+   * @throws IllegalArgumentException if directory is null or a size is not positive
+   * @throws IOException if the journal files cannot be read or created
+   * @throws ValidationException if the snapshot holds invalid data, or a log
+   *     segment holds a corrupt record that leaves a gap in the history
+   */
+  public SessionJournal(Path directory, int syncBatchSize, int compactThreshold)
+      throws IOException, ValidationException {
+    if (directory == null) {
+      throw new IllegalArgumentException("directory must not be null");
+    }
+    if (syncBatchSize <= 0 || compactThreshold <= 0) {
+      throw new IllegalArgumentException("syncBatchSize and compactThreshold must be > 0");
+    }
+
+    this.directory = directory;
+    this.store = new JsonStore();
+    this.syncBatchSize = syncBatchSize;
+    this.compactThreshold = compactThreshold;
+    this.compactor = Executors.newSingleThreadExecutor(r -> {
+      Thread t = new Thread(r, "session-journal-compactor");
+      t.setDaemon(true);
+      return t;
+    });
+
+    Files.createDirectories(directory);
+    recover();
+  }
+
+
+
+  /**
+   * Adds an entry to the session on the given date and appends it to the log.
+   * The session is created if none exists for that date yet.
+   *
+   * @param date the date of the session the entry belongs to
+   * @param entry the practice entry to add
+   * @throws IllegalArgumentException if date or entry is null
+   * @throws IllegalStateException if the journal has been closed
+   * @throws IOException if the record cannot be written
+   */
+  public synchronized void addEntry(LocalDate date, SessionEntry entry) throws IOException {
+    if (date == null || entry == null) {
+      throw new IllegalArgumentException("date and entry must not be null");
+    }
+    addEntries(date, List.of(entry));
+  }
+
+
+
+  /**
+   * Adds entries to the session on the given date as one unit: either they
+   * are all appended to the log and added to the session, or the log is cut
+   * back and none is. The session is created if none exists for that date yet.
+   *
+   * If the log cannot be cut back after a failed write, the entries written
+   * in full stay in the log and are added to the session too, so that the
+   * session matches what a reopened journal would replay.
+   *
+   * @param date the date of the session the entries belong to
+   * @param entries the practice entries to add, in order
+   * @throws IllegalArgumentException if date or entries is null or holds a null
+   * @throws IllegalStateException if the journal has been closed
+   * @throws IOException if the records cannot be written
+   */
+  public synchronized void addEntries(LocalDate date, List<SessionEntry> entries)
+      throws IOException {
+    if (date == null || entries == null) {
+      throw new IllegalArgumentException("date and entries must not be null");
+    }
+    for (SessionEntry entry : entries) {
+      if (entry == null) {
+        throw new IllegalArgumentException("entries must not hold null");
+      }
+    }
+    if (closed) {
+      throw new IllegalStateException("journal is closed");
+    }
+
+    long start = activeChannel.size();
+    long startSeq = nextSeq;
+    try {
+      for (SessionEntry entry : entries) {
+        append(nextSeq, date, entry);
+        nextSeq++;
+      }
+    } catch (IOException e) {
+      if (discardTornRecords(start, e)) {
+        nextSeq = startSeq;
+      } else {
+        try {
+          recorded(date, entries.subList(0, (int) (nextSeq - startSeq)));
+        } catch (IOException syncFailure) {
+          e.addSuppressed(syncFailure);
+        }
+      }
+      throw e;
+    }
+    recorded(date, entries);
+  }
+
+
+
+  /**
+   * Sets the handler told about failed background compactions.
+   *
+   * @param handler the handler, or null
+   */
+  public void setErrorHandler(ErrorHandler handler) {
+    this.errorHandler = handler;
+  }
+
+
+
+  /**
+   * Returns the error of the most recent background compaction that failed.
+   * Cleared by the next compaction that succeeds.
+   *
+   * @return the last compaction error, or null
+   */
+  public IOException getLastCompactionError() {
+    return lastCompactionError;
+  }
+
+
+
+  /**
+   * Returns the session for the given date, or null if the journal has none.
+   *
+   * Entries must be added through {@link #addEntry} to be recorded.
+   *
+   * @param date the session date
+   * @return the session, or null
+   */
+  public Session getSession(LocalDate date) {
+    return sessions.get(date);
+  }
+
+
+
+  /**
+   * Returns all journaled sessions in date order.
+   *
+   * @return an unmodifiable snapshot of the session list
+   */
+  public List<Session> getSessions() {
+    return sessions.getAll();
+  }
+
+
+
+  /**
+   * Returns the journaled sessions dated between two dates, inclusive.
+   *
+   * @param from first date to include
+   * @param to last date to include
+   * @return an unmodifiable snapshot of the matching sessions in date order;
+   *     empty if to is before from
+   * @throws IllegalArgumentException if from or to is null
+   */
+  public List<Session> getSessions(LocalDate from, LocalDate to) {
+    return sessions.getBetween(from, to);
+  }
+
+
+
+  /**
+   * Forces every record appended so far to disk.
+   *
+   * @throws IOException if the log cannot be flushed
+   */
+  public synchronized void sync() throws IOException {
+    if (unsyncedRecords > 0) {
+      activeChannel.force(false);
+      unsyncedRecords = 0;
+    }
+  }
+
+
+
+  /**
+   * Starts a background compaction that writes a snapshot of every session
+   * and deletes the log segments it covers.
+   *
+   * @return a future that completes when the snapshot has been written
+   * @throws IllegalStateException if the journal has been closed
+   */
+  public Future<?> compactAsync() {
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("journal is closed");
+      }
+      compactionPending = true;
+    }
+    try {
+      return compactor.submit(() -> {
+        compact0();
+        return null;
+      });
+    } catch (RejectedExecutionException e) {
+      // close() shuts the compactor down before it marks the journal closed
+      throw new IllegalStateException("journal is closed", e);
+    }
+  }
+
+
+
+  /**
+   * Compacts the journal and waits for the snapshot to be written.
+   *
+   * @throws IOException if the snapshot cannot be written
+   * @throws IllegalStateException if the journal has been closed
+   */
+  public void compact() throws IOException {
+    try {
+      compactAsync().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while compacting", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Compaction failed", e.getCause());
+    }
+  }
+
+
+
+  /**
+   * Waits for any running compaction, then syncs and closes the log.
+   *
+   * @throws IOException if the log cannot be flushed or closed
+   */
+  @Override
+  public void close() throws IOException {
+    compactor.shutdown();
+    try {
+      compactor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      sync();
+      activeChannel.close();
+    }
+  }
+
+
+
+  /**
+   * Loads the newest snapshot, replays the log segments written after it and
+   * opens a fresh segment for new records.
+   */
+  private void recover() throws IOException, ValidationException {
+    List<Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    List<Path> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+
+    long snapshotSeq = -1;
+    if (!snapshots.isEmpty()) {
+      Path newest = snapshots.get(snapshots.size() - 1);
+      snapshotSeq = sequenceOf(newest, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+      try (JsonStore.SessionReader reader = store.openReader(newest)) {
+        Session s;
+        while ((s = reader.read()) != null) {
+          sessions.addAll(s);
+        }
+      }
+    }
+
+    long lastSeq = snapshotSeq;
+    for (int i = 0; i < segments.size(); i++) {
+      // A torn tail is only harmless if the next segment starts right after it
+      long nextStart = i + 1 < segments.size()
+          ? sequenceOf(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX)
+          : -1;
+      lastSeq = Math.max(lastSeq, replay(segments.get(i), snapshotSeq, nextStart));
+      sealedSegments.add(segments.get(i));
+    }
+
+    nextSeq = lastSeq + 1;
+    recordsSinceSnapshot = (int) Math.min(Integer.MAX_VALUE, lastSeq - snapshotSeq);
+    openSegment();
+    // An empty segment left by the previous run is reused as the active one
+    sealedSegments.remove(activeSegment);
+  }
+
+
+
+  /**
+   * Replays one log segment, applying records newer than the snapshot. A torn
+   * or corrupt tail is truncated away so new records never follow garbage.
+   *
+   * @param nextStart the first sequence number of the next segment, or -1 if
+   *     this is the last one
+   * @return the highest sequence number found in the segment
+   * @throws ValidationException if the segment holds a corrupt record and the
+   *     next segment does not carry on right after the last good one, which
+   *     would leave a gap in the history
+   */
+  private long replay(Path segment, long snapshotSeq, long nextStart)
+      throws IOException, ValidationException {
+    long firstSeq = sequenceOf(segment, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    long lastSeq = -1;
+    long validBytes = 0;
+    long size = Files.size(segment);
+    CRC32 crc = new CRC32();
+
+    try (InputStream in = Files.newInputStream(segment);
+         DataInputStream data = new DataInputStream(new BufferedInputStream(in, 64 * 1024))) {
+      while (true) {
+        int length;
+        try {
+          length = data.readInt();
+        } catch (EOFException e) {
+          break;
+        }
+
+        int checksum;
+        byte[] body;
+        try {
+          checksum = data.readInt();
+          // A length running past the end of the file is a torn or corrupt prefix
+          if (length < 0 || RECORD_HEADER_BYTES + (long) length
+              > size - validBytes - RECORD_PREFIX_BYTES) {
+            break;
+          }
+          body = new byte[RECORD_HEADER_BYTES + length];
+          data.readFully(body);
+        } catch (EOFException e) {
+          break;
+        }
+
+        crc.reset();
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(body, 0, RECORD_HEADER_BYTES);
+        long seq = header.getLong();
+        LocalDate date = LocalDate.ofEpochDay(header.getLong());
+        String json = new String(body, RECORD_HEADER_BYTES, length, StandardCharsets.UTF_8);
+
+        if (seq > snapshotSeq) {
+          // The checksum matched, so this is not a torn write: dropping it
+          // and everything after it would delete good history
+          SessionEntry entry;
+          try {
+            entry = store.entryFromJson(json);
+          } catch (ValidationException e) {
+            throw new ValidationException("Invalid record " + seq + " in "
+                + segment.getFileName() + ": " + e.getMessage(), e);
+          }
+          sessionFor(date).addEntry(entry);
+        }
+        lastSeq = Math.max(lastSeq, seq);
+        validBytes += RECORD_PREFIX_BYTES + body.length;
+      }
+    }
+
+    if (validBytes < size) {
+      long expectedNext = lastSeq >= 0 ? lastSeq + 1 : firstSeq;
+      if (nextStart >= 0 && nextStart != expectedNext) {
+        throw new ValidationException("Corrupt record in " + segment.getFileName()
+            + " at byte " + validBytes + ", followed by later log segments");
+      }
+      try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+        channel.truncate(validBytes);
+        channel.force(true);
+      }
+    }
+    return lastSeq;
+  }
+
+
+
+  /**
+   * Adds entries whose records are in the log to their session, then syncs
+   * or starts a compaction if one is due.
+   */
+  private void recorded(LocalDate date, List<SessionEntry> entries) throws IOException {
+    if (entries.isEmpty()) {
+      return;
+    }
+    Session session = sessionFor(date);
+    for (SessionEntry entry : entries) {
+      session.addEntry(entry);
+    }
+
+    unsyncedRecords += entries.size();
+    if (unsyncedRecords >= syncBatchSize) {
+      sync();
+    }
+
+    recordsSinceSnapshot += entries.size();
+    if (recordsSinceSnapshot >= compactThreshold && !compactionPending) {
+      compactionPending = true;
+      try {
+        compactor.submit(this::compactQuietly);
+      } catch (RejectedExecutionException e) {
+        // Closing; the log already holds the records
+        compactionPending = false;
+      }
+    }
+  }
+
+
+
+  /**
+   * Writes one record to the active segment.
+   */
+  private void append(long seq, LocalDate date, SessionEntry entry) throws IOException {
+    byte[] payload = store.entryToJson(entry).getBytes(StandardCharsets.UTF_8);
+    ByteBuffer record = ByteBuffer.allocate(RECORD_PREFIX_BYTES + RECORD_HEADER_BYTES + payload.length);
+    record.putInt(payload.length);
+    record.putInt(0);
+    record.putLong(seq);
+    record.putLong(date.toEpochDay());
+    record.put(payload);
+
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), RECORD_PREFIX_BYTES, record.capacity() - RECORD_PREFIX_BYTES);
+    record.putInt(4, (int) crc.getValue());
+
+    record.flip();
+    write(activeChannel, record);
+  }
+
+
+
+  /**
+   * Writes all of the given bytes to the active segment. Tests override this
+   * to simulate a write that fails part way through.
+   *
+   * @param channel the active segment
+   * @param bytes the bytes to write
+   * @throws IOException if an I/O error occurs
+   */
+  void write(FileChannel channel, ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+  }
+
+
+
+  /**
+   * Cuts the records of a failed write off the end of the active segment, so
+   * later records do not land behind them. If that fails too, the segment is
+   * sealed with the torn record at its end, where replay drops it, and new
+   * records go to a fresh segment. Failures here are added to the error.
+   *
+   * @return true if the segment was cut back to start
+   */
+  private boolean discardTornRecords(long start, IOException error) {
+    try {
+      activeChannel.truncate(start);
+      return true;
+    } catch (IOException e) {
+      error.addSuppressed(e);
+    }
+    try {
+      sync();
+      activeChannel.close();
+      if (nextSeq == activeSegmentStartSeq) {
+        // Nothing but the torn record, and the new segment takes its name
+        Files.delete(activeSegment);
+      } else {
+        sealedSegments.add(activeSegment);
+      }
+      openSegment();
+    } catch (IOException e) {
+      error.addSuppressed(e);
+    }
+    return false;
+  }
+
+
+
+  /**
+   * Seals the active segment, writes a snapshot covering every record in it
+   * and the segments before it, then deletes the covered files.
+   */
+  private void compact0() throws IOException {
+    long coveredSeq;
+    List<Session> live;
+    List<List<SessionEntry>> entries;
+    List<Path> covered;
+
+    synchronized (this) {
+      compactionPending = false;
+      if (closed || nextSeq == 0) {
+        return;
+      }
+      // Seal the active segment so the snapshot has a fixed end point
+      if (nextSeq > activeSegmentStartSeq) {
+        sync();
+        activeChannel.close();
+        sealedSegments.add(activeSegment);
+        openSegment();
+      }
+
+      coveredSeq = nextSeq - 1;
+      covered = new ArrayList<>(sealedSegments);
+      // Entry views are fixed snapshots, so taking them is cheap and later
+      // appends do not reach the snapshot
+      live = sessions.getAll();
+      entries = new ArrayList<>(live.size());
+      for (Session s : live) {
+        entries.add(s.getEntries());
+      }
+      recordsSinceSnapshot = 0;
+    }
+
+    // Copied outside the lock so appends are not held up by the whole history
+    List<Session> copy = new ArrayList<>(live.size());
+    for (int i = 0; i < live.size(); i++) {
+      Session c = new Session(live.get(i).getDate());
+      for (SessionEntry e : entries.get(i)) {
+        c.addEntry(e);
+      }
+      copy.add(c);
+    }
+
+    Path snapshot = directory.resolve(name(SNAPSHOT_PREFIX, coveredSeq, SNAPSHOT_SUFFIX));
+    // saveAll forces the snapshot to disk and renames it into place atomically
+    store.saveAll(copy, snapshot);
+
+    // The new snapshot is durable, so older snapshots and covered segments can go
+    for (Path old : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+      if (!old.equals(snapshot)) {
+        Files.deleteIfExists(old);
+      }
+    }
+    for (Path segment : covered) {
+      Files.deleteIfExists(segment);
+    }
+    synchronized (this) {
+      sealedSegments.removeAll(covered);
+    }
+    lastCompactionError = null;
+  }
+
+
+
+  // Background compactions triggered by addEntry have no caller to throw to;
+  // a failure leaves the log intact and the next compaction retries.
+  private void compactQuietly() {
+    try {
+      compact0();
+    } catch (IOException e) {
+      lastCompactionError = e;
+      ErrorHandler handler = errorHandler;
+      if (handler != null) {
+        handler.onError(e);
+      }
+    }
+  }
+
+
+
+  private void openSegment() throws IOException {
+    activeSegmentStartSeq = nextSeq;
+    activeSegment = directory.resolve(name(SEGMENT_PREFIX, nextSeq, SEGMENT_SUFFIX));
+    activeChannel = FileChannel.open(activeSegment,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+
+
+  private Session sessionFor(LocalDate date) {
+    return sessions.getOrCreate(date);
+  }
+
+
+
+  /**
+   * Lists the journal files with the given prefix and suffix in sequence order.
+   */
+  private List<Path> list(String prefix, String suffix) throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> dir = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+      for (Path p : dir) {
+        files.add(p);
+      }
+    }
+    // Sequence numbers are zero padded, so name order is sequence order
+    Collections.sort(files);
+    return files;
+  }
+
+
+
+  private static String name(String prefix, long seq, String suffix) {
+    return prefix + String.format("%020d", seq) + suffix;
+  }
+
+
+
+  private static long sequenceOf(Path file, String prefix, String suffix) {
+    String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+  }
+}
@@ -0,0 +1,179 @@
+import javax.swing.AbstractListModel;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Swing list model that exposes a {@link SessionRepository} to a JList.
+ *
+ * The model holds no per-row data of its own: rows are read straight from
+ * the repository when the list asks for them, and labels are only built by
+ * {@link SessionCellRenderer} for rows that are actually painted. Changes
+ * must go through the model so the list is notified of them.
+ *
+ * The model can also show a filtered subset, such as search results. Any
+ * change made through the model clears the filter first, so row numbers
+ * returned by the change methods are always repository positions.
+ *
+ * IS-A: SessionListModel is a Swing list model of Session objects
+ * HAS-A: SessionListModel has the repository it presents
+ */
+public class SessionListModel extends AbstractListModel<Session> {
+
+  private final SessionRepository repository;
+  // Sessions shown instead of the whole repository, or null for no filter
+  private List<Session> filter;
+
+
+
+  /**
+   * Creates a model over the given repository.
+   *
+   * @param repository the sessions to present
+   * @throws IllegalArgumentException if repository is null
+   */
+  public SessionListModel(SessionRepository repository) {
+    if (repository == null) {
+      throw new IllegalArgumentException("repository must not be null");
+    }
+    this.repository = repository;
+  }
+
+
+
+  /**
+   * Returns the number of rows.
+   *
+   * @return number of sessions
+   */
+  @Override
+  public int getSize() {
+    return filter != null ? filter.size() : repository.size();
+  }
+
+
+
+  /**
+   * Returns the session shown in a row.
+   *
+   * @param index the row
+   * @return the session
+   */
+  @Override
+  public Session getElementAt(int index) {
+    return filter != null ? filter.get(index) : repository.get(index);
+  }
+
+
+
+  /**
+   * Adds a session at its date position and notifies the list.
+   *
+   * @param session the session to add
+   * @return the row the session was inserted at
+   */
+  public int add(Session session) {
+    setFilter(null);
+    int index = repository.add(session);
+    fireIntervalAdded(this, index, index);
+    return index;
+  }
+
+
+
+  /**
+   * Adds many sessions at once and notifies the list with a single event.
+   *
+   * @param sessions the sessions to add
+   */
+  public void addAll(Collection<Session> sessions) {
+    if (sessions.isEmpty()) {
+      return;
+    }
+    setFilter(null);
+    int oldSize = repository.size();
+    repository.addAll(sessions);
+    // Added sessions can land anywhere in date order, so every row may have changed
+    if (oldSize > 0) {
+      fireContentsChanged(this, 0, oldSize - 1);
+    }
+    fireIntervalAdded(this, oldSize, repository.size() - 1);
+  }
+
+
+
+  /**
+   * Removes the session in a row and notifies the list.
+   *
+   * @param index the row to remove
+   * @return the removed session
+   */
+  public Session remove(int index) {
+    setFilter(null);
+    Session removed = repository.remove(index);
+    fireIntervalRemoved(this, index, index);
+    return removed;
+  }
+
+
+
+  /**
+   * Notifies the list that the session in a row has changed and should be repainted.
+   *
+   * @param index the row that changed
+   */
+  public void sessionChanged(int index) {
+    fireContentsChanged(this, index, index);
+  }
+
+
+
+  /**
+   * Returns the row of a session, or -1 if it is not shown.
+   *
+   * @param session the session to find
+   * @return its row or -1
+   */
+  public int indexOf(Session session) {
+    if (filter == null) {
+      return repository.indexOf(session);
+    }
+    for (int i = 0; i < filter.size(); i++) {
+      if (filter.get(i) == session) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+
+
+  /**
+   * Shows only the given sessions, or every session again when sessions is null.
+   *
+   * @param sessions the sessions to show, in display order, or null
+   */
+  public void setFilter(List<Session> sessions) {
+    if (sessions == null && filter == null) {
+      return;
+    }
+    int oldSize = getSize();
+    filter = sessions == null ? null : List.copyOf(sessions);
+    if (oldSize > 0) {
+      fireIntervalRemoved(this, 0, oldSize - 1);
+    }
+    if (getSize() > 0) {
+      fireIntervalAdded(this, 0, getSize() - 1);
+    }
+  }
+
+
+
+  /**
+   * Returns true if only a filtered subset is shown.
+   *
+   * @return whether a filter is set
+   */
+  public boolean isFiltered() {
+    return filter != null;
+  }
+}
@@ -0,0 +1,292 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * In-memory collection of sessions kept in date order, with an index for
+ * fast date lookups.
+ *
+ * Sessions are held in a list sorted by date, next to a primitive array of
+ * their epoch days. Date-range queries binary search that array and return a
+ * view of the matching run of sessions, so "last 30 days" or "this week" cost
+ * O(log n) no matter how long the history is. Sessions on the same date stay
+ * in the order they were added. Positions are stable between changes, so the
+ * repository can back a list UI directly and be read one page at a time.
+ * Lists returned by queries are views and are only valid until the
+ * repository is next changed.
+ *
+ * HAS-A: SessionRepository has a date-ordered list of sessions and an epoch-day index
+ */
+public class SessionRepository {
+
+  private final List<Session> sessions = new ArrayList<>();
+  // epochDays[i] is the date of sessions.get(i); only the first size() slots are used
+  private long[] epochDays = new long[16];
+
+
+
+  /**
+   * Adds a session at its place in date order, after any sessions on the same date.
+   *
+   * @param session the session to add
+   * @return the position the session was inserted at
+   * @throws IllegalArgumentException if session is null
+   */
+  public int add(Session session) {
+    if (session == null) {
+      throw new IllegalArgumentException("session must not be null");
+    }
+    long day = session.getDate().toEpochDay();
+    int index = upperBound(day);
+
+    int size = sessions.size();
+    if (size == epochDays.length) {
+      epochDays = Arrays.copyOf(epochDays, size * 2);
+    }
+    System.arraycopy(epochDays, index, epochDays, index + 1, size - index);
+    epochDays[index] = day;
+    sessions.add(index, session);
+    return index;
+  }
+
+
+
+  /**
+   * Adds many sessions at once. Cheaper than repeated {@link #add} calls for
+   * large batches because the index is rebuilt once.
+   *
+   * @param added the sessions to add
+   * @throws IllegalArgumentException if added is null or holds a null session
+   */
+  public void addAll(Collection<Session> added) {
+    if (added == null) {
+      throw new IllegalArgumentException("sessions must not be null");
+    }
+    for (Session s : added) {
+      if (s == null) {
+        throw new IllegalArgumentException("sessions must not be null");
+      }
+    }
+    sessions.addAll(added);
+    // Stable sort keeps sessions on the same date in the order they were added
+    sessions.sort(Comparator.comparing(Session::getDate));
+
+    epochDays = new long[Math.max(16, sessions.size())];
+    for (int i = 0; i < sessions.size(); i++) {
+      epochDays[i] = sessions.get(i).getDate().toEpochDay();
+    }
+  }
+
+
+
+  /**
+   * Removes the session at a position.
+   *
+   * @param index the position to remove
+   * @return the removed session
+   * @throws IndexOutOfBoundsException if index is out of range
+   */
+  public Session remove(int index) {
+    Session removed = sessions.remove(index);
+    System.arraycopy(epochDays, index + 1, epochDays, index, sessions.size() - index);
+    return removed;
+  }
+
+
+
+  /**
+   * Returns the session at a position in date order.
+   *
+   * @param index the position
+   * @return the session
+   * @throws IndexOutOfBoundsException if index is out of range
+   */
+  public Session get(int index) {
+    return sessions.get(index);
+  }
+
+
+
+  /**
+   * Returns the position of a session, or -1 if it is not in the repository.
+   *
+   * @param session the session to find
+   * @return its position or -1
+   */
+  public int indexOf(Session session) {
+    if (session == null) {
+      return -1;
+    }
+    long day = session.getDate().toEpochDay();
+    for (int i = lowerBound(day); i < sessions.size() && epochDays[i] == day; i++) {
+      if (sessions.get(i) == session) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+
+
+  /**
+   * Returns the number of sessions.
+   *
+   * @return session count
+   */
+  public int size() {
+    return sessions.size();
+  }
+
+
+
+  /**
+   * Returns true if the repository holds no sessions.
+   *
+   * @return whether the repository is empty
+   */
+  public boolean isEmpty() {
+    return sessions.isEmpty();
+  }
+
+
+
+  /**
+   * Returns the sessions dated between two dates, inclusive, in date order.
+   *
+   * @param from first date to include
+   * @param to last date to include
+   * @return an unmodifiable view of the matching sessions; empty if to is before from
+   * @throws IllegalArgumentException if from or to is null
+   */
+  public List<Session> findBetween(LocalDate from, LocalDate to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("dates must not be null");
+    }
+    int start = lowerBound(from.toEpochDay());
+    int end = upperBound(to.toEpochDay());
+    if (end <= start) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(sessions.subList(start, end));
+  }
+
+
+
+  /**
+   * Returns the sessions on a single date.
+   *
+   * @param date the date
+   * @return an unmodifiable view of that day's sessions
+   */
+  public List<Session> findOn(LocalDate date) {
+    return findBetween(date, date);
+  }
+
+
+
+  /**
+   * Returns the sessions from the given number of days up to and including today.
+   * For example lastDays(30, today) covers today and the 29 days before it.
+   *
+   * @param days number of days to include
+   * @param today the last day to include
+   * @return an unmodifiable view of the matching sessions
+   * @throws IllegalArgumentException if days is not positive
+   */
+  public List<Session> findLastDays(int days, LocalDate today) {
+    if (days <= 0) {
+      throw new IllegalArgumentException("days must be > 0");
+    }
+    return findBetween(today.minusDays(days - 1L), today);
+  }
+
+
+
+  /**
+   * Returns the sessions in the Monday to Sunday week that contains a date.
+   *
+   * @param date any date in the week
+   * @return an unmodifiable view of that week's sessions
+   */
+  public List<Session> findWeekOf(LocalDate date) {
+    LocalDate monday = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    return findBetween(monday, monday.plusDays(6));
+  }
+
+
+
+  /**
+   * Returns one page of sessions in date order.
+   *
+   * @param pageIndex zero based page number
+   * @param pageSize sessions per page
+   * @return an unmodifiable view of the page; empty past the last page
+   * @throws IllegalArgumentException if pageIndex is negative or pageSize is not positive
+   */
+  public List<Session> getPage(int pageIndex, int pageSize) {
+    if (pageIndex < 0 || pageSize <= 0) {
+      throw new IllegalArgumentException("pageIndex must be >= 0 and pageSize > 0");
+    }
+    long start = (long) pageIndex * pageSize;
+    if (start >= sessions.size()) {
+      return Collections.emptyList();
+    }
+    int end = (int) Math.min(sessions.size(), start + pageSize);
+    return Collections.unmodifiableList(sessions.subList((int) start, end));
+  }
+
+
+
+  /**
+   * Returns every session in date order.
+   *
+   * @return an unmodifiable view of all sessions
+   */
+  public List<Session> getAll() {
+    return Collections.unmodifiableList(sessions);
+  }
+
+
+
+  /**
+   * Returns the first position whose date is on or after the given day.
+   */
+  private int lowerBound(long day) {
+    int lo = 0;
+    int hi = sessions.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (epochDays[mid] < day) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+
+
+  /**
+   * Returns the first position whose date is after the given day.
+   */
+  private int upperBound(long day) {
+    int lo = 0;
+    int hi = sessions.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (epochDays[mid] <= day) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
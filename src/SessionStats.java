@@ -0,0 +1,161 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable totals for one {@link Session} as of a point in time.
+ *
+ * Each entry added to a session produces a new SessionStats from the
+ * previous one in O(1) plus a copy of the small per-category map, so reading
+ * them never walks the entry list. A SessionStats is a snapshot: it does not
+ * change when the session gains entries later, and all of its figures always
+ * describe the same set of entries, even while other threads are adding.
+ *
+ * HAS-A: SessionStats has minute and tempo totals and minutes per exercise category
+ */
+public final class SessionStats {
+
+  /**
+   * Stats of a session with no entries.
+   */
+  static final SessionStats EMPTY = new SessionStats(0, 0, 0, 0, 0, 0, new LinkedHashMap<>());
+
+  private final int totalMinutes;
+  private final int entryCount;
+  private final int tempoCount;
+  private final long tempoSum;
+  private final int minTempo;
+  private final int maxTempo;
+  // Categories in the order they were first practiced; never changed after construction
+  private final Map<String, Integer> minutesByCategory;
+
+
+
+  private SessionStats(int totalMinutes, int entryCount, int tempoCount, long tempoSum,
+                       int minTempo, int maxTempo, Map<String, Integer> minutesByCategory) {
+    this.totalMinutes = totalMinutes;
+    this.entryCount = entryCount;
+    this.tempoCount = tempoCount;
+    this.tempoSum = tempoSum;
+    this.minTempo = minTempo;
+    this.maxTempo = maxTempo;
+    this.minutesByCategory = minutesByCategory;
+  }
+
+
+
+  /**
+   * Returns these totals with one more entry folded in. Only {@link Session}
+   * calls this.
+   *
+   * @param exercise the entry's exercise
+   * @param minutes the entry's minutes
+   * @param tempo the entry's tempo, or {@link Session#NO_TEMPO}
+   * @return the new totals; this object is unchanged
+   */
+  SessionStats plus(Exercise exercise, int minutes, int tempo) {
+    Map<String, Integer> byCategory = new LinkedHashMap<>(minutesByCategory);
+    byCategory.merge(exercise.getCategory(), minutes, Integer::sum);
+
+    if (tempo == Session.NO_TEMPO) {
+      return new SessionStats(totalMinutes + minutes, entryCount + 1, tempoCount, tempoSum,
+          minTempo, maxTempo, byCategory);
+    }
+    boolean first = tempoCount == 0;
+    return new SessionStats(totalMinutes + minutes, entryCount + 1, tempoCount + 1,
+        tempoSum + tempo,
+        first ? tempo : Math.min(minTempo, tempo),
+        first ? tempo : Math.max(maxTempo, tempo),
+        byCategory);
+  }
+
+
+
+  /**
+   * Returns the total minutes practiced across all entries.
+   *
+   * @return total minutes
+   */
+  public int getTotalMinutes() {
+    return totalMinutes;
+  }
+
+
+
+  /**
+   * Returns the number of entries in the session.
+   *
+   * @return entry count
+   */
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+
+
+  /**
+   * Returns the number of entries that recorded a tempo.
+   *
+   * @return entries with a tempo
+   */
+  public int getTempoEntryCount() {
+    return tempoCount;
+  }
+
+
+
+  /**
+   * Returns the slowest recorded tempo.
+   *
+   * @return minimum tempo in BPM, or null if no entry recorded a tempo
+   */
+  public Integer getMinTempoBpm() {
+    return tempoCount == 0 ? null : minTempo;
+  }
+
+
+
+  /**
+   * Returns the fastest recorded tempo.
+   *
+   * @return maximum tempo in BPM, or null if no entry recorded a tempo
+   */
+  public Integer getMaxTempoBpm() {
+    return tempoCount == 0 ? null : maxTempo;
+  }
+
+
+
+  /**
+   * Returns the mean of the recorded tempos. Entries without a tempo are not counted.
+   *
+   * @return mean tempo in BPM, or null if no entry recorded a tempo
+   */
+  public Double getMeanTempoBpm() {
+    return tempoCount == 0 ? null : (double) tempoSum / tempoCount;
+  }
+
+
+
+  /**
+   * Returns the minutes practiced in one exercise category, such as "Scale".
+   *
+   * @param category the category name
+   * @return minutes in that category, or 0 if none were practiced
+   */
+  public int getMinutesForCategory(String category) {
+    return minutesByCategory.getOrDefault(category, 0);
+  }
+
+
+
+  /**
+   * Returns the minutes practiced per exercise category, in the order the
+   * categories were first practiced.
+   *
+   * @return an unmodifiable view of minutes by category
+   */
+  public Map<String, Integer> getMinutesByCategory() {
+    return Collections.unmodifiableMap(minutesByCategory);
+  }
+}
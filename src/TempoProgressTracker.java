@@ -0,0 +1,351 @@
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks tempo progress toward the target tempo of scale and arpeggio exercises.
+ *
+ * Every entry with a recorded tempo updates its exercise's statistics in
+ * O(1): an exponentially weighted moving average (EWMA) of tempo, the best
+ * tempo, and a fixed-size ring buffer of the most recent (day, tempo)
+ * samples. The ring keeps running sums, so a least squares trend line over
+ * the recent samples, and from it the estimated days left until the EWMA
+ * reaches the target, is also available in O(1) without rescanning history.
+ *
+ * Entries should be recorded in date order; the EWMA treats every new
+ * sample as the most recent. Exercises are told apart by their
+ * {@link ExerciseCatalog} id, so two exercises with the same name but
+ * different targets are tracked separately. Entries for songs or without a
+ * tempo are ignored. All methods are thread safe.
+ *
+ * HAS-A: TempoProgressTracker has an ExerciseCatalog and rolling tempo
+ *     statistics per catalog id
+ */
+public class TempoProgressTracker {
+
+  public static final double DEFAULT_ALPHA = 0.3;
+  public static final int DEFAULT_WINDOW = 16;
+
+  private final ExerciseCatalog catalog;
+  private final double alpha;
+  private final int window;
+  private final Map<Integer, Stats> stats = new HashMap<>();
+
+
+
+  /**
+   * Creates a tracker with its own catalog, an EWMA weight of
+   * {@value #DEFAULT_ALPHA} and a trend window of {@value #DEFAULT_WINDOW} samples.
+   */
+  public TempoProgressTracker() {
+    this(new ExerciseCatalog(), DEFAULT_ALPHA, DEFAULT_WINDOW);
+  }
+
+
+
+  /**
+   * Creates a tracker with the default weight and window that identifies
+   * exercises through the given catalog. Sharing the catalog of the store
+   * that loaded the entries makes each lookup an identity check.
+   *
+   * @param catalog the catalog exercises are registered with
+   * @throws IllegalArgumentException if catalog is null
+   */
+  public TempoProgressTracker(ExerciseCatalog catalog) {
+    this(catalog, DEFAULT_ALPHA, DEFAULT_WINDOW);
+  }
+
+
+
+  /**
+   * Creates a tracker.
+   *
+   * @param catalog the catalog exercises are registered with
+   * @param alpha weight of the newest sample in the EWMA, between 0 exclusive and 1 inclusive
+   * @param window number of recent samples used for the trend, at least 2
+   * @throws IllegalArgumentException if catalog is null, or alpha or window is out of range
+   */
+  public TempoProgressTracker(ExerciseCatalog catalog, double alpha, int window) {
+    if (catalog == null) {
+      throw new IllegalArgumentException("catalog must not be null");
+    }
+    if (!(alpha > 0 && alpha <= 1)) {
+      throw new IllegalArgumentException("alpha must be in (0, 1]");
+    }
+    if (window < 2) {
+      throw new IllegalArgumentException("window must be >= 2");
+    }
+    this.catalog = catalog;
+    this.alpha = alpha;
+    this.window = window;
+  }
+
+
+
+  /**
+   * Records every entry of a session.
+   *
+   * @param session the session
+   * @throws IllegalArgumentException if session is null
+   */
+  public synchronized void record(Session session) {
+    if (session == null) {
+      throw new IllegalArgumentException("session must not be null");
+    }
+    long day = session.getDate().toEpochDay();
+    for (int e = 0; e < session.getEntryCount(); e++) {
+      record(day, session.getEntryExercise(e), session.getEntryTempo(e));
+    }
+  }
+
+
+
+  /**
+   * Records one entry practiced on a date.
+   *
+   * @param date the practice date
+   * @param entry the entry
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public synchronized void record(LocalDate date, SessionEntry entry) {
+    if (date == null || entry == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    Integer tempo = entry.getAverageTempoBpm();
+    record(date.toEpochDay(), entry.getExercise(), tempo == null ? Session.NO_TEMPO : tempo);
+  }
+
+
+
+  /**
+   * Returns the current statistics for an exercise.
+   *
+   * @param exercise the exercise, or any exercise equal to it
+   * @return a snapshot of its progress, or null if no tempo has been recorded for it
+   * @throws IllegalArgumentException if exercise is null
+   */
+  public synchronized TempoProgress getProgress(Exercise exercise) {
+    if (exercise == null) {
+      throw new IllegalArgumentException("exercise must not be null");
+    }
+    Stats s = stats.get(catalog.register(exercise));
+    return s == null ? null : s.snapshot(exercise.getName());
+  }
+
+
+
+  private void record(long day, Exercise exercise, int tempo) {
+    int target = targetTempo(exercise);
+    if (tempo == Session.NO_TEMPO || target <= 0) {
+      return;
+    }
+    stats.computeIfAbsent(catalog.register(exercise), id -> new Stats(window, day))
+        .add(day, tempo, target, alpha);
+  }
+
+
+
+  private static int targetTempo(Exercise exercise) {
+    if (exercise instanceof ScaleExercise) {
+      return ((ScaleExercise) exercise).getTargetTempoBpm();
+    }
+    if (exercise instanceof ArpeggioExercise) {
+      return ((ArpeggioExercise) exercise).getTargetTempoBpm();
+    }
+    return 0;
+  }
+
+
+
+  /**
+   * Mutable per-exercise state. Days are stored relative to the first
+   * sample so the regression sums stay small.
+   */
+  private static final class Stats {
+    final long originDay;
+    final long[] days;
+    final int[] tempos;
+    int head;
+    int size;
+    double sumX;
+    double sumY;
+    double sumXX;
+    double sumXY;
+
+    double ewma;
+    int best;
+    int latest;
+    long latestDay;
+    long count;
+    int target;
+
+    Stats(int window, long originDay) {
+      this.originDay = originDay;
+      this.days = new long[window];
+      this.tempos = new int[window];
+    }
+
+    void add(long day, int tempo, int targetTempo, double alpha) {
+      ewma = count == 0 ? tempo : alpha * tempo + (1 - alpha) * ewma;
+      best = Math.max(best, tempo);
+      latest = tempo;
+      latestDay = day;
+      target = targetTempo;
+      count++;
+
+      if (size == days.length) {
+        // Evict the oldest sample from the running sums
+        double oldX = days[head];
+        double oldY = tempos[head];
+        sumX -= oldX;
+        sumY -= oldY;
+        sumXX -= oldX * oldX;
+        sumXY -= oldX * oldY;
+      } else {
+        size++;
+      }
+      long x = day - originDay;
+      days[head] = x;
+      tempos[head] = tempo;
+      head = (head + 1) % days.length;
+      sumX += x;
+      sumY += tempo;
+      sumXX += (double) x * x;
+      sumXY += (double) x * tempo;
+    }
+
+    double slope() {
+      double denominator = size * sumXX - sumX * sumX;
+      // All samples on the same day give no trend
+      return size < 2 || denominator < 1e-9 ? 0.0 : (size * sumXY - sumX * sumY) / denominator;
+    }
+
+    TempoProgress snapshot(String name) {
+      double slope = slope();
+      Integer daysToTarget;
+      if (ewma >= target) {
+        daysToTarget = 0;
+      } else if (slope > 0) {
+        daysToTarget = (int) Math.ceil((target - ewma) / slope);
+      } else {
+        daysToTarget = null;
+      }
+      return new TempoProgress(name, target, ewma, best, latest,
+          LocalDate.ofEpochDay(latestDay), count, slope, daysToTarget);
+    }
+  }
+
+
+
+  /**
+   * Read-only snapshot of one exercise's tempo progress.
+   */
+  public static final class TempoProgress {
+
+    private final String exerciseName;
+    private final int targetTempoBpm;
+    private final double ewmaTempoBpm;
+    private final int bestTempoBpm;
+    private final int latestTempoBpm;
+    private final LocalDate latestDate;
+    private final long sampleCount;
+    private final double trendBpmPerDay;
+    private final Integer daysToTarget;
+
+    private TempoProgress(String exerciseName, int targetTempoBpm, double ewmaTempoBpm,
+                          int bestTempoBpm, int latestTempoBpm, LocalDate latestDate,
+                          long sampleCount, double trendBpmPerDay, Integer daysToTarget) {
+      this.exerciseName = exerciseName;
+      this.targetTempoBpm = targetTempoBpm;
+      this.ewmaTempoBpm = ewmaTempoBpm;
+      this.bestTempoBpm = bestTempoBpm;
+      this.latestTempoBpm = latestTempoBpm;
+      this.latestDate = latestDate;
+      this.sampleCount = sampleCount;
+      this.trendBpmPerDay = trendBpmPerDay;
+      this.daysToTarget = daysToTarget;
+    }
+
+    /**
+     * Returns the exercise name.
+     *
+     * @return the name
+     */
+    public String getExerciseName() {
+      return exerciseName;
+    }
+
+    /**
+     * Returns the exercise's target tempo.
+     *
+     * @return target tempo in BPM
+     */
+    public int getTargetTempoBpm() {
+      return targetTempoBpm;
+    }
+
+    /**
+     * Returns the exponentially weighted moving average of recorded tempos.
+     *
+     * @return smoothed tempo in BPM
+     */
+    public double getEwmaTempoBpm() {
+      return ewmaTempoBpm;
+    }
+
+    /**
+     * Returns the fastest tempo recorded.
+     *
+     * @return best tempo in BPM
+     */
+    public int getBestTempoBpm() {
+      return bestTempoBpm;
+    }
+
+    /**
+     * Returns the most recently recorded tempo.
+     *
+     * @return latest tempo in BPM
+     */
+    public int getLatestTempoBpm() {
+      return latestTempoBpm;
+    }
+
+    /**
+     * Returns the date of the most recent sample.
+     *
+     * @return latest practice date
+     */
+    public LocalDate getLatestDate() {
+      return latestDate;
+    }
+
+    /**
+     * Returns how many tempo samples have been recorded.
+     *
+     * @return sample count
+     */
+    public long getSampleCount() {
+      return sampleCount;
+    }
+
+    /**
+     * Returns the least squares tempo trend over the recent sample window.
+     *
+     * @return BPM gained per day; 0 when there is no trend yet
+     */
+    public double getTrendBpmPerDay() {
+      return trendBpmPerDay;
+    }
+
+    /**
+     * Returns the estimated days until the smoothed tempo reaches the
+     * target at the current trend, counted from the latest sample.
+     *
+     * @return days left, 0 if already at target, or null if tempo is not improving
+     */
+    public Integer getDaysToTarget() {
+      return daysToTarget;
+    }
+  }
+}
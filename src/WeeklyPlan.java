@@ -1,32 +1,18 @@
-import java.util.Collections;
 import java.util.List;
 
-public class WeeklyPlan {
-
-  private final List<Exercise> exercises;
-  private final int[][] minutes;
+/**
+ * A one-week {@link PracticePlan}, Monday through Sunday.
+ */
+public class WeeklyPlan extends PracticePlan {
 
   public WeeklyPlan(List<Exercise> exercises, int[][] minutes) {
-    if(exercises == null || minutes == null) {
-      throw new IllegalArgumentException("arguments must not be null");
-    }
-    this.exercises = List.copyOf(exercises);
-    this.minutes = minutes;
+    super(exercises, checkWeek(minutes));
   }
 
-  public List<Exercise> getExercises() {
-    return Collections.unmodifiableList(exercises);
-  }
-
-  public int getMinutes(int dayIndex, int exerciseIndex) {
-    return minutes[dayIndex][exerciseIndex];
-  }
-
-  public int getDays() {
-    return 7;
-  }
-
-  public int getExerciseCount() {
-    return exercises.size();
+  private static int[][] checkWeek(int[][] minutes) {
+    if(minutes != null && minutes.length != PlanGenerator.DAYS.length) {
+      throw new IllegalArgumentException("a weekly plan must have 7 days");
+    }
+    return minutes;
   }
 }
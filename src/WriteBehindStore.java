@@ -0,0 +1,293 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind layer in front of {@link JsonStore} that turns many saves into
+ * few disk writes.
+ *
+ * {@link #save} only records that a session should be written to a file and
+ * returns at once. Saving the same file again before it is written replaces
+ * the pending save, so a burst of edits costs one write. Pending saves are
+ * written together by a background thread every flush interval, or sooner
+ * once the number of distinct pending files reaches the size threshold. A
+ * JVM shutdown hook writes whatever is still pending when the process exits.
+ * Every write goes through {@link JsonStore#save}, which replaces files
+ * atomically.
+ *
+ * Pending saves hold the session itself, so the file gets the session as it
+ * is when the write happens, including entries added after the save call.
+ * A failed write stays pending and is retried at the next flush. After
+ * {@value #MAX_ATTEMPTS} failed writes in a row the save is dropped and
+ * reported once to the {@link ErrorHandler}, or to standard error if there
+ * is none. The final flush at close or exit drops and reports every failure
+ * at once, and at exit also prints it, since there may be nothing left to
+ * show a report.
+ *
+ * HAS-A: WriteBehindStore has a JsonStore, the pending saves and failed attempts by file,
+ *     and a flush thread
+ */
+public class WriteBehindStore implements Closeable {
+
+  public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 2_000;
+  public static final int DEFAULT_MAX_PENDING = 64;
+  public static final int MAX_ATTEMPTS = 3;
+
+  /**
+   * Receives failed background writes, on the flushing thread.
+   */
+  @FunctionalInterface
+  public interface ErrorHandler {
+
+    /**
+     * Called once when a pending session could not be written and has been
+     * given up. The session is no longer pending; saving it again retries.
+     *
+     * @param file the file that was being written
+     * @param error why the write failed
+     */
+    void onError(Path file, IOException error);
+  }
+
+  private final JsonStore store;
+  private final int maxPending;
+  private final Map<Path, Session> pending = new ConcurrentHashMap<>();
+  // Consecutive failed writes per file; only touched while flushing
+  private final Map<Path, Integer> failures = new HashMap<>();
+  private final ScheduledExecutorService flusher;
+  private final Thread shutdownHook;
+  // Set while a size-triggered flush is queued, so a burst queues only one
+  private final AtomicBoolean flushQueued = new AtomicBoolean();
+  private final AtomicLong writes = new AtomicLong();
+
+  private volatile ErrorHandler errorHandler;
+  private volatile boolean closed;
+
+
+
+  /**
+   * Creates a write-behind store with the default interval and threshold.
+   *
+   * @param store the store sessions are written through
+   */
+  public WriteBehindStore(JsonStore store) {
+    this(store, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_PENDING);
+  }
+
+
+
+  /**
+   * Creates a write-behind store and registers its shutdown hook.
+   *
+   * @param store the store sessions are written through
+   * @param flushIntervalMillis how often pending saves are written
+   * @param maxPending number of distinct pending files that triggers an early flush
+   * @throws IllegalArgumentException if store is null or a number is not positive
+   */
+  public WriteBehindStore(JsonStore store, long flushIntervalMillis, int maxPending) {
+    if (store == null) {
+      throw new IllegalArgumentException("store must not be null");
+    }
+    if (flushIntervalMillis <= 0 || maxPending <= 0) {
+      throw new IllegalArgumentException("flushIntervalMillis and maxPending must be > 0");
+    }
+    this.store = store;
+    this.maxPending = maxPending;
+    this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "write-behind-flusher");
+      t.setDaemon(true);
+      return t;
+    });
+    flusher.scheduleWithFixedDelay(() -> flushQuietly(false),
+        flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+    this.shutdownHook = new Thread(() -> flushQuietly(true), "write-behind-shutdown");
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+  }
+
+
+
+  /**
+   * Sets the handler told about saves given up after failed writes. Without
+   * one, they are printed to standard error.
+   *
+   * @param handler the handler, or null
+   */
+  public void setErrorHandler(ErrorHandler handler) {
+    this.errorHandler = handler;
+  }
+
+
+
+  /**
+   * Queues a session to be written to a file. Replaces any save of the same
+   * file that has not been written yet.
+   *
+   * @param session the session to save
+   * @param file the file to write
+   * @throws IllegalArgumentException if an argument is null
+   * @throws IllegalStateException if the store has been closed
+   */
+  public void save(Session session, Path file) {
+    if (session == null || file == null) {
+      throw new IllegalArgumentException("arguments must not be null");
+    }
+    if (closed) {
+      throw new IllegalStateException("store is closed");
+    }
+    pending.put(file.toAbsolutePath().normalize(), session);
+    if (pending.size() >= maxPending && flushQueued.compareAndSet(false, true)) {
+      try {
+        flusher.execute(() -> {
+          flushQueued.set(false);
+          flushQuietly(false);
+        });
+      } catch (RejectedExecutionException e) {
+        // Closing; close() writes everything still pending
+      }
+    }
+  }
+
+
+
+  /**
+   * Writes every pending save now.
+   *
+   * @throws IOException the first write that failed; every other file is
+   *     still attempted, and failed ones stay pending until they have failed
+   *     {@value #MAX_ATTEMPTS} times
+   */
+  public void flush() throws IOException {
+    flush(false, false);
+  }
+
+
+
+  /**
+   * Returns the number of files waiting to be written.
+   *
+   * @return pending file count
+   */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+
+
+  /**
+   * Returns the number of files written so far.
+   *
+   * @return completed write count
+   */
+  public long getWriteCount() {
+    return writes.get();
+  }
+
+
+
+  /**
+   * Stops the flush thread, writes every pending save, and removes the
+   * shutdown hook. Later saves are rejected.
+   *
+   * @throws IOException if a pending save could not be written; every such
+   *     save has been given up and reported
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+    } catch (IllegalStateException e) {
+      // Already shutting down; the hook is running or has run
+    }
+    flush(true, false);
+  }
+
+
+
+  /**
+   * Writes every pending save, counting each failure against its file.
+   *
+   * @param last whether no flush follows, so every failure is given up
+   * @param atExit whether the JVM is exiting, so failures are also printed
+   * @throws IOException the first write that failed
+   */
+  private synchronized void flush(boolean last, boolean atExit) throws IOException {
+    IOException first = null;
+    List<Path> files = new ArrayList<>(pending.keySet());
+    for (Path file : files) {
+      Session session = pending.remove(file);
+      if (session == null) {
+        continue;
+      }
+      try {
+        store.save(session, file);
+        failures.remove(file);
+        writes.incrementAndGet();
+      } catch (IOException e) {
+        int attempts = failures.merge(file, 1, Integer::sum);
+        if (last || attempts >= MAX_ATTEMPTS) {
+          failures.remove(file);
+          report(file, e, atExit);
+        } else {
+          // A newer save of the same file wins over the failed one
+          pending.putIfAbsent(file, session);
+        }
+        if (first == null) {
+          first = e;
+        }
+      }
+    }
+    if (first != null) {
+      throw first;
+    }
+  }
+
+
+
+  // Tells the handler about a save that was given up
+  private void report(Path file, IOException error, boolean atExit) {
+    ErrorHandler handler = errorHandler;
+    if (handler != null) {
+      handler.onError(file, error);
+    }
+    if (handler == null || atExit) {
+      System.err.println("Could not write " + file + ": " + error.getMessage());
+    }
+  }
+
+
+
+  // Background flushes have no caller to report to; given up saves have
+  // already been reported and the rest are retried at the next flush
+  private void flushQuietly(boolean atExit) {
+    try {
+      flush(atExit, atExit);
+    } catch (IOException e) {
+      // Reported by flush
+    } catch (RuntimeException e) {
+      // Thrown out of a scheduled task it would cancel every later flush
+      System.err.println("Write-behind flush failed: " + e);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySessionCodecTest {
+
+  private static List<Session> sampleSessions() {
+    Exercise scales = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+    Exercise song = new SongExercise("Repertoire", 20, "Misty", "Erroll Garner");
+    List<Session> sessions = new ArrayList<>();
+    for (int day = 0; day < 30; day++) {
+      Session session = new Session(LocalDate.of(1969, 12, 20).plusDays(day));
+      session.addEntry(new SessionEntry(scales, 15, 80 + day, "Clean tone"));
+      session.addEntry(new SessionEntry(song, 300, null, null));
+      sessions.add(session);
+    }
+    return sessions;
+  }
+
+  @Test
+  void writeAndReadRoundTrip() throws Exception {
+    List<Session> sessions = sampleSessions();
+    BinarySessionCodec codec = new BinarySessionCodec();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.write(sessions, out);
+    List<Session> loaded = codec.read(new ByteArrayInputStream(out.toByteArray()));
+
+    assertEquals(sessions.size(), loaded.size());
+    for (int i = 0; i < sessions.size(); i++) {
+      Session expected = sessions.get(i);
+      Session actual = loaded.get(i);
+      assertEquals(expected.getDate(), actual.getDate());
+      assertEquals(expected.getTotalMinutes(), actual.getTotalMinutes());
+      for (int e = 0; e < expected.getEntries().size(); e++) {
+        SessionEntry a = expected.getEntries().get(e);
+        SessionEntry b = actual.getEntries().get(e);
+        assertEquals(a.getAverageTempoBpm(), b.getAverageTempoBpm());
+        assertEquals(a.getNotes(), b.getNotes());
+        assertEquals(a.getExercise().getName(), b.getExercise().getName());
+        assertEquals(a.getExercise().getClass(), b.getExercise().getClass());
+      }
+    }
+    assertSame(loaded.get(0).getEntries().get(0).getExercise(),
+        loaded.get(1).getEntries().get(0).getExercise());
+  }
+
+  @Test
+  void convertsBetweenJsonAndBinary() throws Exception {
+    List<Session> sessions = sampleSessions();
+    JsonStore store = new JsonStore();
+    BinarySessionCodec codec = new BinarySessionCodec(store);
+
+    Path json = Files.createTempFile("history-", ".json");
+    Path binary = Files.createTempFile("history-", ".ptsb");
+    Path back = Files.createTempFile("history-back-", ".json");
+    json.toFile().deleteOnExit();
+    binary.toFile().deleteOnExit();
+    back.toFile().deleteOnExit();
+
+    store.saveAll(sessions, json);
+    codec.convertJsonToBinary(json, binary);
+    codec.convertBinaryToJson(binary, back);
+
+    assertTrue(BinarySessionCodec.isBinaryFile(binary));
+    assertFalse(BinarySessionCodec.isBinaryFile(json));
+    assertTrue(Files.size(binary) < Files.size(json));
+    assertEquals(Files.readString(json), Files.readString(back));
+  }
+
+  @Test
+  void rejectsUnknownVersion() {
+    byte[] data = {'P', 'T', 'S', 'B', 99, 0, 0};
+    BinarySessionCodec codec = new BinarySessionCodec();
+
+    assertThrows(ValidationException.class,
+        () -> codec.read(new ByteArrayInputStream(data)));
+  }
+
+  @Test
+  void rejectsTruncatedData() throws Exception {
+    BinarySessionCodec codec = new BinarySessionCodec();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.write(sampleSessions(), out);
+    byte[] bytes = out.toByteArray();
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+    assertThrows(ValidationException.class,
+        () -> codec.read(new ByteArrayInputStream(truncated)));
+  }
+
+  @Test
+  void forgedHugeCountsAreRejectedWithoutAllocating() {
+    BinarySessionCodec codec = new BinarySessionCodec();
+    // Integer.MAX_VALUE as a varint
+    byte[] huge = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+    byte[][] forged = {
+        concat(huge),                           // string count
+        concat(new byte[] {1}, huge),           // string length
+        concat(new byte[] {0}, huge),           // exercise count
+        concat(new byte[] {0, 0}, huge),        // session count
+        concat(new byte[] {0, 0, 1, 0}, huge),  // entry count
+    };
+
+    for (byte[] body : forged) {
+      byte[] data = concat(new byte[] {'P', 'T', 'S', 'B', BinarySessionCodec.VERSION}, body);
+      assertThrows(ValidationException.class,
+          () -> codec.read(new ByteArrayInputStream(data)));
+    }
+  }
+
+  @Test
+  void numbersTooLargeForAnIntAreRejected() {
+    BinarySessionCodec codec = new BinarySessionCodec();
+    // 2^32 + 5, which a cast to int would silently turn into 5
+    byte[] oversized = {(byte) 0x85, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10};
+    byte[] strings = {1, 1, 'a'};
+    byte[] header = {'P', 'T', 'S', 'B', BinarySessionCodec.VERSION};
+    byte[][] forged = {
+        // A song whose target minutes are too large
+        concat(header, strings, new byte[] {1, 2, 0}, oversized, new byte[] {0, 0, 0}),
+        // An entry whose minutes are too large
+        concat(header, strings, new byte[] {1, 2, 0, 5, 0, 0, 1, 0, 1, 0}, oversized,
+            new byte[] {0, 0}),
+    };
+
+    for (byte[] data : forged) {
+      assertThrows(ValidationException.class,
+          () -> codec.read(new ByteArrayInputStream(data)));
+    }
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      out.writeBytes(part);
+    }
+    return out.toByteArray();
+  }
+}
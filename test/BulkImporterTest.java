@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkImporterTest {
+
+  @Test
+  void importsDirectoryInDateOrderAndReportsFailures() throws Exception {
+    Path dir = Files.createTempDirectory("import-");
+    JsonStore store = new JsonStore();
+    Exercise exercise = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+
+    // Written in reverse date order so the importer has to sort
+    for (int i = 0; i < 20; i++) {
+      Session s = new Session(LocalDate.of(2025, 1, 20).minusDays(i));
+      s.addEntry(new SessionEntry(exercise, i + 1, null, null));
+      store.save(s, dir.resolve("session-" + i + ".json"));
+    }
+    Files.writeString(dir.resolve("broken.json"), "not json");
+    Files.writeString(dir.resolve("notes.txt"), "ignored");
+
+    AtomicInteger lastProgress = new AtomicInteger();
+    BulkImporter importer = new BulkImporter(new ExerciseCatalog(), 4);
+    BulkImporter.Result result = importer.importDirectory(dir, BulkImporter.DEFAULT_GLOB,
+        (completed, total) -> lastProgress.accumulateAndGet(completed, Math::max));
+
+    List<Session> sessions = result.getSessions();
+    assertEquals(20, sessions.size());
+    for (int i = 1; i < sessions.size(); i++) {
+      assertTrue(sessions.get(i - 1).getDate().isBefore(sessions.get(i).getDate()));
+    }
+    assertEquals(21, lastProgress.get());
+
+    assertEquals(1, result.getFailures().size());
+    assertInstanceOf(ValidationException.class,
+        result.getFailures().get(dir.resolve("broken.json")));
+
+    // Exercises are interned across files through the shared catalog
+    assertSame(sessions.get(0).getEntries().get(0).getExercise(),
+        sessions.get(19).getEntries().get(0).getExercise());
+  }
+
+  @Test
+  void cancelledImportSkipsRemainingFiles() throws Exception {
+    Path dir = Files.createTempDirectory("import-cancel-");
+    JsonStore store = new JsonStore();
+    for (int i = 0; i < 5; i++) {
+      store.save(new Session(LocalDate.of(2025, 1, 1).plusDays(i)), dir.resolve(i + ".json"));
+    }
+
+    BulkImporter.Result result = new BulkImporter().importDirectory(dir, BulkImporter.DEFAULT_GLOB,
+        new BulkImporter.ProgressListener() {
+          @Override
+          public void onProgress(int completed, int total) {
+          }
+
+          @Override
+          public boolean isCancelled() {
+            return true;
+          }
+        });
+
+    assertTrue(result.isCancelled());
+    assertTrue(result.getSessions().isEmpty());
+    assertTrue(result.getFailures().isEmpty());
+  }
+}
@@ -0,0 +1,109 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarArchiveTest {
+
+  private static long sum(long[] values) {
+    long total = 0;
+    for (long v : values) {
+      total += v;
+    }
+    return total;
+  }
+
+  @Test
+  void buildAndQueryMonthlyTotals() throws Exception {
+    Exercise exercise = new ArpeggioExercise("Arpeggios", 10, "Cmaj7", 100);
+    List<Session> history = new ArrayList<>();
+    // Jan 30 .. Feb 28 2024, 10 minutes a day
+    for (int day = 0; day < 30; day++) {
+      Session s = new Session(LocalDate.of(2024, 1, 30).plusDays(day));
+      s.addEntry(new SessionEntry(exercise, 10, 100 + day, null));
+      history.add(s);
+    }
+    Session extra = new Session(LocalDate.of(2024, 3, 5));
+    extra.addEntry(new SessionEntry(exercise, 45, null, "long session"));
+
+    JsonStore store = new JsonStore();
+    Path historyFile = Files.createTempFile("history-", ".json");
+    Path extraFile = Files.createTempFile("extra-", ".json");
+    historyFile.toFile().deleteOnExit();
+    extraFile.toFile().deleteOnExit();
+    store.saveAll(history, historyFile);
+    store.save(extra, extraFile);
+
+    Path dir = Files.createTempDirectory("archive-");
+    ColumnarArchive built = ColumnarArchive.build(List.of(historyFile, extraFile), dir, store);
+    ColumnarArchive archive = ColumnarArchive.open(dir);
+
+    assertEquals(31, built.getRowCount());
+    assertEquals(31, archive.getRowCount());
+
+    long[][] monthly = archive.totalMinutesByExerciseAndMonth(
+        YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+    assertEquals(20, sum(monthly[0]));
+    assertEquals(280, sum(monthly[1]));
+    assertEquals(45, sum(monthly[2]));
+
+    long[] february = archive.totalMinutesByExercise(
+        LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+    assertEquals(280, sum(february));
+    assertEquals(1, archive.getExerciseCount());
+    assertEquals(280, february[archive.getExerciseId("Arpeggios")]);
+  }
+
+  @Test
+  void monthIndexMatchesLocalDate() {
+    for (int day = -800_000; day < 800_000; day += 37) {
+      LocalDate date = LocalDate.ofEpochDay(day);
+      assertEquals(date.getYear() * 12 + date.getMonthValue() - 1, ColumnarArchive.monthIndex(day));
+    }
+  }
+
+  @Test
+  void openRejectsInvalidMetadata() throws Exception {
+    Path dir = Files.createTempDirectory("empty-archive-");
+    Files.write(dir.resolve("archive.meta"), new byte[] {1, 2, 3, 4});
+
+    assertThrows(ValidationException.class, () -> ColumnarArchive.open(dir));
+
+    // A forged exercise count is rejected before anything is allocated
+    for (int count : new int[] {-1, Integer.MAX_VALUE}) {
+      ByteBuffer meta = ByteBuffer.allocate(17);
+      meta.putInt(0x50544341).putInt(1).putInt(0).put((byte) 1).putInt(count);
+      Files.write(dir.resolve("archive.meta"), meta.array());
+      assertThrows(ValidationException.class, () -> ColumnarArchive.open(dir));
+    }
+  }
+
+  @Test
+  void exercisesThatShareANameKeepSeparateIds() throws Exception {
+    Exercise slow = new ScaleExercise("Scales", 10, "Major", "C", 60);
+    Exercise fast = new ScaleExercise("Scales", 10, "Minor", "A", 120);
+    Session session = new Session(LocalDate.of(2024, 5, 1));
+    session.addEntry(new SessionEntry(slow, 10, null, null));
+    session.addEntry(new SessionEntry(fast, 25, null, null));
+
+    JsonStore store = new JsonStore();
+    Path file = Files.createTempFile("same-name-", ".json");
+    file.toFile().deleteOnExit();
+    store.save(session, file);
+
+    ColumnarArchive archive = ColumnarArchive.build(List.of(file),
+        Files.createTempDirectory("archive-"), store);
+    assertEquals(2, archive.getExerciseCount());
+    long[] totals = archive.totalMinutesByExercise(session.getDate(), session.getDate());
+    assertEquals(10, totals[0]);
+    assertEquals(25, totals[1]);
+    assertEquals(0, archive.getExerciseId("Scales"));
+  }
+}
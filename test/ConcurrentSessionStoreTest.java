@@ -0,0 +1,138 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentSessionStoreTest {
+
+  private static final Exercise SCALES = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+  private static final Exercise SONG = new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson");
+
+  @Test
+  void contendedWritersToOneSessionLoseNothingAndReadersSeeConsistentSnapshots() throws Exception {
+    int writers = 8;
+    int perWriter = 5_000;
+    Session session = new Session(LocalDate.of(2025, 1, 1));
+    ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean writing = new AtomicBoolean(true);
+
+    List<Future<?>> done = new ArrayList<>();
+    for (int w = 0; w < writers; w++) {
+      // Each writer tags its entries with its own tempo so they can be counted afterwards
+      int tempo = 60 + w;
+      Exercise exercise = w % 2 == 0 ? SCALES : SONG;
+      done.add(pool.submit(() -> {
+        start.await();
+        for (int i = 0; i < perWriter; i++) {
+          session.addEntry(new SessionEntry(exercise, 1, tempo, null));
+        }
+        return null;
+      }));
+    }
+    Future<Integer> reader = pool.submit(() -> {
+      start.await();
+      int checks = 0;
+      int lastSize = 0;
+      while (writing.get()) {
+        SessionStats stats = session.getStats();
+        // Every entry is one minute, so a torn snapshot would break this
+        assertEquals(stats.getEntryCount(), stats.getTotalMinutes());
+        assertEquals(stats.getTotalMinutes(),
+            stats.getMinutesForCategory("Scale") + stats.getMinutesForCategory("Song"));
+
+        List<SessionEntry> entries = session.getEntries();
+        assertTrue(entries.size() >= lastSize);
+        lastSize = entries.size();
+        int minutes = 0;
+        for (SessionEntry e : entries) {
+          minutes += e.getMinutesPracticed();
+        }
+        assertEquals(entries.size(), minutes);
+        checks++;
+      }
+      return checks;
+    });
+
+    start.countDown();
+    for (Future<?> f : done) {
+      f.get(1, TimeUnit.MINUTES);
+    }
+    writing.set(false);
+    assertTrue(reader.get(1, TimeUnit.MINUTES) > 0);
+    pool.shutdown();
+
+    assertEquals(writers * perWriter, session.getEntries().size());
+    assertEquals(writers * perWriter, session.getTotalMinutes());
+    int[] perTempo = new int[writers];
+    for (SessionEntry e : session.getEntries()) {
+      perTempo[e.getAverageTempoBpm() - 60]++;
+    }
+    for (int count : perTempo) {
+      assertEquals(perWriter, count);
+    }
+    assertEquals(60, session.getStats().getMinTempoBpm());
+    assertEquals(60 + writers - 1, session.getStats().getMaxTempoBpm());
+  }
+
+  @Test
+  void racingWritersShareOneSessionPerDate() throws Exception {
+    int threads = 8;
+    int days = 20;
+    ConcurrentSessionStore store = new ConcurrentSessionStore();
+    LocalDate first = LocalDate.of(2025, 3, 1);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+
+    List<Future<?>> done = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      done.add(pool.submit(() -> {
+        start.await();
+        for (int i = 0; i < 1_000; i++) {
+          store.addEntry(first.plusDays(i % days), new SessionEntry(SCALES, 2, null, null));
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> f : done) {
+      f.get(1, TimeUnit.MINUTES);
+    }
+    pool.shutdown();
+
+    assertEquals(days, store.size());
+    int minutes = 0;
+    for (Session s : store.getAll()) {
+      assertEquals(threads * 1_000 / days, s.getEntries().size());
+      minutes += s.getTotalMinutes();
+    }
+    assertEquals(threads * 1_000 * 2, minutes);
+    assertEquals(5, store.getBetween(first, first.plusDays(4)).size());
+    assertTrue(store.getBetween(first.plusDays(4), first).isEmpty());
+  }
+
+  @Test
+  void addAllMergesIntoTheStoredSession() {
+    ConcurrentSessionStore store = new ConcurrentSessionStore();
+    LocalDate day = LocalDate.of(2025, 4, 1);
+    Session loaded = new Session(day);
+    loaded.addEntry(new SessionEntry(SCALES, 10, 90, "from file"));
+
+    store.addEntry(day, new SessionEntry(SONG, 5, null, null));
+    store.addAll(loaded);
+
+    assertNotSame(loaded, store.get(day));
+    assertEquals(15, store.get(day).getTotalMinutes());
+    assertSame(store.get(day), store.getOrCreate(day));
+    assertNull(store.get(day.plusDays(1)));
+  }
+}
@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExerciseCatalogTest {
+
+  @Test
+  void equalExercisesShareOneId() {
+    ExerciseCatalog catalog = new ExerciseCatalog();
+    Exercise a = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+    Exercise b = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+    Exercise c = new ScaleExercise("Major Scales", 15, "Major", "G", 90);
+
+    int idA = catalog.register(a);
+
+    assertEquals(idA, catalog.register(b));
+    assertNotEquals(idA, catalog.register(c));
+    assertSame(a, catalog.intern(b));
+    assertEquals(2, catalog.size());
+  }
+
+  @Test
+  void freshCopiesResolveToTheCatalogInstance() {
+    ExerciseCatalog catalog = new ExerciseCatalog();
+    Exercise first = new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson");
+    catalog.register(first);
+
+    // Like a server parsing a new Exercise for every request
+    for (int i = 0; i < 10_000; i++) {
+      Exercise copy = new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson");
+      assertSame(first, catalog.intern(copy));
+    }
+    assertEquals(1, catalog.size());
+    assertFalse(ExerciseCatalog.keyOf(first).contains("\n"));
+  }
+
+  @Test
+  void saveAndLoadPreservesTypesAndIds() throws Exception {
+    ExerciseCatalog catalog = new ExerciseCatalog();
+    catalog.register(new ScaleExercise("Major Scales", 15, "Major", "C", 90));
+    catalog.register(new ArpeggioExercise("Arpeggios", 10, "Cmaj7", 100));
+    catalog.register(new SongExercise("Repertoire", 20, "Fade To Black", "Metallica"));
+
+    Path file = Files.createTempFile("catalog-", ".json");
+    file.toFile().deleteOnExit();
+    catalog.save(file);
+    ExerciseCatalog loaded = ExerciseCatalog.load(file);
+
+    assertEquals(3, loaded.size());
+    ArpeggioExercise arpeggio = assertInstanceOf(ArpeggioExercise.class, loaded.get(1));
+    assertEquals("Cmaj7", arpeggio.getChordSymbol());
+    assertEquals(100, arpeggio.getTargetTempoBpm());
+    SongExercise song = assertInstanceOf(SongExercise.class, loaded.get(2));
+    assertEquals("Metallica", song.getArtist());
+  }
+
+  @Test
+  void loadRejectsUnknownExerciseType() throws Exception {
+    Path file = Files.createTempFile("catalog-bad-", ".json");
+    file.toFile().deleteOnExit();
+    Files.writeString(file, "[{\"type\":\"Drum\",\"name\":\"Rudiments\",\"targetMinutesPerDay\":5}]");
+
+    assertThrows(ValidationException.class, () -> ExerciseCatalog.load(file));
+  }
+}
@@ -4,7 +4,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -64,4 +67,127 @@ public class JsonStoreTest {
 
     assertThrows(ValidationException.class, () -> store.load(file));
   }
+
+  @Test
+  void exerciseFieldsOfTheWrongShapeThrowValidationException() {
+    JsonStore store = new JsonStore();
+    String entry = "{\"exercise\":%s,\"minutesPracticed\":5}";
+
+    assertThrows(ValidationException.class, () -> store.entryFromJson(String.format(entry,
+        "{\"type\":\"Song\",\"name\":{\"a\":1},\"targetMinutesPerDay\":5,"
+            + "\"songTitle\":\"t\",\"artist\":\"a\"}")));
+    assertThrows(ValidationException.class, () -> store.entryFromJson(String.format(entry,
+        "{\"type\":\"Song\",\"name\":\"n\",\"targetMinutesPerDay\":[1,2],"
+            + "\"songTitle\":\"t\",\"artist\":\"a\"}")));
+    assertThrows(ValidationException.class, () -> store.entryFromJson(String.format(entry,
+        "{\"type\":[\"Song\"],\"name\":\"n\",\"targetMinutesPerDay\":5,"
+            + "\"songTitle\":\"t\",\"artist\":\"a\"}")));
+  }
+
+  @Test
+  void saveAllAndStreamRoundTripManySessions() throws Exception {
+    Exercise exercise = new SongExercise("Repertoire", 20, "Misty", "Erroll Garner");
+    List<Session> sessions = new ArrayList<>();
+    for (int day = 0; day < 50; day++) {
+      Session session = new Session(LocalDate.of(2024, 1, 1).plusDays(day));
+      session.addEntry(new SessionEntry(exercise, 10 + day, null, "day " + day));
+      sessions.add(session);
+    }
+
+    JsonStore store = new JsonStore();
+    Path file = Files.createTempFile("history-", ".json");
+    file.toFile().deleteOnExit();
+
+    store.saveAll(sessions, file);
+
+    List<Session> loaded;
+    try (Stream<Session> stream = store.stream(file)) {
+      loaded = stream.collect(Collectors.toList());
+    }
+
+    assertEquals(50, loaded.size());
+    for (int i = 0; i < sessions.size(); i++) {
+      assertEquals(sessions.get(i).getDate(), loaded.get(i).getDate());
+      assertEquals(sessions.get(i).getTotalMinutes(), loaded.get(i).getTotalMinutes());
+      assertEquals("day " + i, loaded.get(i).getEntries().get(0).getNotes());
+    }
+  }
+
+  @Test
+  void readerAcceptsSingleSessionFile() throws Exception {
+    Session session = new Session(LocalDate.of(2025, 3, 1));
+    session.addEntry(new SessionEntry(
+        new ArpeggioExercise("Arpeggios", 10, "Cmaj7", 100), 12, 100, null));
+
+    JsonStore store = new JsonStore();
+    Path file = Files.createTempFile("single-", ".json");
+    file.toFile().deleteOnExit();
+    store.save(session, file);
+
+    try (JsonStore.SessionReader reader = store.openReader(file)) {
+      Session loaded = reader.read();
+      assertEquals(session.getDate(), loaded.getDate());
+      assertEquals(12, loaded.getTotalMinutes());
+      assertNull(reader.read());
+      assertFalse(reader.hasNext());
+    }
+  }
+
+  @Test
+  void streamingInvalidSessionThrowsValidationException() throws IOException {
+    JsonStore store = new JsonStore();
+    Path file = Files.createTempFile("bad-history-", ".json");
+    file.toFile().deleteOnExit();
+
+    Files.writeString(file, "[{\"date\":\"2025-01-01\",\"entries\":[]}, {\"entries\":[]}]");
+
+    try (JsonStore.SessionReader reader = store.openReader(file)) {
+      assertNotNull(assertDoesNotThrow(reader::read));
+      assertThrows(ValidationException.class, reader::read);
+    }
+  }
+
+  @Test
+  void loadRestoresExercisesAsSharedInstances() throws Exception {
+    Exercise scale = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+    Exercise song = new SongExercise("Repertoire", 20, "Misty", "Erroll Garner");
+    Session session = new Session(LocalDate.of(2025, 4, 1));
+    session.addEntry(new SessionEntry(scale, 10, 80, null));
+    session.addEntry(new SessionEntry(song, 20, null, null));
+    session.addEntry(new SessionEntry(scale, 5, 85, null));
+
+    JsonStore store = new JsonStore();
+    Path file = Files.createTempFile("exercises-", ".json");
+    file.toFile().deleteOnExit();
+    store.save(session, file);
+
+    // A fresh store and catalog must rebuild the real exercises from the file
+    JsonStore fresh = new JsonStore();
+    List<SessionEntry> first = fresh.load(file).getEntries();
+    List<SessionEntry> second = fresh.load(file).getEntries();
+
+    ScaleExercise loadedScale = assertInstanceOf(ScaleExercise.class, first.get(0).getExercise());
+    assertEquals("Major Scales", loadedScale.getName());
+    assertEquals("C", loadedScale.getKey());
+    assertEquals(90, loadedScale.getTargetTempoBpm());
+    assertInstanceOf(SongExercise.class, first.get(1).getExercise());
+
+    assertSame(first.get(0).getExercise(), first.get(2).getExercise());
+    assertSame(first.get(0).getExercise(), second.get(0).getExercise());
+    assertEquals(2, fresh.getCatalog().size());
+  }
+
+  @Test
+  void loadAcceptsEntriesWithoutExercise() throws Exception {
+    JsonStore store = new JsonStore();
+    Path file = Files.createTempFile("legacy-", ".json");
+    file.toFile().deleteOnExit();
+    Files.writeString(file, "{\"date\":\"2025-01-01\",\"entries\":["
+        + "{\"minutesPracticed\":10},{\"minutesPracticed\":5}]}");
+
+    Session loaded = store.load(file);
+
+    assertEquals(15, loaded.getTotalMinutes());
+    assertSame(loaded.getEntries().get(0).getExercise(), loaded.getEntries().get(1).getExercise());
+  }
 }
@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotesIndexTest {
+
+  private static final Exercise SCALES = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+  private static final Exercise ETUDE = new ScaleExercise("Bach Etude", 20, "Minor", "A", 60);
+
+  private static Session session(LocalDate date, Exercise exercise, String notes) {
+    Session s = new Session(date);
+    s.addEntry(new SessionEntry(exercise, 10, null, notes));
+    return s;
+  }
+
+  @Test
+  void tokenizeSplitsOnNonWordCharactersAndLowerCases() {
+    assertEquals(List.of("left", "hand", "tension", "in", "bar", "12"),
+        NotesIndex.tokenize("Left-hand TENSION, in bar 12!"));
+    assertTrue(NotesIndex.tokenize(null).isEmpty());
+    assertTrue(NotesIndex.tokenize("  ... ").isEmpty());
+  }
+
+  @Test
+  void intersectFindsCommonDocuments() {
+    assertArrayEquals(new int[] {3, 40},
+        NotesIndex.intersect(new int[] {1, 3, 40}, new int[] {0, 2, 3, 5, 8, 13, 21, 34, 40, 55}));
+    assertArrayEquals(new int[0], NotesIndex.intersect(new int[] {7}, new int[] {1, 2, 3}));
+  }
+
+  @Test
+  void searchMatchesAllWordsWithLastWordAsPrefix() {
+    LocalDate day = LocalDate.of(2025, 3, 1);
+    Session late = session(day.plusDays(2), SCALES, "left hand tension again");
+    Session early = session(day, ETUDE, "Left hand tension in the trill");
+    Session other = session(day.plusDays(1), SCALES, "clean and relaxed");
+    NotesIndex index = new NotesIndex();
+    index.add(late);
+    index.add(early);
+    index.add(other);
+
+    // Results come back in date order, not insertion order
+    assertEquals(List.of(early, late), index.search("hand tension"));
+    assertEquals(List.of(early, late), index.search("left ten"));
+    assertEquals(List.of(early), index.search("tension tr"));
+    assertEquals(List.of(other, late), index.search("major"));
+    assertTrue(index.search("tension relaxed").isEmpty());
+    assertTrue(index.search("   ").isEmpty());
+    assertEquals(3, index.size());
+  }
+
+  @Test
+  void addEntryAndRemoveKeepTheIndexCurrent() {
+    LocalDate day = LocalDate.of(2025, 3, 1);
+    Session first = session(day, SCALES, "slow practice");
+    Session second = session(day.plusDays(1), SCALES, "metronome work");
+    NotesIndex index = new NotesIndex();
+    index.add(first);
+    index.add(second);
+
+    // The entry is added to the older session, so its postings go in out of order
+    index.addEntry(first, new SessionEntry(ETUDE, 5, 72, "metronome at 72"));
+    assertEquals(2, first.getEntries().size());
+    assertEquals(List.of(first, second), index.search("metronome"));
+    assertEquals(List.of(first), index.search("bach"));
+
+    index.remove(second);
+    assertEquals(List.of(first), index.search("metronome"));
+    assertEquals(1, index.size());
+
+    Session fresh = new Session(day.plusDays(2));
+    index.addEntry(fresh, new SessionEntry(SCALES, 5, null, "metronome"));
+    assertEquals(List.of(first, fresh), index.search("metro"));
+  }
+
+  @Test
+  void removedSessionsAreCompactedAway() {
+    NotesIndex index = new NotesIndex();
+    List<Session> sessions = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Session s = session(LocalDate.of(2025, 1, 1).plusDays(i), SCALES, i % 2 == 0 ? "even" : "odd");
+      sessions.add(s);
+      index.add(s);
+    }
+    for (int i = 0; i < 150; i++) {
+      index.remove(sessions.get(i));
+    }
+
+    assertTrue(index.getDocumentSlots() < 200);
+    assertEquals(50, index.size());
+    assertEquals(sessions.subList(150, 200), index.search("major"));
+    assertEquals(25, index.search("even").size());
+
+    // Renumbered documents keep taking new entries
+    index.addEntry(sessions.get(199), new SessionEntry(ETUDE, 5, null, "even now"));
+    assertEquals(26, index.search("even").size());
+  }
+
+  @Test
+  void tokenizeIgnoresTheDefaultLocale() {
+    Locale saved = Locale.getDefault();
+    Locale.setDefault(Locale.forLanguageTag("tr"));
+    try {
+      assertEquals(List.of("list"), NotesIndex.tokenize("LIST"));
+    } finally {
+      Locale.setDefault(saved);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanCacheTest {
+
+  private final PlanGenerator generator = new PlanGenerator();
+
+  private static List<Exercise> exercises(int scaleTempo) {
+    return List.of(
+        new ScaleExercise("Major Scales", 15, "Major", "C", scaleTempo),
+        new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson"));
+  }
+
+  @Test
+  void equalExerciseListsShareOneEntry() {
+    PlanCache cache = new PlanCache();
+    AtomicInteger generated = new AtomicInteger();
+
+    PlanCache.Entry first = cache.get(exercises(90), "weekly", list -> {
+      generated.incrementAndGet();
+      return generator.generate(list);
+    });
+    PlanCache.Entry second = cache.get(exercises(90), "weekly", list -> {
+      generated.incrementAndGet();
+      return generator.generate(list);
+    });
+
+    assertSame(first, second);
+    assertEquals(1, generated.get());
+    assertSame(first.getTableModel(), second.getTableModel());
+    assertEquals(7, first.getTableModel().getRowCount());
+    assertEquals(3, first.getTableModel().getColumnCount());
+  }
+
+  @Test
+  void changedExercisesOrParametersMiss() {
+    PlanCache cache = new PlanCache();
+    PlanCache.Entry weekly = cache.get(exercises(90), "weekly", generator::generate);
+
+    assertNotSame(weekly, cache.get(exercises(100), "weekly", generator::generate));
+    assertNotSame(weekly, cache.get(exercises(90), "weeks=2", list -> generator.generate(list, 2)));
+    assertEquals(3, cache.size());
+    assertNotEquals(PlanCache.fingerprint(exercises(90), "a"), PlanCache.fingerprint(exercises(90), "b"));
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedAndInvalidates() {
+    PlanCache cache = new PlanCache(2);
+    PlanCache.Entry a = cache.get(exercises(60), "weekly", generator::generate);
+    cache.get(exercises(70), "weekly", generator::generate);
+    // Touch a so the 70 plan is the eldest
+    assertSame(a, cache.get(exercises(60), "weekly", generator::generate));
+    cache.get(exercises(80), "weekly", generator::generate);
+
+    assertEquals(2, cache.size());
+    assertSame(a, cache.get(exercises(60), "weekly", generator::generate));
+
+    cache.invalidate(new ScaleExercise("Major Scales", 15, "Major", "C", 60));
+    assertEquals(1, cache.size());
+    assertNotSame(a, cache.get(exercises(60), "weekly", generator::generate));
+  }
+}
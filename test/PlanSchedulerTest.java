@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanSchedulerTest {
+
+  private static int dayTotal(WeeklyPlan plan, int day) {
+    int total = 0;
+    for (int ex = 0; ex < plan.getExerciseCount(); ex++) {
+      total += plan.getMinutes(day, ex);
+    }
+    return total;
+  }
+
+  @Test
+  void equalExercisesRotateThroughTheWeek() {
+    List<Exercise> exercises = List.of(
+        new ScaleExercise("Scales", 30, "Major", "C", 90),
+        new ArpeggioExercise("Arpeggios", 30, "Cmaj7", 100),
+        new SongExercise("Repertoire", 30, "Blue Bossa", "Joe Henderson"));
+
+    WeeklyPlan plan = new PlanGenerator().generate(exercises, PlanConstraints.everyDay(30));
+
+    int[] expected = {0, 1, 2, 0, 1, 2, 0};
+    for (int day = 0; day < 7; day++) {
+      assertEquals(30, plan.getMinutes(day, expected[day]), "day " + day);
+      assertEquals(30, dayTotal(plan, day));
+    }
+  }
+
+  @Test
+  void budgetsPrioritiesAndLengthsAreRespected() {
+    Exercise scales = new ScaleExercise("Scales", 20, "Major", "C", 90);
+    Exercise song = new SongExercise("Repertoire", 40, "Blue Bossa", "Joe Henderson");
+    Exercise arps = new ArpeggioExercise("Arpeggios", 15, "Cmaj7", 100);
+    PlanConstraints constraints = new PlanConstraints(new int[] {45, 45, 45, 45, 45, 0, 90})
+        .setPriority(song, 4)
+        .setSessionLength(song, 25, 40)
+        .setSessionLength(arps, 15, 15);
+
+    WeeklyPlan plan = new PlanScheduler().schedule(List.of(scales, song, arps), constraints);
+
+    // Song has the best value per minute, so it is placed first on Monday
+    assertEquals(40, plan.getMinutes(0, 1));
+    for (int day = 0; day < 7; day++) {
+      assertTrue(dayTotal(plan, day) <= constraints.getBudget(day));
+      int songMinutes = plan.getMinutes(day, 1);
+      assertTrue(songMinutes == 0 || songMinutes >= 25);
+      int arpMinutes = plan.getMinutes(day, 2);
+      assertTrue(arpMinutes == 0 || arpMinutes == 15);
+    }
+    assertEquals(0, dayTotal(plan, 5));
+  }
+
+  @Test
+  void largeLibraryIsDeterministic() {
+    List<Exercise> exercises = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      exercises.add(new ScaleExercise("Scale " + i, 5 + i % 40, "Major", "C", 60 + i % 100));
+    }
+    PlanConstraints constraints = PlanConstraints.everyDay(120);
+    for (int i = 0; i < 500; i += 7) {
+      constraints.setPriority(exercises.get(i), 1 + i % 5);
+    }
+
+    WeeklyPlan first = new PlanScheduler().schedule(exercises, constraints);
+    WeeklyPlan second = new PlanScheduler().schedule(exercises, constraints);
+    for (int day = 0; day < 7; day++) {
+      assertTrue(dayTotal(first, day) <= 120);
+      for (int ex = 0; ex < 500; ex++) {
+        assertEquals(first.getMinutes(day, ex), second.getMinutes(day, ex));
+      }
+    }
+  }
+
+  @Test
+  void constraintsRejectInvalidValues() {
+    Exercise scales = new ScaleExercise("Scales", 20, "Major", "C", 90);
+    assertThrows(IllegalArgumentException.class, () -> new PlanConstraints(new int[] {30, 30}));
+    assertThrows(IllegalArgumentException.class, () -> PlanConstraints.everyDay(-1));
+    assertThrows(IllegalArgumentException.class,
+        () -> PlanConstraints.everyDay(30).setPriority(scales, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> PlanConstraints.everyDay(30).setSessionLength(scales, 20, 10));
+  }
+}
@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanStoreTest {
+
+  private static void assertSamePlan(PracticePlan expected, PracticePlan actual) {
+    assertEquals(expected.getDays(), actual.getDays());
+    assertEquals(expected.getExerciseCount(), actual.getExerciseCount());
+    assertEquals(expected.isSparse(), actual.isSparse());
+    for (int ex = 0; ex < expected.getExerciseCount(); ex++) {
+      assertEquals(expected.getExercises().get(ex).getName(), actual.getExercises().get(ex).getName());
+      assertEquals(expected.getExercises().get(ex).getCategory(),
+          actual.getExercises().get(ex).getCategory());
+    }
+    for (int day = 0; day < expected.getDays(); day++) {
+      for (int ex = 0; ex < expected.getExerciseCount(); ex++) {
+        assertEquals(expected.getMinutes(day, ex), actual.getMinutes(day, ex));
+      }
+    }
+  }
+
+  private static PracticePlan sparsePlan() {
+    List<Exercise> library = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      library.add(new ArpeggioExercise("Arpeggio " + i, 10, "Cmaj7", 60 + i));
+    }
+    int[][] minutes = new int[28][50];
+    for (int day = 0; day < 28; day++) {
+      minutes[day][(day * 3) % 50] = 20;
+      minutes[day][49] = 5;
+    }
+    return new PracticePlan(library, minutes);
+  }
+
+  @Test
+  void jsonRoundTripKeepsLayout() throws Exception {
+    PlanStore store = new PlanStore();
+    Path file = Files.createTempFile("plan-", ".json");
+
+    PracticePlan weekly = new PlanGenerator().generate(List.of(
+        new ScaleExercise("Scales", 15, "Major", "C", 90),
+        new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson")));
+    store.saveJson(weekly, file);
+    assertSamePlan(weekly, store.loadJson(file));
+
+    PracticePlan sparse = sparsePlan();
+    store.saveJson(sparse, file);
+    assertSamePlan(sparse, store.loadJson(file));
+  }
+
+  @Test
+  void binaryRoundTripIsSmallerThanJson() throws Exception {
+    PlanStore store = new PlanStore();
+    Path json = Files.createTempFile("plan-", ".json");
+    Path binary = Files.createTempFile("plan-", ".bin");
+    PracticePlan sparse = sparsePlan();
+
+    store.saveJson(sparse, json);
+    store.saveBinary(sparse, binary);
+    assertSamePlan(sparse, store.loadBinary(binary));
+    assertTrue(Files.size(binary) < Files.size(json));
+
+    PracticePlan dense = new PlanGenerator().generate(sparse.getExercises(), 2);
+    store.saveBinary(dense, binary);
+    assertSamePlan(dense, store.loadBinary(binary));
+  }
+
+  @Test
+  void invalidFilesRaiseValidationException() throws Exception {
+    PlanStore store = new PlanStore();
+    Path file = Files.createTempFile("plan-", ".dat");
+
+    Files.writeString(file, "{\"days\": 2, \"exercises\": [], \"minutes\": [1]}");
+    assertThrows(ValidationException.class, () -> store.loadJson(file));
+    Files.writeString(file, "not json");
+    assertThrows(ValidationException.class, () -> store.loadJson(file));
+    assertThrows(ValidationException.class, () -> store.loadBinary(file));
+  }
+
+  @Test
+  void forgedPlanSizesAreRejectedBeforeAllocating() throws Exception {
+    PlanStore store = new PlanStore();
+    Path file = Files.createTempFile("plan-", ".dat");
+
+    Files.writeString(file, "{\"days\": 2000000000, \"exercises\": [], \"cells\": []}");
+    assertThrows(ValidationException.class, () -> store.loadJson(file));
+
+    // No strings, no exercises, 2,000,000,000 days as a varint, then each layout
+    byte[] header = {'P', 'T', 'S', 'P', PlanStore.VERSION, 0, 0,
+        (byte) 0x80, (byte) 0xA8, (byte) 0xD6, (byte) 0xB9, 0x07};
+    for (byte layout = 0; layout <= 1; layout++) {
+      byte[] data = Arrays.copyOf(header, header.length + 1);
+      data[header.length] = layout;
+      Files.write(file, data);
+      assertThrows(ValidationException.class, () -> store.loadBinary(file));
+    }
+  }
+}
@@ -0,0 +1,160 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PracticeCliTest {
+
+  private static final Exercise SCALES = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+  private static final Exercise SONG = new SongExercise("Blackbird", 20, "Blackbird", "The Beatles");
+
+  private final StringWriter out = new StringWriter();
+  private final StringWriter err = new StringWriter();
+
+  private int run(String... args) {
+    return new PracticeCli(out, new PrintWriter(err, true)).run(args);
+  }
+
+  private static Session session(LocalDate date, Exercise exercise, int minutes, String notes) {
+    Session s = new Session(date);
+    s.addEntry(new SessionEntry(exercise, minutes, 80, notes));
+    return s;
+  }
+
+  @Test
+  void mergeInterleavesDateOrderedFiles() throws Exception {
+    Path dir = Files.createTempDirectory("cli-merge-");
+    LocalDate day = LocalDate.of(2025, 1, 1);
+    JsonStore store = new JsonStore();
+    store.saveAll(List.of(session(day, SCALES, 10, null), session(day.plusDays(2), SCALES, 30, null)),
+        dir.resolve("a.json"));
+    store.saveAll(List.of(session(day.plusDays(1), SONG, 20, null)), dir.resolve("b.json"));
+
+    assertEquals(PracticeCli.EXIT_OK, run("merge", dir.resolve("a.json").toString(),
+        dir.resolve("b.json").toString()));
+
+    Path merged = dir.resolve("merged.txt");
+    Files.writeString(merged, out.toString());
+    List<LocalDate> dates = new ArrayList<>();
+    try (JsonStore.SessionReader reader = new JsonStore().openReader(merged)) {
+      reader.forEachRemaining(s -> dates.add(s.getDate()));
+    }
+    assertEquals(List.of(day, day.plusDays(1), day.plusDays(2)), dates);
+  }
+
+  @Test
+  void mergeOfManyFilesKeepsDateAndInputOrder() throws Exception {
+    Path dir = Files.createTempDirectory("cli-merge-many-");
+    LocalDate day = LocalDate.of(2025, 1, 1);
+    int files = 2 * PracticeCli.MAX_MERGE_FAN_IN + 10;
+    JsonStore store = new JsonStore();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < files; i++) {
+      store.saveAll(List.of(session(day.plusDays(i % 5), SCALES, i + 1, null),
+          session(day.plusDays(5 + i % 5), SCALES, i + 1, null)),
+          dir.resolve(String.format("%03d.json", i)));
+    }
+    // Sessions on the same date come out in input order
+    for (int d = 0; d < 10; d++) {
+      for (int i = 0; i < files; i++) {
+        if (i % 5 == d % 5) {
+          expected.add(day.plusDays(d) + " " + (i + 1));
+        }
+      }
+    }
+
+    assertEquals(PracticeCli.EXIT_OK, run("merge", dir.toString()));
+
+    Path merged = Files.createTempFile("cli-merged-", ".json");
+    Files.writeString(merged, out.toString());
+    List<String> actual = new ArrayList<>();
+    try (JsonStore.SessionReader reader = new JsonStore().openReader(merged)) {
+      reader.forEachRemaining(s -> actual.add(s.getDate() + " " + s.getTotalMinutes()));
+    }
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void importWritesOneCsvRowPerEntry() throws Exception {
+    Path dir = Files.createTempDirectory("cli-import-");
+    JsonStore store = new JsonStore();
+    store.save(session(LocalDate.of(2025, 1, 2), SONG, 25, "slow, then \"up to tempo\""),
+        dir.resolve("2.json"));
+    store.save(session(LocalDate.of(2025, 1, 1), SCALES, 15, null), dir.resolve("1.json"));
+    Files.writeString(dir.resolve("ignored.txt"), "not a session");
+
+    assertEquals(PracticeCli.EXIT_OK, run("import", "--format", "csv", dir.toString()));
+
+    List<String> lines = out.toString().lines().toList();
+    assertEquals("date,exercise,category,minutes,tempo_bpm,notes", lines.get(0));
+    // Directory files are read in name order
+    assertEquals("2025-01-01,Major Scales,Scale,15,80,", lines.get(1));
+    assertEquals("2025-01-02,Blackbird,Song,25,80,\"slow, then \"\"up to tempo\"\"\"", lines.get(2));
+    assertEquals(3, lines.size());
+  }
+
+  @Test
+  void statsAndPlanReadTheWholeArchive() throws Exception {
+    Path dir = Files.createTempDirectory("cli-stats-");
+    LocalDate day = LocalDate.of(2025, 1, 1);
+    new JsonStore().saveAll(List.of(
+        session(day, SCALES, 10, null),
+        session(day.plusDays(1), SONG, 20, null),
+        session(day.plusDays(2), SCALES, 30, null)), dir.resolve("history.json"));
+
+    assertEquals(PracticeCli.EXIT_OK, run("stats", "--format", "csv", dir.toString()));
+    List<String> stats = out.toString().lines().toList();
+    assertTrue(stats.contains("total,sessions,3"));
+    assertTrue(stats.contains("total,minutes,60"));
+    assertTrue(stats.contains("streak,longest,3"));
+
+    out.getBuffer().setLength(0);
+    assertEquals(PracticeCli.EXIT_OK, run("plan", "--format", "csv", "--weeks", "2", dir.toString()));
+    List<String> plan = out.toString().lines().toList();
+    assertTrue(plan.get(0).startsWith("exercise,category,Wk 1 Mon"));
+    assertEquals(3, plan.size());
+    assertTrue(plan.get(1).startsWith("Major Scales,Scale,15,"));
+  }
+
+  @Test
+  void badUsageAndBadDataAreReported() throws Exception {
+    assertEquals(PracticeCli.EXIT_USAGE, run());
+    assertEquals(PracticeCli.EXIT_USAGE, run("export", "x.json"));
+    assertEquals(PracticeCli.EXIT_USAGE, run("stats", "--weeks", "0", "x.json"));
+    assertEquals(PracticeCli.EXIT_USAGE, run("stats"));
+
+    Path broken = Files.createTempFile("cli-broken-", ".json");
+    Files.writeString(broken, "[{\"date\": 7");
+    assertEquals(PracticeCli.EXIT_FAILURE, run("stats", broken.toString()));
+    assertTrue(err.toString().contains(broken.toString()));
+
+    assertEquals(PracticeCli.EXIT_FAILURE, run("stats", broken.resolveSibling("missing.json").toString()));
+  }
+
+  @Test
+  void failedImportWritesNothingToStdout() throws Exception {
+    Path dir = Files.createTempDirectory("cli-partial-");
+    new JsonStore().saveAll(List.of(session(LocalDate.of(2025, 1, 1), SCALES, 10, null)),
+        dir.resolve("a.json"));
+    Files.writeString(dir.resolve("b.json"), "[{\"date\": 7");
+
+    assertEquals(PracticeCli.EXIT_FAILURE, run("import", dir.toString()));
+    assertEquals(PracticeCli.EXIT_FAILURE, run("merge", "--format", "csv",
+        dir.resolve("a.json").toString(), dir.resolve("b.json").toString()));
+    assertEquals("", out.toString());
+  }
+
+  @Test
+  void csvFieldsAreQuotedOnlyWhenNeeded() {
+    assertEquals("plain", PracticeCli.csvField("plain"));
+    assertEquals("\"a,b\"", PracticeCli.csvField("a,b"));
+    assertEquals("\"say \"\"hi\"\"\"", PracticeCli.csvField("say \"hi\""));
+  }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PracticeGapAnalyzerTest {
+
+  private final ScaleExercise scales = new ScaleExercise("Scales", 10, "Major", "C", 120);
+  private final SongExercise song = new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson");
+  private final List<Exercise> library = List.of(scales, song);
+  private final LocalDate today = LocalDate.of(2025, 3, 10);
+
+  @Test
+  void measuresMinuteDeficitAndLatestTempoGap() {
+    // Loaded copies are matched to the library by name
+    Exercise loadedScales = new ScaleExercise("Scales", 10, "Major", "C", 120);
+    Session recent = new Session(today);
+    recent.addEntry(new SessionEntry(loadedScales, 30, 90, null));
+    Session older = new Session(today.minusDays(2));
+    older.addEntry(new SessionEntry(loadedScales, 20, 110, null));
+    Session outside = new Session(today.minusDays(7));
+    outside.addEntry(new SessionEntry(song, 500, null, null));
+
+    PracticeGapAnalyzer gaps = new PracticeGapAnalyzer(library, today, 7)
+        .scan(List.of(recent, outside, older));
+
+    // 50 of 70 target minutes for scales; song only practiced outside the window
+    assertEquals(20.0 / 70, gaps.getMinuteDeficit(0), 1e-9);
+    assertEquals(1.0, gaps.getMinuteDeficit(1), 1e-9);
+    // Latest tempo is 90 even though the older session was faster
+    assertEquals(30.0 / 120, gaps.getTempoGap(0), 1e-9);
+    assertEquals(0.0, gaps.getTempoGap(1), 1e-9);
+    assertEquals(1 + 1 + 1, gaps.getPriority(0, 1));
+    assertEquals(1 + 4, gaps.getPriority(1, 1));
+  }
+
+  @Test
+  void historyPlanFavorsNeglectedExercisesAndStreamsFromDisk() throws Exception {
+    List<Session> history = new ArrayList<>();
+    for (int d = 0; d < 14; d++) {
+      Session s = new Session(today.minusDays(d));
+      s.addEntry(new SessionEntry(scales, 15, 125, null));
+      history.add(s);
+    }
+    Path file = Files.createTempFile("history-", ".json");
+    new JsonStore().saveAll(history, file);
+
+    // Only one exercise fits per day, and scales alone would win without history
+    PlanConstraints constraints = PlanConstraints.everyDay(20).setPriority(scales, 2);
+    WeeklyPlan plan;
+    try (JsonStore.SessionReader reader = new JsonStore().openReader(file)) {
+      plan = new PlanGenerator().generateFromHistory(library, reader, today, 7, constraints);
+    }
+
+    assertEquals(20, plan.getMinutes(0, 1));
+    assertEquals(0, plan.getMinutes(0, 0));
+    assertEquals(2, constraints.getPriority(scales));
+  }
+}
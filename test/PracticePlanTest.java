@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PracticePlanTest {
+
+  private final List<Exercise> exercises = List.of(
+      new ScaleExercise("Scales", 15, "Major", "C", 90),
+      new ArpeggioExercise("Arpeggios", 10, "Cmaj7", 100),
+      new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson"));
+
+  @Test
+  void multiWeekPlanIsDenseWithWeekLabels() {
+    PracticePlan plan = new PlanGenerator().generate(exercises, 3);
+
+    assertEquals(21, plan.getDays());
+    assertEquals(3, plan.getWeeks());
+    assertFalse(plan.isSparse());
+    assertEquals(10, plan.getMinutes(15, 1));
+    assertEquals(45, plan.getDayTotal(20));
+    assertEquals("Wk 1 Mon", plan.getDayLabel(0));
+    assertEquals("Wk 3 Sun", plan.getDayLabel(20));
+    assertEquals("Tue", new PlanGenerator().generate(exercises).getDayLabel(1));
+  }
+
+  @Test
+  void mostlyEmptyPlanIsSparse() {
+    List<Exercise> library = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      library.add(new SongExercise("Song " + i, 10, "Tune " + i, "Artist"));
+    }
+    int[][] minutes = new int[112][200];
+    for (int day = 0; day < 112; day++) {
+      minutes[day][day % 200] = 30;
+      minutes[day][(day * 7) % 200] += 15;
+    }
+
+    PracticePlan plan = new PracticePlan(library, minutes);
+
+    assertTrue(plan.isSparse());
+    for (int day = 0; day < 112; day++) {
+      for (int ex = 0; ex < 200; ex++) {
+        assertEquals(minutes[day][ex], plan.getMinutes(day, ex));
+      }
+    }
+    // Days 0 and 100 put both blocks on the same exercise
+    int[] visited = new int[1];
+    plan.forEachNonZero((day, ex, m) -> {
+      assertEquals(minutes[day][ex], m);
+      visited[0]++;
+    });
+    assertEquals(112 * 2 - 2, visited[0]);
+  }
+
+  @Test
+  void invalidGridsAreRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new PracticePlan(exercises, new int[][] {{1, 2}}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new PracticePlan(exercises, new int[][] {{1, -2, 3}}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new WeeklyPlan(exercises, new int[3][3]));
+    PracticePlan plan = new PracticePlan(exercises, new int[2][3]);
+    assertThrows(IndexOutOfBoundsException.class, () -> plan.getMinutes(2, 0));
+  }
+}
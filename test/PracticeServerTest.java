@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PracticeServerTest {
+
+  private static final String SCALE_JSON = "{\"type\":\"Scale\",\"name\":\"Major Scales\","
+      + "\"targetMinutesPerDay\":15,\"scaleName\":\"Major\",\"key\":\"C\",\"targetTempoBpm\":90}";
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  private static String entry(int minutes, String notes) {
+    return "{\"exercise\":" + SCALE_JSON + ",\"minutesPracticed\":" + minutes
+        + ",\"averageTempoBpm\":80,\"notes\":\"" + notes + "\"}";
+  }
+
+  private HttpResponse<String> send(PracticeServer server, String method, String path, String body)
+      throws Exception {
+    HttpRequest.Builder request = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + server.getPort() + path));
+    request.method(method, body == null
+        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+    return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  @Test
+  void sessionsCanBeCreatedExtendedAndQueried() throws Exception {
+    Path dir = Files.createTempDirectory("server-");
+    try (SessionJournal journal = new SessionJournal(dir);
+         PracticeServer server = new PracticeServer(journal, 0)) {
+      server.start();
+
+      HttpResponse<String> created = send(server, "POST", "/sessions",
+          "{\"date\":\"2025-01-01\",\"entries\":[" + entry(10, "warmup") + "]}");
+      assertEquals(201, created.statusCode());
+      assertTrue(created.body().contains("warmup"));
+
+      assertEquals(201, send(server, "POST", "/sessions/2025-01-01/entries", entry(20, "etude"))
+          .statusCode());
+      assertEquals(201, send(server, "POST", "/sessions/2025-01-03/entries", entry(5, "late"))
+          .statusCode());
+      assertEquals(30, journal.getSession(LocalDate.of(2025, 1, 1)).getTotalMinutes());
+
+      HttpResponse<String> one = send(server, "GET", "/sessions/2025-01-01", null);
+      assertEquals(200, one.statusCode());
+      assertTrue(one.body().contains("etude"));
+
+      HttpResponse<String> range = send(server, "GET", "/sessions?from=2025-01-02&to=2025-01-31", null);
+      assertEquals(200, range.statusCode());
+      assertTrue(range.body().contains("late"));
+      assertFalse(range.body().contains("warmup"));
+
+      HttpResponse<String> plan = send(server, "GET", "/plan?budget=30&today=2025-01-03", null);
+      assertEquals(200, plan.statusCode());
+      assertTrue(plan.body().contains("Major Scales"));
+
+      assertEquals(404, send(server, "GET", "/sessions/2025-06-01", null).statusCode());
+      assertEquals(400, send(server, "GET", "/sessions/yesterday", null).statusCode());
+      assertEquals(400, send(server, "POST", "/sessions", "{\"date\":\"2025-01-01\"}").statusCode());
+      assertEquals(400, send(server, "POST", "/sessions/2025-01-01/entries", "not json").statusCode());
+      assertEquals(405, send(server, "DELETE", "/sessions/2025-01-01", null).statusCode());
+    }
+  }
+
+  @Test
+  void concurrentWritesAreGroupCommittedAndDurable() throws Exception {
+    Path dir = Files.createTempDirectory("server-concurrent-");
+    int writers = 200;
+    // A slow disk: requests queue up behind each fsync and share the next one
+    try (SessionJournal journal = new SessionJournal(dir, Integer.MAX_VALUE, 100_000) {
+      @Override
+      public synchronized void sync() throws IOException {
+        try {
+          Thread.sleep(10);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.sync();
+      }
+    };
+         PracticeServer server = new PracticeServer(journal, 0)) {
+      server.start();
+
+      List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+      for (int i = 0; i < writers; i++) {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getPort() + "/sessions/2025-02-0" + (1 + i % 7)
+                    + "/entries"))
+            .POST(HttpRequest.BodyPublishers.ofString(entry(1, "w" + i)))
+            .build();
+        responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+      }
+      for (CompletableFuture<HttpResponse<String>> r : responses) {
+        assertEquals(201, r.get().statusCode());
+      }
+
+      assertEquals(writers, server.getCommittedWrites());
+      assertTrue(server.getCommittedBatches() >= 1);
+      assertTrue(server.getCommittedBatches() < writers);
+    }
+
+    // Every acknowledged write was synced before its response was sent
+    try (SessionJournal reopened = new SessionJournal(dir)) {
+      int minutes = 0;
+      for (Session s : reopened.getSessions()) {
+        minutes += s.getTotalMinutes();
+      }
+      assertEquals(writers, minutes);
+    }
+  }
+}
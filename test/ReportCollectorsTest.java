@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportCollectorsTest {
+
+  private final ScaleExercise scales = new ScaleExercise("Scales", 15, "Major", "C", 120);
+  private final SongExercise song = new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson");
+
+  @Test
+  void aggregatesSmallHistory() {
+    LocalDate monday = LocalDate.of(2025, 3, 3);
+    List<Session> history = new ArrayList<>();
+    // Practice Mon-Wed, skip Thu, then Fri-Sun and the next Monday
+    int[] offsets = {0, 1, 2, 4, 5, 6, 7};
+    for (int i = 0; i < offsets.length; i++) {
+      Session s = new Session(monday.plusDays(offsets[i]));
+      s.addEntry(new SessionEntry(scales, 10 * (i + 1), 80 + offsets[i], null));
+      if (i % 2 == 0) {
+        s.addEntry(new SessionEntry(song, 5, null, null));
+      }
+      history.add(s);
+    }
+
+    PracticeReport report = history.stream().collect(ReportCollectors.report());
+
+    assertEquals(7, report.getSessionCount());
+    assertEquals(280L, report.getMinutesByCategory().get("Scale"));
+    assertEquals(20L, report.getMinutesByCategory().get("Song"));
+    assertEquals(225L, report.getMinutesByWeek().get(monday));
+    assertEquals(75L, report.getMinutesByWeek().get(monday.plusDays(7)));
+    assertEquals(300L, report.getMinutesByMonth().get(YearMonth.of(2025, 3)));
+
+    assertEquals(4, report.getStreaks().getLongest());
+    assertEquals(monday.plusDays(4), report.getStreaks().getLongestStart());
+    assertEquals(4, report.getStreaks().getCurrent());
+    assertEquals(7, report.getStreaks().getPracticeDays());
+
+    // Session lengths: 15, 20, 35, 40, 55, 60, 75
+    assertEquals(40, report.getSessionLengths().getMedian());
+    assertEquals(75, report.getSessionLengths().get(100));
+    assertEquals(15, report.getSessionLengths().get(0));
+
+    PracticeReport.TrendLine trend = report.getTempoTrends().get("Scales");
+    assertEquals(7, trend.getSamples());
+    assertEquals(1.0, trend.getSlopePerDay(), 1e-9);
+    assertFalse(report.getTempoTrends().containsKey("Repertoire"));
+  }
+
+  @Test
+  void parallelTenYearReportMatchesSequential() {
+    List<Session> history = new ArrayList<>();
+    LocalDate start = LocalDate.of(2015, 1, 1);
+    for (int d = 0; d < 3653; d++) {
+      if (d % 11 == 10) {
+        continue;
+      }
+      Session s = new Session(start.plusDays(d));
+      s.addEntry(new SessionEntry(scales, 10 + d % 30, 60 + d / 60, null));
+      s.addEntry(new SessionEntry(song, 5 + d % 7, null, null));
+      history.add(s);
+    }
+
+    // Timing is measured by ReportBenchmark, not here
+    PracticeReport sequential = history.stream().collect(ReportCollectors.report());
+    PracticeReport parallel = history.parallelStream().collect(ReportCollectors.report());
+
+    assertEquals(sequential.getSessionCount(), parallel.getSessionCount());
+    assertEquals(sequential.getMinutesByCategory(), parallel.getMinutesByCategory());
+    assertEquals(sequential.getMinutesByWeek(), parallel.getMinutesByWeek());
+    assertEquals(sequential.getMinutesByMonth(), parallel.getMinutesByMonth());
+    assertEquals(10, sequential.getStreaks().getLongest());
+    assertEquals(sequential.getStreaks().getLongest(), parallel.getStreaks().getLongest());
+    assertEquals(sequential.getSessionLengths().get(90), parallel.getSessionLengths().get(90));
+    assertEquals(sequential.getTempoTrends().get("Scales").getSlopePerDay(),
+        parallel.getTempoTrends().get("Scales").getSlopePerDay(), 1e-9);
+  }
+}
@@ -0,0 +1,170 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionDeltaStoreTest {
+
+  private static final Exercise EXERCISE = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+
+  private static Session sessionWith(int entries) {
+    Session session = new Session(LocalDate.of(2025, 1, 1));
+    for (int i = 1; i <= entries; i++) {
+      session.addEntry(new SessionEntry(EXERCISE, i, null, "entry " + i));
+    }
+    return session;
+  }
+
+  @Test
+  void savesAfterTheFirstAppendOnlyNewEntries() throws Exception {
+    Path file = Files.createTempDirectory("delta-").resolve("session.json");
+    SessionDeltaStore store = new SessionDeltaStore(new JsonStore());
+    Session session = sessionWith(100);
+
+    store.save(session, file);
+    assertFalse(session.isDirty());
+    assertFalse(Files.exists(SessionDeltaStore.deltaFile(file)));
+    byte[] base = Files.readAllBytes(file);
+
+    for (int i = 101; i <= 105; i++) {
+      session.addEntry(new SessionEntry(EXERCISE, i, 80, "entry " + i));
+      store.save(session, file);
+    }
+    // Nothing new: no write at all
+    store.save(session, file);
+
+    assertEquals(1, store.getBaseWriteCount());
+    assertEquals(5, store.getDeltaWriteCount());
+    assertArrayEquals(base, Files.readAllBytes(file));
+    // Header plus one line per appended entry
+    assertEquals(6, Files.readAllLines(SessionDeltaStore.deltaFile(file)).size());
+
+    Session loaded = new SessionDeltaStore(new JsonStore()).load(file);
+    assertEquals(105, loaded.getEntries().size());
+    assertEquals(session.getTotalMinutes(), loaded.getTotalMinutes());
+    assertEquals("entry 105", loaded.getEntries().get(104).getNotes());
+    assertEquals(80, loaded.getEntries().get(104).getAverageTempoBpm());
+    assertFalse(loaded.isDirty());
+  }
+
+  @Test
+  void deltasAreMergedOnceTheyOutgrowTheBase() throws Exception {
+    Path file = Files.createTempDirectory("delta-merge-").resolve("session.json");
+    SessionDeltaStore store = new SessionDeltaStore(new JsonStore());
+    Session session = sessionWith(20);
+    store.save(session, file);
+
+    for (int i = 21; i <= 40; i++) {
+      session.addEntry(new SessionEntry(EXERCISE, i, null, null));
+      store.save(session, file);
+    }
+    // The 20th appended entry made the delta as large as the base
+    assertEquals(2, store.getBaseWriteCount());
+    assertEquals(19, store.getDeltaWriteCount());
+    assertFalse(Files.exists(SessionDeltaStore.deltaFile(file)));
+    assertEquals(40, new JsonStore().load(file).getEntries().size());
+
+    session.addEntry(new SessionEntry(EXERCISE, 41, null, null));
+    store.save(session, file);
+    store.merge(file);
+    assertFalse(Files.exists(SessionDeltaStore.deltaFile(file)));
+    assertEquals(41, new JsonStore().load(file).getEntries().size());
+  }
+
+  @Test
+  void tornTailsAndStaleDeltasAreDiscarded() throws Exception {
+    Path file = Files.createTempDirectory("delta-crash-").resolve("session.json");
+    Path delta = SessionDeltaStore.deltaFile(file);
+    SessionDeltaStore store = new SessionDeltaStore(new JsonStore());
+    Session session = sessionWith(30);
+    store.save(session, file);
+    session.addEntry(new SessionEntry(EXERCISE, 31, null, null));
+    store.save(session, file);
+
+    // A crash part way through the next append
+    Files.writeString(delta, Files.readString(delta) + "{\"minutesPr");
+    Session loaded = new SessionDeltaStore(new JsonStore()).load(file);
+    assertEquals(31, loaded.getEntries().size());
+    assertEquals(2, Files.readAllLines(delta).size());
+
+    // A delta written against a different base is ignored and removed
+    Files.writeString(delta, "{\"baseEntries\":7,\"baseModified\":0}\n"
+        + Files.readAllLines(delta).get(1) + "\n");
+    assertEquals(30, new SessionDeltaStore(new JsonStore()).load(file).getEntries().size());
+    assertFalse(Files.exists(delta));
+  }
+
+  @Test
+  void failedAppendsAreRolledBack() throws Exception {
+    Path file = Files.createTempDirectory("delta-fail-").resolve("session.json");
+    Path delta = SessionDeltaStore.deltaFile(file);
+    boolean[] failNext = {false};
+    SessionDeltaStore store = new SessionDeltaStore(new JsonStore()) {
+      @Override
+      void write(FileChannel channel, ByteBuffer bytes) throws IOException {
+        if (failNext[0]) {
+          failNext[0] = false;
+          // Half the bytes reach the file before the disk fills up
+          bytes.limit(bytes.position() + bytes.remaining() / 2);
+          super.write(channel, bytes);
+          throw new IOException("No space left on device");
+        }
+        super.write(channel, bytes);
+      }
+    };
+    Session session = sessionWith(30);
+    store.save(session, file);
+    session.addEntry(new SessionEntry(EXERCISE, 31, null, null));
+    store.save(session, file);
+    String before = Files.readString(delta);
+
+    session.addEntry(new SessionEntry(EXERCISE, 32, null, "lost at first"));
+    failNext[0] = true;
+    assertThrows(IOException.class, () -> store.save(session, file));
+    assertEquals(before, Files.readString(delta));
+    assertEquals(31, session.getFirstUnsavedIndex());
+
+    // The retry lands right after the last complete line
+    store.save(session, file);
+    assertEquals(2, store.getDeltaWriteCount());
+    Session loaded = new SessionDeltaStore(new JsonStore()).load(file);
+    assertEquals(32, loaded.getEntries().size());
+    assertEquals("lost at first", loaded.getEntries().get(31).getNotes());
+  }
+
+  @Test
+  void otherSessionsAndFilesGetFullSaves() throws Exception {
+    Path dir = Files.createTempDirectory("delta-full-");
+    SessionDeltaStore store = new SessionDeltaStore(new JsonStore());
+    Session first = sessionWith(30);
+    store.save(first, dir.resolve("a.json"));
+
+    // A different session saved over the same file replaces it
+    Session second = sessionWith(3);
+    store.save(second, dir.resolve("a.json"));
+    // The same session saved elsewhere is written whole there
+    first.addEntry(new SessionEntry(EXERCISE, 31, null, null));
+    store.save(first, dir.resolve("b.json"));
+
+    // A session saved back over a file another session rewrote replaces it whole
+    Session third = sessionWith(20);
+    store.save(third, dir.resolve("c.json"));
+    store.save(second, dir.resolve("c.json"));
+    third.addEntry(new SessionEntry(EXERCISE, 21, null, "third"));
+    store.save(third, dir.resolve("c.json"));
+
+    assertEquals(6, store.getBaseWriteCount());
+    assertEquals(0, store.getDeltaWriteCount());
+    assertEquals(second.getTotalMinutes(), store.load(dir.resolve("a.json")).getTotalMinutes());
+    assertEquals(31, store.load(dir.resolve("b.json")).getEntries().size());
+    Session reloaded = new SessionDeltaStore(new JsonStore()).load(dir.resolve("c.json"));
+    assertEquals(21, reloaded.getEntries().size());
+    assertEquals(third.getTotalMinutes(), reloaded.getTotalMinutes());
+  }
+}
@@ -0,0 +1,297 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionJournalTest {
+
+  private static final Exercise EXERCISE =
+      new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+
+  @Test
+  void entriesAreReplayedAfterReopen() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day1 = LocalDate.of(2025, 1, 1);
+    LocalDate day2 = LocalDate.of(2025, 1, 2);
+
+    try (SessionJournal journal = new SessionJournal(dir, 2, 1000)) {
+      journal.addEntry(day1, new SessionEntry(EXERCISE, 10, 90, "warmup"));
+      journal.addEntry(day1, new SessionEntry(EXERCISE, 5, null, null));
+      journal.addEntry(day2, new SessionEntry(EXERCISE, 20, 100, "fast"));
+    }
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      List<Session> sessions = journal.getSessions();
+      assertEquals(2, sessions.size());
+      assertEquals(day1, sessions.get(0).getDate());
+      assertEquals(15, sessions.get(0).getTotalMinutes());
+      assertEquals("fast", journal.getSession(day2).getEntries().get(0).getNotes());
+    }
+  }
+
+  @Test
+  void compactionWritesSnapshotAndRemovesCoveredSegments() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day = LocalDate.of(2025, 2, 1);
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      for (int i = 0; i < 10; i++) {
+        journal.addEntry(day, new SessionEntry(EXERCISE, 3, null, null));
+      }
+      journal.compact();
+      journal.addEntry(day, new SessionEntry(EXERCISE, 7, null, null));
+    }
+
+    List<String> names;
+    try (Stream<Path> files = Files.list(dir)) {
+      names = files.map(p -> p.getFileName().toString()).collect(Collectors.toList());
+    }
+    assertEquals(1, names.stream().filter(n -> n.startsWith("snapshot-")).count());
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      assertEquals(37, journal.getSession(day).getTotalMinutes());
+      assertEquals(11, journal.getSession(day).getEntries().size());
+    }
+  }
+
+  @Test
+  void tornRecordAtEndOfLogIsDropped() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day = LocalDate.of(2025, 3, 1);
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 12, null, null));
+    }
+
+    // Simulate a crash part way through writing the next record
+    Path segment;
+    try (Stream<Path> files = Files.list(dir)) {
+      segment = files.filter(p -> p.getFileName().toString().endsWith(".log"))
+          .filter(p -> p.toFile().length() > 0)
+          .findFirst()
+          .orElseThrow();
+    }
+    Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      assertEquals(12, journal.getSession(day).getTotalMinutes());
+      journal.addEntry(day, new SessionEntry(EXERCISE, 8, null, null));
+    }
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      assertEquals(20, journal.getSession(day).getTotalMinutes());
+    }
+  }
+
+  @Test
+  void corruptLengthAtEndOfLogIsDroppedWithoutAllocating() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day = LocalDate.of(2025, 3, 2);
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 12, null, null));
+    }
+
+    Path segment;
+    try (Stream<Path> files = Files.list(dir)) {
+      segment = files.filter(p -> p.getFileName().toString().endsWith(".log"))
+          .filter(p -> p.toFile().length() > 0)
+          .findFirst()
+          .orElseThrow();
+    }
+    long size = Files.size(segment);
+    // A length near Integer.MAX_VALUE would overflow the record buffer size
+    Files.write(segment, new byte[] {0x7f, -1, -1, -8, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      assertEquals(12, journal.getSession(day).getTotalMinutes());
+    }
+    assertEquals(size, Files.size(segment));
+  }
+
+  @Test
+  void corruptRecordBeforeLaterSegmentsFailsTheOpen() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day = LocalDate.of(2025, 4, 1);
+
+    // Two runs leave two segments
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 12, null, null));
+    }
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 8, null, null));
+    }
+
+    Path first;
+    try (Stream<Path> files = Files.list(dir)) {
+      first = files.filter(p -> p.getFileName().toString().endsWith(".log"))
+          .sorted()
+          .findFirst()
+          .orElseThrow();
+    }
+    byte[] bytes = Files.readAllBytes(first);
+    bytes[bytes.length - 2] ^= 0x55;
+    Files.write(first, bytes);
+
+    assertThrows(ValidationException.class, () -> new SessionJournal(dir));
+  }
+
+  @Test
+  void failedAppendsDoNotHideLaterRecords() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day = LocalDate.of(2025, 4, 2);
+    boolean[] failNext = {false};
+
+    try (SessionJournal journal = new SessionJournal(dir) {
+      @Override
+      void write(FileChannel channel, ByteBuffer bytes) throws IOException {
+        if (failNext[0]) {
+          failNext[0] = false;
+          // Half the record reaches the file before the disk fills up
+          bytes.limit(bytes.position() + bytes.remaining() / 2);
+          super.write(channel, bytes);
+          throw new IOException("No space left on device");
+        }
+        super.write(channel, bytes);
+      }
+    }) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 12, null, null));
+      failNext[0] = true;
+      assertThrows(IOException.class,
+          () -> journal.addEntry(day, new SessionEntry(EXERCISE, 5, null, null)));
+      journal.addEntry(day, new SessionEntry(EXERCISE, 8, null, null));
+      assertEquals(20, journal.getSession(day).getTotalMinutes());
+    }
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      assertEquals(20, journal.getSession(day).getTotalMinutes());
+      assertEquals(2, journal.getSession(day).getEntries().size());
+    }
+  }
+
+  @Test
+  void addEntriesIsAllOrNothing() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day = LocalDate.of(2025, 4, 5);
+    int[] writesUntilFailure = {-1};
+
+    try (SessionJournal journal = new SessionJournal(dir) {
+      @Override
+      void write(FileChannel channel, ByteBuffer bytes) throws IOException {
+        if (writesUntilFailure[0]-- == 0) {
+          throw new IOException("No space left on device");
+        }
+        super.write(channel, bytes);
+      }
+    }) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 12, null, null));
+      // The second of three records fails
+      writesUntilFailure[0] = 1;
+      assertThrows(IOException.class, () -> journal.addEntries(day, List.of(
+          new SessionEntry(EXERCISE, 1, null, null),
+          new SessionEntry(EXERCISE, 2, null, null),
+          new SessionEntry(EXERCISE, 3, null, null))));
+      assertEquals(1, journal.getSession(day).getEntries().size());
+
+      journal.addEntries(day, List.of(new SessionEntry(EXERCISE, 4, null, null),
+          new SessionEntry(EXERCISE, 5, null, null)));
+    }
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      assertEquals(21, journal.getSession(day).getTotalMinutes());
+      assertEquals(3, journal.getSession(day).getEntries().size());
+    }
+  }
+
+  @Test
+  void tornTailOfASealedSegmentIsDroppedWhenNothingIsMissing() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day = LocalDate.of(2025, 4, 3);
+
+    // Two runs leave two segments, the second starting right after the first
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 12, null, null));
+    }
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 8, null, null));
+    }
+
+    // As left by a failed append whose truncate also failed
+    Path first;
+    try (Stream<Path> files = Files.list(dir)) {
+      first = files.filter(p -> p.getFileName().toString().endsWith(".log"))
+          .sorted()
+          .findFirst()
+          .orElseThrow();
+    }
+    long size = Files.size(first);
+    Files.write(first, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      assertEquals(20, journal.getSession(day).getTotalMinutes());
+    }
+    assertEquals(size, Files.size(first));
+  }
+
+  @Test
+  void invalidEntryWithAGoodChecksumFailsTheOpen() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    LocalDate day = LocalDate.of(2025, 4, 4);
+
+    try (SessionJournal journal = new SessionJournal(dir)) {
+      journal.addEntry(day, new SessionEntry(EXERCISE, 12, null, null));
+    }
+
+    Path segment;
+    try (Stream<Path> files = Files.list(dir)) {
+      segment = files.filter(p -> p.getFileName().toString().endsWith(".log"))
+          .filter(p -> p.toFile().length() > 0)
+          .findFirst()
+          .orElseThrow();
+    }
+    byte[] payload = "{\"minutesPracticed\": -3}".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer record = ByteBuffer.allocate(24 + payload.length);
+    record.putInt(payload.length).putInt(0).putLong(1).putLong(day.toEpochDay()).put(payload);
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), 8, record.capacity() - 8);
+    record.putInt(4, (int) crc.getValue());
+    Files.write(segment, record.array(), StandardOpenOption.APPEND);
+    long size = Files.size(segment);
+
+    assertThrows(ValidationException.class, () -> new SessionJournal(dir));
+    assertEquals(size, Files.size(segment));
+  }
+
+  @Test
+  void backgroundCompactionFailuresAreReported() throws Exception {
+    Path dir = Files.createTempDirectory("journal-");
+    CompletableFuture<IOException> reported = new CompletableFuture<>();
+
+    SessionJournal journal = new SessionJournal(dir, 1, 1);
+    journal.setErrorHandler(reported::complete);
+    // A non-empty directory where the first snapshot goes cannot be replaced
+    Path blocker = Files.createDirectory(dir.resolve("snapshot-00000000000000000000.json"));
+    Files.createFile(blocker.resolve("keep"));
+
+    journal.addEntry(LocalDate.of(2025, 5, 1), new SessionEntry(EXERCISE, 5, null, null));
+    IOException error = reported.get(1, TimeUnit.MINUTES);
+    assertSame(error, journal.getLastCompactionError());
+
+    journal.close();
+    assertThrows(IllegalStateException.class, journal::compactAsync);
+  }
+}
@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionListModelTest {
+
+  @Test
+  void changesAreForwardedToRepositoryAndListeners() {
+    SessionRepository repo = new SessionRepository();
+    SessionListModel model = new SessionListModel(repo);
+    List<String> events = new ArrayList<>();
+    model.addListDataListener(new ListDataListener() {
+      @Override
+      public void intervalAdded(ListDataEvent e) {
+        events.add("added " + e.getIndex0() + "-" + e.getIndex1());
+      }
+
+      @Override
+      public void intervalRemoved(ListDataEvent e) {
+        events.add("removed " + e.getIndex0() + "-" + e.getIndex1());
+      }
+
+      @Override
+      public void contentsChanged(ListDataEvent e) {
+        events.add("changed " + e.getIndex0() + "-" + e.getIndex1());
+      }
+    });
+
+    Session march = new Session(LocalDate.of(2025, 3, 1));
+    assertEquals(0, model.add(march));
+    assertEquals(0, model.add(new Session(LocalDate.of(2025, 1, 1))));
+    model.addAll(List.of(new Session(LocalDate.of(2025, 2, 1)), new Session(LocalDate.of(2025, 4, 1))));
+    model.remove(0);
+
+    assertEquals(List.of("added 0-0", "added 0-0", "changed 0-1", "added 2-3", "removed 0-0"), events);
+    assertEquals(3, model.getSize());
+    assertEquals(repo.size(), model.getSize());
+    assertSame(march, model.getElementAt(1));
+    assertEquals(1, model.indexOf(march));
+  }
+
+  @Test
+  void filterShowsOnlyMatchesUntilTheListChanges() {
+    SessionRepository repo = new SessionRepository();
+    SessionListModel model = new SessionListModel(repo);
+    Session jan = new Session(LocalDate.of(2025, 1, 1));
+    Session feb = new Session(LocalDate.of(2025, 2, 1));
+    model.addAll(List.of(jan, feb));
+
+    model.setFilter(List.of(feb));
+    assertTrue(model.isFiltered());
+    assertEquals(1, model.getSize());
+    assertSame(feb, model.getElementAt(0));
+    assertEquals(0, model.indexOf(feb));
+    assertEquals(-1, model.indexOf(jan));
+
+    // Any change to the list clears the filter
+    model.add(new Session(LocalDate.of(2025, 3, 1)));
+    assertFalse(model.isFiltered());
+    assertEquals(3, model.getSize());
+  }
+
+  @Test
+  void rendererRebuildsLabelOnlyWhenSessionChanges() {
+    SessionCellRenderer renderer = new SessionCellRenderer();
+    Session s = new Session(LocalDate.of(2025, 1, 1));
+    Exercise exercise = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+
+    String first = renderer.labelFor(s);
+    assertEquals("2025-01-01 (0 min)", first);
+    assertSame(first, renderer.labelFor(s));
+
+    s.addEntry(new SessionEntry(exercise, 20, null, null));
+    assertEquals("2025-01-01 (20 min)", renderer.labelFor(s));
+  }
+}
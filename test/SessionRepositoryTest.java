@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionRepositoryTest {
+
+  @Test
+  void addKeepsDateOrderAndInsertionOrderWithinADay() {
+    SessionRepository repo = new SessionRepository();
+    Session march = new Session(LocalDate.of(2025, 3, 1));
+    Session jan = new Session(LocalDate.of(2025, 1, 1));
+    Session marchAgain = new Session(LocalDate.of(2025, 3, 1));
+
+    assertEquals(0, repo.add(march));
+    assertEquals(0, repo.add(jan));
+    assertEquals(2, repo.add(marchAgain));
+
+    assertSame(jan, repo.get(0));
+    assertSame(march, repo.get(1));
+    assertSame(marchAgain, repo.get(2));
+    assertEquals(2, repo.indexOf(marchAgain));
+    assertEquals(-1, repo.indexOf(new Session(LocalDate.of(2025, 3, 1))));
+  }
+
+  @Test
+  void rangeQueriesReturnMatchingSessions() {
+    SessionRepository repo = new SessionRepository();
+    LocalDate start = LocalDate.of(2025, 1, 1);
+    for (int i = 0; i < 100; i++) {
+      repo.add(new Session(start.plusDays(i)));
+    }
+
+    List<Session> range = repo.findBetween(LocalDate.of(2025, 1, 10), LocalDate.of(2025, 1, 19));
+    assertEquals(10, range.size());
+    assertEquals(LocalDate.of(2025, 1, 10), range.get(0).getDate());
+
+    assertEquals(30, repo.findLastDays(30, start.plusDays(99)).size());
+    // 2025-02-05 is a Wednesday; its week runs Monday 3rd to Sunday 9th
+    List<Session> week = repo.findWeekOf(LocalDate.of(2025, 2, 5));
+    assertEquals(7, week.size());
+    assertEquals(LocalDate.of(2025, 2, 3), week.get(0).getDate());
+
+    assertTrue(repo.findBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)).isEmpty());
+    assertTrue(repo.findBetween(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)).isEmpty());
+  }
+
+  @Test
+  void pagingAndRemoveKeepIndexAligned() {
+    SessionRepository repo = new SessionRepository();
+    LocalDate start = LocalDate.of(2025, 1, 1);
+    repo.addAll(List.of(
+        new Session(start.plusDays(4)),
+        new Session(start.plusDays(2)),
+        new Session(start),
+        new Session(start.plusDays(3)),
+        new Session(start.plusDays(1))));
+
+    assertEquals(2, repo.getPage(0, 2).size());
+    assertEquals(1, repo.getPage(2, 2).size());
+    assertTrue(repo.getPage(3, 2).isEmpty());
+
+    Session removed = repo.remove(1);
+    assertEquals(start.plusDays(1), removed.getDate());
+    assertEquals(4, repo.size());
+    assertEquals(1, repo.findOn(start.plusDays(2)).size());
+    assertTrue(repo.findOn(start.plusDays(1)).isEmpty());
+  }
+}
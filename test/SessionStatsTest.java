@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionStatsTest {
+
+  @Test
+  void emptySessionHasNoTempo() {
+    SessionStats stats = new Session(LocalDate.of(2025, 1, 1)).getStats();
+
+    assertEquals(0, stats.getTotalMinutes());
+    assertEquals(0, stats.getEntryCount());
+    assertNull(stats.getMinTempoBpm());
+    assertNull(stats.getMaxTempoBpm());
+    assertNull(stats.getMeanTempoBpm());
+    assertTrue(stats.getMinutesByCategory().isEmpty());
+  }
+
+  @Test
+  void statsTrackEntriesAsTheyAreAdded() {
+    Session session = new Session(LocalDate.of(2025, 1, 1));
+    Exercise scale = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+    Exercise song = new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson");
+    SessionStats before = session.getStats();
+
+    session.addEntry(new SessionEntry(scale, 15, 100, null));
+    session.addEntry(new SessionEntry(song, 20, null, "slow bridge"));
+    session.addEntry(new SessionEntry(scale, 5, 80, null));
+    SessionStats stats = session.getStats();
+
+    // Stats are snapshots; ones taken earlier do not change
+    assertEquals(0, before.getEntryCount());
+
+    assertEquals(40, stats.getTotalMinutes());
+    assertEquals(session.getTotalMinutes(), stats.getTotalMinutes());
+    assertEquals(3, stats.getEntryCount());
+    assertEquals(2, stats.getTempoEntryCount());
+    assertEquals(80, stats.getMinTempoBpm());
+    assertEquals(100, stats.getMaxTempoBpm());
+    assertEquals(90.0, stats.getMeanTempoBpm(), 1e-9);
+    assertEquals(20, stats.getMinutesForCategory(scale.getCategory()));
+    assertEquals(20, stats.getMinutesForCategory(song.getCategory()));
+    assertEquals(0, stats.getMinutesForCategory("Unknown"));
+
+    Map<String, Integer> byCategory = stats.getMinutesByCategory();
+    assertThrows(UnsupportedOperationException.class, () -> byCategory.put("x", 1));
+  }
+}
@@ -23,7 +23,8 @@ public class SessionTest {
 
     List<SessionEntry> entries = session.getEntries();
     assertEquals(1, entries.size());
-    assertSame(entry, entries.get(0));
+    assertEquals(entry, entries.get(0));
+    assertSame(exercise, entries.get(0).getExercise());
     assertFalse(session.isEmpty());
   }
 
@@ -60,6 +61,54 @@ public class SessionTest {
     assertEquals(25, session.getTotalMinutes());
   }
 
+  @Test
+  void entriesAreRebuiltFromColumnsAsTheSessionGrows() {
+    Session session = new Session(LocalDate.of(2025, 1, 1));
+    Exercise scale = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+    Exercise song = new SongExercise("Repertoire", 20, "Blue Bossa", "Joe Henderson");
+    List<SessionEntry> before = session.getEntries();
+
+    for (int i = 1; i <= 50; i++) {
+      Exercise ex = i % 2 == 0 ? scale : song;
+      session.addEntry(new SessionEntry(ex, i, i % 3 == 0 ? 60 + i : null, i == 40 ? "late" : null));
+    }
+    List<SessionEntry> view = session.getEntries();
+
+    // getEntries() is a snapshot, so the list taken before the adds stays empty
+    assertTrue(before.isEmpty());
+    assertEquals(50, view.size());
+    assertEquals(new SessionEntry(song, 1, null, null), view.get(0));
+    assertEquals(new SessionEntry(song, 39, 99, null), view.get(38));
+    assertEquals(new SessionEntry(scale, 40, null, "late"), view.get(39));
+    assertSame(scale, view.get(49).getExercise());
+    assertEquals(1275, session.getTotalMinutes());
+    assertThrows(IndexOutOfBoundsException.class, () -> view.get(50));
+  }
+
+  @Test
+  void dirtyTrackingFollowsAddsAndSaves() {
+    Session session = new Session(LocalDate.of(2025, 1, 1));
+    Exercise ex = new SongExercise("Warmup Song", 10, "Blue Bossa", "Joe Henderson");
+    assertFalse(session.isDirty());
+    assertEquals(0, session.getModificationCount());
+
+    session.addEntry(new SessionEntry(ex, 5, null, null));
+    session.addEntry(new SessionEntry(ex, 6, null, null));
+    assertTrue(session.isDirty());
+    assertEquals(2, session.getModificationCount());
+    assertEquals(0, session.getFirstUnsavedIndex());
+
+    session.markSaved(2);
+    assertFalse(session.isDirty());
+    session.addEntry(new SessionEntry(ex, 7, null, null));
+    assertEquals(2, session.getFirstUnsavedIndex());
+
+    // A late mark for an older save never moves the index back
+    session.markSaved(1);
+    assertEquals(2, session.getFirstUnsavedIndex());
+    assertThrows(IllegalArgumentException.class, () -> session.markSaved(4));
+  }
+
   @Test
   void constructorRejectsNullDate() {
     assertThrows(IllegalArgumentException.class, () -> new Session(null));
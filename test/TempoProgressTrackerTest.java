@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TempoProgressTrackerTest {
+
+  private final ScaleExercise scales = new ScaleExercise("Scales", 15, "Major", "C", 120);
+  private final LocalDate start = LocalDate.of(2025, 1, 1);
+
+  @Test
+  void tracksEwmaBestAndDaysToTarget() {
+    TempoProgressTracker tracker = new TempoProgressTracker(new ExerciseCatalog(), 0.5, 4);
+
+    // Steady gain of 2 BPM a day from 80
+    for (int d = 0; d < 10; d++) {
+      tracker.record(start.plusDays(d), new SessionEntry(scales, 10, 80 + 2 * d, null));
+    }
+
+    TempoProgressTracker.TempoProgress p = tracker.getProgress(scales);
+    assertEquals(10, p.getSampleCount());
+    assertEquals(98, p.getBestTempoBpm());
+    assertEquals(98, p.getLatestTempoBpm());
+    assertEquals(start.plusDays(9), p.getLatestDate());
+    assertEquals(2.0, p.getTrendBpmPerDay(), 1e-9);
+    // EWMA lags a linear ramp by slope * (1 - alpha) / alpha = 2
+    assertEquals(96.0, p.getEwmaTempoBpm(), 0.01);
+    assertEquals(12, p.getDaysToTarget());
+  }
+
+  @Test
+  void ignoresSongsAndEntriesWithoutTempo() {
+    TempoProgressTracker tracker = new TempoProgressTracker();
+    Session session = new Session(start);
+    SongExercise tune = new SongExercise("Tune", 10, "Blue Bossa", "Joe Henderson");
+    session.addEntry(new SessionEntry(tune, 10, 90, null));
+    session.addEntry(new SessionEntry(scales, 10, null, null));
+    tracker.record(session);
+
+    assertNull(tracker.getProgress(tune));
+    assertNull(tracker.getProgress(scales));
+  }
+
+  @Test
+  void reportsNoEstimateWithoutImprovementAndZeroAtTarget() {
+    TempoProgressTracker tracker = new TempoProgressTracker();
+    ArpeggioExercise arps = new ArpeggioExercise("Arpeggios", 10, "Cmaj7", 100);
+    for (int d = 0; d < 5; d++) {
+      tracker.record(start.plusDays(d), new SessionEntry(scales, 10, 90 - d, null));
+      tracker.record(start.plusDays(d), new SessionEntry(arps, 10, 110, null));
+    }
+
+    assertNull(tracker.getProgress(scales).getDaysToTarget());
+    assertEquals(0, tracker.getProgress(arps).getDaysToTarget());
+    assertThrows(IllegalArgumentException.class, () -> new TempoProgressTracker(new ExerciseCatalog(), 0, 4));
+    assertThrows(IllegalArgumentException.class, () -> new TempoProgressTracker(new ExerciseCatalog(), 0.5, 1));
+  }
+
+  @Test
+  void exercisesThatShareANameAreTrackedApart() {
+    TempoProgressTracker tracker = new TempoProgressTracker();
+    ScaleExercise fastScales = new ScaleExercise("Scales", 15, "Minor", "A", 200);
+    for (int d = 0; d < 5; d++) {
+      tracker.record(start.plusDays(d), new SessionEntry(scales, 10, 120, null));
+      tracker.record(start.plusDays(d), new SessionEntry(fastScales, 10, 100 + 10 * d, null));
+    }
+
+    assertEquals(120, tracker.getProgress(scales).getTargetTempoBpm());
+    assertEquals(0, tracker.getProgress(scales).getDaysToTarget());
+    assertEquals(5, tracker.getProgress(scales).getSampleCount());
+    assertEquals(200, tracker.getProgress(fastScales).getTargetTempoBpm());
+    assertEquals(140, tracker.getProgress(fastScales).getBestTempoBpm());
+    // An equal copy finds the same statistics
+    assertEquals(5, tracker.getProgress(new ScaleExercise("Scales", 15, "Major", "C", 120))
+        .getSampleCount());
+  }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindStoreTest {
+
+  private static final Exercise EXERCISE = new ScaleExercise("Major Scales", 15, "Major", "C", 90);
+
+  @Test
+  void repeatedSavesOfOneFileCoalesceIntoOneWrite() throws Exception {
+    Path file = Files.createTempDirectory("write-behind-").resolve("session.json");
+    Session session = new Session(LocalDate.of(2025, 1, 1));
+
+    // A long interval so only the explicit flush writes
+    try (WriteBehindStore store = new WriteBehindStore(new JsonStore(), 60_000, 100)) {
+      for (int i = 1; i <= 500; i++) {
+        session.addEntry(new SessionEntry(EXERCISE, 1, null, null));
+        store.save(session, file);
+      }
+      assertFalse(Files.exists(file));
+      assertEquals(1, store.getPendingCount());
+
+      store.flush();
+      assertEquals(1, store.getWriteCount());
+      assertEquals(0, store.getPendingCount());
+      assertEquals(500, new JsonStore().load(file).getTotalMinutes());
+    }
+  }
+
+  @Test
+  void sizeThresholdAndCloseFlushEverything() throws Exception {
+    Path dir = Files.createTempDirectory("write-behind-batch-");
+    List<Session> sessions = new ArrayList<>();
+    WriteBehindStore store = new WriteBehindStore(new JsonStore(), 60_000, 4);
+    for (int i = 0; i < 10; i++) {
+      Session s = new Session(LocalDate.of(2025, 1, 1).plusDays(i));
+      s.addEntry(new SessionEntry(EXERCISE, i + 1, null, null));
+      sessions.add(s);
+      store.save(s, dir.resolve(i + ".json"));
+    }
+    store.close();
+
+    // Early flushes plus the final one wrote each file exactly once
+    assertEquals(10, store.getWriteCount());
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i + 1, new JsonStore().load(dir.resolve(i + ".json")).getTotalMinutes());
+    }
+    try (Stream<Path> files = Files.list(dir)) {
+      assertTrue(files.noneMatch(p -> p.toString().endsWith(".tmp")));
+    }
+    assertThrows(IllegalStateException.class, () -> store.save(sessions.get(0), dir.resolve("x.json")));
+  }
+
+  @Test
+  void failedWritesAreRetriedThenReportedOnce() throws Exception {
+    Path dir = Files.createTempDirectory("write-behind-fail-");
+    Path missing = dir.resolve("no-such-dir").resolve("session.json");
+    List<Path> reported = new ArrayList<>();
+
+    WriteBehindStore store = new WriteBehindStore(new JsonStore(), 60_000, 100);
+    store.setErrorHandler((file, error) -> reported.add(file));
+    Session session = new Session(LocalDate.of(2025, 1, 1));
+    store.save(session, missing);
+
+    for (int i = 1; i < WriteBehindStore.MAX_ATTEMPTS; i++) {
+      assertThrows(IOException.class, store::flush);
+      assertEquals(List.of(), reported);
+      assertEquals(1, store.getPendingCount());
+    }
+    // The last attempt gives the save up and reports it
+    assertThrows(IOException.class, store::flush);
+    assertEquals(List.of(missing), reported);
+    assertEquals(0, store.getPendingCount());
+    store.flush();
+
+    // Saving again retries, and close reports a failure at once
+    store.save(session, missing);
+    assertThrows(IOException.class, store::close);
+    assertEquals(List.of(missing, missing), reported);
+
+    WriteBehindStore retry = new WriteBehindStore(new JsonStore(), 60_000, 100);
+    retry.save(session, missing);
+    Files.createDirectories(missing.getParent());
+    retry.close();
+    assertTrue(Files.exists(missing));
+  }
+}